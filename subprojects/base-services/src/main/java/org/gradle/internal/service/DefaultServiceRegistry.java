@@ -26,6 +26,8 @@ import org.gradle.internal.reflect.JavaReflectionUtil;
 import java.io.Closeable;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A hierarchical {@link ServiceRegistry} implementation.
@@ -54,6 +56,9 @@ import java.util.*;
  * reverse dependency order.</p>
  *
  * <p>Service registries are arranged in a hierarchy. If a service of a given type cannot be located, the registry uses its parent registry, if any, to locate the service.</p>
+ *
+ * <p>Once a service or factory has been located for a given type, the registry remembers where it was located, so that later lookups of the same type do not
+ * need to search the registry or lock it. The lookups are forgotten when a service is registered.</p>
  */
 public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private final Object lock = new Object();
@@ -61,7 +66,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     private final OwnServices ownServices;
     private final CompositeProvider parentServices;
     private final String displayName;
-    private boolean closed;
+    private final ConcurrentMap<Type, ServiceProvider> resolvedServices = new ConcurrentHashMap<Type, ServiceProvider>();
+    private final ConcurrentMap<Class<?>, ServiceProvider> resolvedFactories = new ConcurrentHashMap<Class<?>, ServiceProvider>();
+    private volatile boolean closed;
 
     public DefaultServiceRegistry() {
         this(null, Collections.<ServiceRegistry>emptyList());
@@ -237,6 +244,8 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
                 CompositeStoppable.stoppable(allServices).stop();
             } finally {
                 closed = true;
+                resolvedServices.clear();
+                resolvedFactories.clear();
             }
         }
     }
@@ -289,6 +298,11 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     private Object doGet(Type serviceType) throws IllegalArgumentException {
+        ServiceProvider resolved = resolvedServices.get(serviceType);
+        if (resolved != null && !closed) {
+            return resolved.get();
+        }
+
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate service of type %s, as %s has been closed.", format(serviceType), displayName));
@@ -297,7 +311,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             DefaultLookupContext context = new DefaultLookupContext();
             ServiceProvider provider = context.find(serviceType, allServices);
             if (provider != null) {
-                return provider.get();
+                Object instance = provider.get();
+                resolvedServices.put(serviceType, resolved(provider, instance));
+                return instance;
             }
 
             throw new UnknownServiceException(serviceType, String.format("No service of type %s available in %s.", format(serviceType), displayName));
@@ -305,6 +321,11 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
     }
 
     public <T> Factory<T> getFactory(Class<T> type) {
+        ServiceProvider resolved = resolvedFactories.get(type);
+        if (resolved != null && !closed) {
+            return (Factory<T>) resolved.get();
+        }
+
         synchronized (lock) {
             if (closed) {
                 throw new IllegalStateException(String.format("Cannot locate factory for objects of type %s, as %s has been closed.", format(type), displayName));
@@ -313,7 +334,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             DefaultLookupContext context = new DefaultLookupContext();
             ServiceProvider factory = allServices.getFactory(context, type);
             if (factory != null) {
-                return (Factory<T>) factory.get();
+                Object instance = factory.get();
+                resolvedFactories.put(type, resolved(factory, instance));
+                return (Factory<T>) instance;
             }
 
             throw new UnknownServiceException(type, String.format("No factory for objects of type %s available in %s.", format(type), displayName));
@@ -324,6 +347,30 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
         return getFactory(type).create();
     }
 
+    /**
+     * Returns the provider to use for later lookups of a service that has been located using the given provider. A service of this registry has
+     * been created by now, so the instance is reused. A service of a parent registry is looked up in that parent again, so that the parent
+     * remains in charge of its own services.
+     */
+    private static ServiceProvider resolved(final ServiceProvider provider, final Object instance) {
+        if (provider instanceof ParentServiceProvider) {
+            return ((ParentServiceProvider) provider).lookup();
+        }
+        return new ServiceProvider() {
+            public String getDisplayName() {
+                return provider.getDisplayName();
+            }
+
+            public Object get() {
+                return instance;
+            }
+
+            public void requiredBy(Provider provider) {
+                // Ignore
+            }
+        };
+    }
+
     private static Object invoke(Method method, Object target, Object... args) {
         return JavaReflectionUtil.method(target, Object.class, method).invoke(target, args);
     }
@@ -423,6 +470,9 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
 
         public void add(Provider provider) {
             this.providers.add(provider);
+            // A new service can change the result of a lookup
+            resolvedServices.clear();
+            resolvedFactories.clear();
         }
     }
 
@@ -833,11 +883,15 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             this.parent = parent;
         }
 
-        public ServiceProvider getFactory(LookupContext context, Class<?> type) {
+        public ServiceProvider getFactory(LookupContext context, final Class<?> type) {
             try {
                 Factory<?> factory = parent.getFactory(type);
                 assert factory != null : String.format("parent returned null for factory type '%s'", type.getName());
-                return wrap(factory);
+                return new ParentServiceProvider(parent, factory) {
+                    protected Object lookupFromParent() {
+                        return parent.getFactory(type);
+                    }
+                };
             } catch (UnknownServiceException e) {
                 if (!e.getType().equals(type)) {
                     throw e;
@@ -846,11 +900,15 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             return null;
         }
 
-        public ServiceProvider getService(LookupContext context, TypeSpec serviceType) {
+        public ServiceProvider getService(LookupContext context, final TypeSpec serviceType) {
             try {
                 Object service = parent.get(serviceType.getType());
                 assert service != null : String.format("parent returned null for service type %s", format(serviceType.getType()));
-                return wrap(service);
+                return new ParentServiceProvider(parent, service) {
+                    protected Object lookupFromParent() {
+                        return parent.get(serviceType.getType());
+                    }
+                };
             } catch (UnknownServiceException e) {
                 if (!e.getType().equals(serviceType.getType())) {
                     throw e;
@@ -859,14 +917,51 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             return null;
         }
 
-        private ServiceProvider wrap(final Object instance) {
+        public <T> void getAll(LookupContext context, Class<T> serviceType, List<T> result) {
+            List<T> services = parent.getAll(serviceType);
+            assert services != null : String.format("parent returned null for services of type %s", format(serviceType));
+            result.addAll(services);
+        }
+
+        public void stop() {
+        }
+    }
+
+    /**
+     * A service that has been located in a parent registry.
+     */
+    private static abstract class ParentServiceProvider implements ServiceProvider {
+        private final ServiceRegistry parent;
+        private final Object instance;
+
+        private ParentServiceProvider(ServiceRegistry parent, Object instance) {
+            this.parent = parent;
+            this.instance = instance;
+        }
+
+        public String getDisplayName() {
+            return String.format("ServiceRegistry %s", parent);
+        }
+
+        public Object get() {
+            return instance;
+        }
+
+        public void requiredBy(Provider provider) {
+            // Ignore
+        }
+
+        /**
+         * Returns a provider that locates the service in the parent registry each time it is used.
+         */
+        ServiceProvider lookup() {
             return new ServiceProvider() {
                 public String getDisplayName() {
-                    return String.format("ServiceRegistry %s", parent);
+                    return ParentServiceProvider.this.getDisplayName();
                 }
 
                 public Object get() {
-                    return instance;
+                    return lookupFromParent();
                 }
 
                 public void requiredBy(Provider provider) {
@@ -875,14 +970,7 @@ public class DefaultServiceRegistry implements ServiceRegistry, Closeable {
             };
         }
 
-        public <T> void getAll(LookupContext context, Class<T> serviceType, List<T> result) {
-            List<T> services = parent.getAll(serviceType);
-            assert services != null : String.format("parent returned null for services of type %s", format(serviceType));
-            result.addAll(services);
-        }
-
-        public void stop() {
-        }
+        protected abstract Object lookupFromParent();
     }
 
     interface LookupContext {
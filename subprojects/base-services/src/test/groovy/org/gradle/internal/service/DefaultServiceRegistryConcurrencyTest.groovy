@@ -49,6 +49,34 @@ class DefaultServiceRegistryConcurrencyTest extends ConcurrentSpec {
         }
     }
 
+    def "multiple threads can locate services in a hierarchy of registries"() {
+        def root = new DefaultServiceRegistry()
+        root.addProvider(new Object() {
+            String createString(Integer value) {
+                return value.toString()
+            }
+
+            Integer createInteger() {
+                return 12
+            }
+        })
+        def registry = root
+        5.times {
+            registry = new DefaultServiceRegistry(registry)
+        }
+        def leaf = registry
+
+        expect:
+        10.times {
+            start {
+                1000.times {
+                    assert leaf.get(String) == "12"
+                    assert leaf.get(Integer) == 12
+                }
+            }
+        }
+    }
+
     def "multiple threads can locate factories"() {
         def registry = new DefaultServiceRegistry()
         registry.addProvider(new Object() {
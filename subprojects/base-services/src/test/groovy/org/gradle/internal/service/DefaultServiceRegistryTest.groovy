@@ -69,6 +69,43 @@ class DefaultServiceRegistryTest extends Specification {
         1 * parent2.get(BigDecimal) >> value
     }
 
+    def looksUpServiceInParentThatProvidedItOnLaterLookups() {
+        def parent1 = Mock(ServiceRegistry)
+        def parent2 = Mock(ServiceRegistry)
+        def registry = new DefaultServiceRegistry(parent1, parent2)
+
+        given:
+        1 * parent1.get(BigDecimal) >> { throw new UnknownServiceException(BigDecimal, "fail") }
+        1 * parent2.get(BigDecimal) >> BigDecimal.ONE
+        registry.get(BigDecimal)
+
+        when:
+        def result = registry.get(BigDecimal)
+
+        then:
+        result == BigDecimal.TEN
+
+        and:
+        0 * parent1._
+        1 * parent2.get(BigDecimal) >> BigDecimal.TEN
+    }
+
+    def usesServiceRegisteredAfterEarlierLookup() {
+        def parent = Stub(ServiceRegistry) {
+            get(Number) >> 12
+        }
+        def registry = new DefaultServiceRegistry(parent)
+
+        expect:
+        registry.get(Number) == 12
+
+        when:
+        registry.add(Number, 13)
+
+        then:
+        registry.get(Number) == 13
+    }
+
     def throwsExceptionForUnknownParentService() {
         def parent = Mock(ServiceRegistry);
         def registry = new TestRegistry(parent)
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api
+
+import org.gradle.execution.TaskPathProjectEvaluator
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class ParallelConfigurationIntegrationTest extends AbstractIntegrationSpec {
+
+    def projects = (1..40).collect { "p$it" }
+
+    def setup() {
+        executer.withArgument("-D${TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_PROPERTY}=true")
+        settingsFile << "include ${projects.collect { "'$it'" }.join(', ')}"
+    }
+
+    def "configures many projects concurrently that use the state of the root project"() {
+        buildFile << """
+            ext.configured = java.util.Collections.synchronizedSet(new HashSet())
+            allprojects {
+                tasks.addRule("Pattern: greet<Name>") { String taskName ->
+                    if (taskName.startsWith("greet")) {
+                        tasks.create(taskName)
+                    }
+                }
+            }
+            subprojects {
+                afterEvaluate { p -> rootProject.configured << p.path }
+            }
+            task verify {
+                doLast {
+                    assert configured.size() == ${projects.size()}
+                    subprojects.each { p ->
+                        assert ext.get("value_\${p.name}") == p.name
+                        assert ext.get("evaluated_\${p.name}")
+                        assert p.tasks.findByName("greet\${p.name}")
+                    }
+                }
+            }
+        """
+        projects.each {
+            file("$it/build.gradle") << """
+                rootProject.ext."value_\${name}" = name
+                gradle.afterProject { p ->
+                    if (p == project) {
+                        rootProject.ext."evaluated_\${name}" = true
+                    }
+                }
+                assert rootProject.properties.containsKey("configured")
+                assert rootProject.tasks.findByName("help")
+                assert rootProject.tasks.findByName("greetRoot")
+                assert tasks.findByName("greet\${name}")
+            """
+        }
+
+        expect:
+        succeeds "verify"
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class TaskRegistrationIntegrationTest extends AbstractIntegrationSpec {
+
+    def setup() {
+        buildFile << """
+            class GreetingTask extends DefaultTask {
+                String message
+
+                @TaskAction
+                void greet() {
+                    println "greeting: \$message"
+                }
+            }
+        """
+    }
+
+    def "registered task can be selected on the command line"() {
+        given:
+        buildFile << """
+            tasks.register("hello", GreetingTask) { task ->
+                println "configuring \$task.name"
+                task.message = "hello"
+            }
+        """
+
+        when:
+        succeeds "hello"
+
+        then:
+        executedTasks == [":hello"]
+        output.contains("configuring hello")
+        output.contains("greeting: hello")
+    }
+
+    def "registered task is not created when it is not used"() {
+        given:
+        buildFile << """
+            tasks.register("hello", GreetingTask) { task ->
+                println "configuring \$task.name"
+            }
+            task other
+        """
+
+        when:
+        succeeds "other"
+
+        then:
+        executedTasks == [":other"]
+        !output.contains("configuring hello")
+    }
+
+    def "registered task can be referenced by name from a task dependency"() {
+        given:
+        buildFile << """
+            tasks.register("hello", GreetingTask) { task ->
+                task.message = "hello"
+            }
+            task other(dependsOn: "hello")
+        """
+
+        when:
+        succeeds "other"
+
+        then:
+        executedTasks == [":hello", ":other"]
+        output.contains("greeting: hello")
+    }
+
+    def "registered task is configured by withType actions"() {
+        given:
+        buildFile << """
+            tasks.register("hello", GreetingTask) { task ->
+                task.message = "hello"
+            }
+            tasks.register("copy", Copy) { task ->
+                println "configuring \$task.name"
+            }
+            tasks.withType(GreetingTask) {
+                message = message + " from withType"
+            }
+        """
+
+        when:
+        succeeds "hello"
+
+        then:
+        executedTasks == [":hello"]
+        output.contains("greeting: hello from withType")
+        !output.contains("configuring copy")
+    }
+
+    def "registered task is listed in the tasks report"() {
+        given:
+        buildFile << """
+            tasks.register("hello", GreetingTask) { task ->
+                task.group = "greeting"
+                task.description = "Says hello"
+            }
+        """
+
+        when:
+        succeeds "tasks"
+
+        then:
+        output.contains("Greeting tasks")
+        output.contains("hello - Says hello")
+    }
+}
@@ -93,7 +93,13 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                     type.getSimpleName()));
         }
 
-        Class<? extends T> subclass;
+        Class<? extends T> subclass = loadPreviouslyGenerated(type);
+        if (subclass != null) {
+            cache.put(type, subclass);
+            cache.put(subclass, subclass);
+            return subclass;
+        }
+
         try {
             ClassMetaData classMetaData = inspectType(type);
 
@@ -209,6 +215,15 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         return subclass;
     }
 
+    /**
+     * Returns a class generated for the given type by an earlier build, or null if there is none. Called before the type is inspected, while holding
+     * the generator lock.
+     */
+    @Nullable
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        return null;
+    }
+
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
     private ClassMetaData inspectType(Class<?> type) {
@@ -17,10 +17,13 @@ package org.gradle.api.internal;
 
 import com.google.common.collect.ImmutableSet;
 import groovy.lang.*;
+import org.gradle.api.Nullable;
 import org.gradle.api.Transformer;
 import org.gradle.api.plugins.Convention;
 import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.reflect.JavaMethod;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.internal.service.ServiceRegistry;
@@ -28,21 +31,150 @@ import org.gradle.util.CollectionUtils;
 import org.objectweb.asm.*;
 import org.objectweb.asm.Type;
 
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.reflect.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public class AsmBackedClassGenerator extends AbstractClassGenerator {
     private static final JavaMethod<ClassLoader, Class> DEFINE_CLASS_METHOD = JavaReflectionUtil.method(ClassLoader.class, Class.class, "defineClass", String.class, byte[].class, Integer.TYPE, Integer.TYPE);
 
+    private final GeneratedBytecodeCache bytecodeCache;
+    // Identifies the implementation of this generator, so that classes generated by another implementation are not used. Null when not caching
+    private final String generatorHash;
+    // These are only used while holding the generator lock
+    private final Map<Class<?>, HashValue> classFileHashes = new WeakHashMap<Class<?>, HashValue>();
+    private final Set<Class<?>> missingClassFiles = Collections.newSetFromMap(new WeakHashMap<Class<?>, Boolean>());
+
+    public AsmBackedClassGenerator() {
+        this(null);
+    }
+
+    /**
+     * @param bytecodeCache Used to reuse classes generated by earlier builds. The bytecode of a generated class is keyed by the class files of the
+     * generator, the type and its supertypes. When null, classes are always generated.
+     */
+    public AsmBackedClassGenerator(@Nullable GeneratedBytecodeCache bytecodeCache) {
+        this.generatorHash = bytecodeCache == null ? null : generatorHash();
+        this.bytecodeCache = generatorHash == null ? null : bytecodeCache;
+    }
+
+    @Override
+    protected <T> Class<? extends T> loadPreviouslyGenerated(Class<T> type) {
+        String key = cacheKey(type);
+        if (key == null) {
+            return null;
+        }
+        byte[] bytecode = bytecodeCache.get(key);
+        if (bytecode == null) {
+            return null;
+        }
+        try {
+            return defineClass(type, bytecode);
+        } catch (ClassFormatError e) {
+            // Generate the class again
+            return null;
+        }
+    }
+
     @Override
     protected <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData) {
-        return new ClassBuilderImpl<T>(type, classMetaData);
+        return new ClassBuilderImpl<T>(type, classMetaData, bytecodeCache, cacheKey(type));
+    }
+
+    private static <T> Class<? extends T> defineClass(Class<T> type, byte[] bytecode) {
+        return DEFINE_CLASS_METHOD.invoke(type.getClassLoader(), type.getName() + "_Decorated", bytecode, 0, bytecode.length);
+    }
+
+    /**
+     * Returns the key for the generated class of the given type, or null when the class should not be cached.
+     */
+    @Nullable
+    private String cacheKey(Class<?> type) {
+        if (bytecodeCache == null) {
+            return null;
+        }
+        Set<Class<?>> hierarchy = new LinkedHashSet<Class<?>>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            collectInterfaces(current, hierarchy);
+        }
+        StringBuilder hashes = new StringBuilder();
+        for (Class<?> current : hierarchy) {
+            if (current.getClassLoader() == null) {
+                // A JDK type
+                continue;
+            }
+            HashValue hash = classFileHash(current);
+            if (hash == null) {
+                return null;
+            }
+            hashes.append(hash.asCompactString()).append('/');
+        }
+        return String.format("%s/%s/%s", generatorHash, type.getName(), HashUtil.createCompactMD5(hashes.toString()));
+    }
+
+    /**
+     * Returns a hash of the class files of the generator and of the ASM version that it uses, or null when one of them cannot be found.
+     */
+    @Nullable
+    private static String generatorHash() {
+        Set<Class<?>> generatorClasses = new LinkedHashSet<Class<?>>();
+        collectNestedClasses(AbstractClassGenerator.class, generatorClasses);
+        collectNestedClasses(AsmBackedClassGenerator.class, generatorClasses);
+        generatorClasses.add(ClassWriter.class);
+        StringBuilder hashes = new StringBuilder();
+        for (Class<?> generatorClass : generatorClasses) {
+            HashValue hash = readClassFileHash(generatorClass);
+            if (hash == null) {
+                return null;
+            }
+            hashes.append(hash.asCompactString()).append('/');
+        }
+        return HashUtil.createCompactMD5(hashes.toString());
+    }
+
+    private static void collectNestedClasses(Class<?> type, Set<Class<?>> types) {
+        if (types.add(type)) {
+            for (Class<?> nestedClass : type.getDeclaredClasses()) {
+                collectNestedClasses(nestedClass, types);
+            }
+        }
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> types) {
+        if (types.add(type)) {
+            for (Class<?> superInterface : type.getInterfaces()) {
+                collectInterfaces(superInterface, types);
+            }
+        }
+    }
+
+    @Nullable
+    private HashValue classFileHash(Class<?> type) {
+        HashValue hash = classFileHashes.get(type);
+        if (hash != null || missingClassFiles.contains(type)) {
+            return hash;
+        }
+        hash = readClassFileHash(type);
+        if (hash == null) {
+            // Defined at runtime, for example
+            missingClassFiles.add(type);
+            return null;
+        }
+        classFileHashes.put(type, hash);
+        return hash;
+    }
+
+    @Nullable
+    private static HashValue readClassFileHash(Class<?> type) {
+        InputStream classFile = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (classFile == null) {
+            return null;
+        }
+        return HashUtil.createHash(classFile, "MD5");
     }
 
     private static class ClassBuilderImpl<T> implements ClassBuilder<T> {
@@ -69,9 +201,13 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
         private final boolean conventionAware;
         private final boolean extensible;
         private final boolean providesOwnDynamicObject;
+        private final GeneratedBytecodeCache bytecodeCache;
+        private final String cacheKey;
 
-        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData) {
+        private ClassBuilderImpl(Class<T> type, ClassMetaData classMetaData, GeneratedBytecodeCache bytecodeCache, String cacheKey) {
             this.type = type;
+            this.bytecodeCache = bytecodeCache;
+            this.cacheKey = cacheKey;
 
             visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
             typeName = type.getName() + "_Decorated";
@@ -1008,7 +1144,11 @@ public class AsmBackedClassGenerator extends AbstractClassGenerator {
             visitor.visitEnd();
 
             byte[] bytecode = visitor.toByteArray();
-            return DEFINE_CLASS_METHOD.invoke(type.getClassLoader(), typeName, bytecode, 0, bytecode.length);
+            Class<? extends T> generatedClass = defineClass(type, bytecode);
+            if (cacheKey != null) {
+                bytecodeCache.put(cacheKey, bytecode);
+            }
+            return generatedClass;
         }
     }
 
@@ -15,6 +15,9 @@
  */
 package org.gradle.api.internal;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import groovy.lang.*;
 import groovy.lang.MissingMethodException;
 import org.codehaus.groovy.runtime.InvokerInvocationException;
@@ -25,11 +28,30 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A {@link DynamicObject} which uses groovy reflection to provide access to the properties and methods of a bean.
  */
 public class BeanDynamicObject extends AbstractDynamicObject {
+    static final LoadingCache<MetaClass, CachedMetaClass> CACHED_META_CLASSES = CacheBuilder.newBuilder().weakKeys().build(
+            new CacheLoader<MetaClass, CachedMetaClass>() {
+                @Override
+                public CachedMetaClass load(MetaClass metaClass) {
+                    return new CachedMetaClass();
+                }
+            });
+
+    static {
+        // The lookups of a meta-class may change when the meta-class of a super class is replaced
+        GroovySystem.getMetaClassRegistry().addMetaClassRegistryChangeEventListener(new MetaClassRegistryChangeEventListener() {
+            public void updateConstantMetaClass(MetaClassRegistryChangeEvent cmcu) {
+                CACHED_META_CLASSES.invalidateAll();
+            }
+        });
+    }
 
     private final Object bean;
     private final boolean includeProperties;
@@ -87,6 +109,17 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
     }
 
+    /**
+     * Returns the cached lookups for the given meta-class, or null when its lookups cannot be cached.
+     */
+    private CachedMetaClass getCachedMetaClass(MetaClass metaClass) {
+        // Only the lookups of a plain meta-class are immutable and independent of the target object
+        if (metaClass.getClass() != MetaClassImpl.class || bean instanceof Class) {
+            return null;
+        }
+        return CACHED_META_CLASSES.getUnchecked(metaClass);
+    }
+
     @Override
     public boolean isMayImplementMissingMethods() {
         return implementsMissing && delegate.isMayImplementMissingMethods();
@@ -131,8 +164,16 @@ public class BeanDynamicObject extends AbstractDynamicObject {
 
     private class MetaClassAdapter implements DynamicObject {
 
+        protected MetaProperty lookupProperty(MetaClass metaClass, String name) {
+            CachedMetaClass cachedMetaClass = getCachedMetaClass(metaClass);
+            if (cachedMetaClass != null) {
+                return cachedMetaClass.getProperty(metaClass, bean, name);
+            }
+            return metaClass.hasProperty(bean, name);
+        }
+
         public boolean hasProperty(String name) {
-            return includeProperties && getMetaClass().hasProperty(bean, name) != null;
+            return includeProperties && lookupProperty(getMetaClass(), name) != null;
         }
 
         public Object getProperty(String name) throws MissingPropertyException {
@@ -140,7 +181,7 @@ public class BeanDynamicObject extends AbstractDynamicObject {
                 throw propertyMissingException(name);
             }
 
-            MetaProperty property = getMetaClass().hasProperty(bean, name);
+            MetaProperty property = lookupProperty(getMetaClass(), name);
             if (property == null) {
                 return getMetaClass().invokeMissingProperty(bean, name, null, true);
             }
@@ -165,7 +206,7 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             }
 
             MetaClass metaClass = getMetaClass();
-            MetaProperty property = metaClass.hasProperty(bean, name);
+            MetaProperty property = lookupProperty(metaClass, name);
             if (property == null) {
                 getMetaClass().invokeMissingProperty(bean, name, null, false);
             }
@@ -217,7 +258,12 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
 
         public boolean hasMethod(final String name, final Object... arguments) {
-            return !getMetaClass().respondsTo(bean, name, arguments).isEmpty();
+            MetaClass metaClass = getMetaClass();
+            CachedMetaClass cachedMetaClass = getCachedMetaClass(metaClass);
+            if (cachedMetaClass != null && !cachedMetaClass.hasMethodsNamed(metaClass, bean, name)) {
+                return false;
+            }
+            return !metaClass.respondsTo(bean, name, arguments).isEmpty();
         }
 
         public Object invokeMethod(final String name, final Object... arguments) throws MissingMethodException {
@@ -236,7 +282,9 @@ public class BeanDynamicObject extends AbstractDynamicObject {
         }
 
         public boolean isMayImplementMissingProperties() {
-            return true;
+            MetaClass metaClass = getMetaClass();
+            CachedMetaClass cachedMetaClass = getCachedMetaClass(metaClass);
+            return cachedMetaClass == null || cachedMetaClass.isMayImplementMissingProperties(metaClass, bean);
         }
     }
 
@@ -257,6 +305,11 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             return groovyObject.getProperty(name);
         }
 
+        @Override
+        public boolean isMayImplementMissingProperties() {
+            return true;
+        }
+
         @Override
         public void setProperty(String name, Object value) throws MissingPropertyException {
             groovyObject.setProperty(name, value);
@@ -274,4 +327,50 @@ public class BeanDynamicObject extends AbstractDynamicObject {
             }
         }
     }
+
+    /**
+     * The results of the lookups of a meta-class, including the names that the meta-class does not resolve, so that each name is looked up once for a type.
+     * Holds names and flags only: a meta-class, or a property or method of it, would strongly reference the type and so its class loader, and the
+     * entry would never be collected.
+     */
+    private static class CachedMetaClass {
+        private final Set<String> missingProperties = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        private final ConcurrentMap<String, Boolean> methodNames = new ConcurrentHashMap<String, Boolean>();
+        private volatile Boolean mayImplementMissingProperties;
+
+        MetaProperty getProperty(MetaClass metaClass, Object bean, String name) {
+            if (missingProperties.contains(name)) {
+                return null;
+            }
+            MetaProperty metaProperty = metaClass.hasProperty(bean, name);
+            if (metaProperty == null) {
+                missingProperties.add(name);
+            }
+            return metaProperty;
+        }
+
+        boolean hasMethodsNamed(MetaClass metaClass, Object bean, String name) {
+            Boolean hasMethods = methodNames.get(name);
+            if (hasMethods == null) {
+                hasMethods = !metaClass.respondsTo(bean, name).isEmpty();
+                methodNames.putIfAbsent(name, hasMethods);
+            }
+            return hasMethods;
+        }
+
+        /**
+         * A missing property may be resolved by a propertyMissing() method, or by a property added to the meta-class of a super class.
+         */
+        boolean isMayImplementMissingProperties(MetaClass metaClass, Object bean) {
+            if (mayImplementMissingProperties == null) {
+                boolean mayImplement = !metaClass.respondsTo(bean, "propertyMissing").isEmpty();
+                MetaClassRegistry registry = GroovySystem.getMetaClassRegistry();
+                for (Class<?> type = metaClass.getTheClass().getSuperclass(); type != null && !mayImplement; type = type.getSuperclass()) {
+                    mayImplement = registry.getMetaClass(type).getClass() != MetaClassImpl.class;
+                }
+                mayImplementMissingProperties = mayImplement;
+            }
+            return mayImplementMissingProperties;
+        }
+    }
 }
@@ -100,11 +100,12 @@ public class DefaultDomainObjectCollection<T> extends AbstractCollection<T> impl
     }
 
     public void all(Action<? super T> action) {
-        action = whenObjectAdded(action);
-
         // copy in case any actions mutate the store
         // linked list because the underlying store may preserve order
-        Collection<T> copied = new LinkedList<T>(this);
+        // copy before adding the action, as iterating may add elements that are created on demand
+        // copy the store rather than this collection, so that a container whose iterator creates its elements on demand does not create them here
+        Collection<T> copied = new LinkedList<T>(getStore());
+        action = whenObjectAdded(action);
 
         for (T t : copied) {
             action.execute(t);
@@ -40,7 +40,8 @@ public class DefaultNamedDomainObjectCollection<T> extends DefaultDomainObjectCo
     private final DynamicObject dynamicObject;
 
     private final List<Rule> rules = new ArrayList<Rule>();
-    private Set<String> applyingRulesFor = new HashSet<String>();
+    // The task container may apply rules for different names concurrently
+    private final Set<String> applyingRulesFor = Collections.synchronizedSet(new HashSet<String>());
 
     public DefaultNamedDomainObjectCollection(Class<? extends T> type, Collection<T> store, Instantiator instantiator, Namer<? super T> namer) {
         super(type, store);
@@ -45,6 +45,7 @@ public class ExtensibleDynamicObject extends CompositeDynamicObject implements H
     private DynamicObject beforeConvention;
     private DynamicObject afterConvention;
     private DynamicObject extraPropertiesDynamicObject;
+    private volatile ExtensibleDynamicObject inheritable;
 
     /**
      * This variant will internally create a convention that is not fully featured, so should be avoided.
@@ -75,6 +76,7 @@ public class ExtensibleDynamicObject extends CompositeDynamicObject implements H
     }
 
     private void updateDelegates() {
+        inheritable = null;
         List<DynamicObject> delegates = new ArrayList<DynamicObject>();
         delegates.add(dynamicDelegate);
         delegates.add(extraPropertiesDynamicObject);
@@ -145,6 +147,16 @@ public class ExtensibleDynamicObject extends CompositeDynamicObject implements H
     }
 
     private ExtensibleDynamicObject snapshotInheritable() {
+        // Reuse the snapshot until the objects it is made from are changed
+        ExtensibleDynamicObject snapshot = inheritable;
+        if (snapshot == null) {
+            snapshot = createInheritable();
+            inheritable = snapshot;
+        }
+        return snapshot;
+    }
+
+    private ExtensibleDynamicObject createInheritable() {
         AbstractDynamicObject emptyBean = new AbstractDynamicObject() {
             @Override
             protected String getDisplayName() {
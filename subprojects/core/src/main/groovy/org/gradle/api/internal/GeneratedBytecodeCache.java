@@ -1,5 +1,5 @@
 /*
- * Copyright 2009 the original author or authors.
+ * Copyright 2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,8 +14,19 @@
  * limitations under the License.
  */
 
-package org.gradle.api.internal.tasks.testing.detection;
+package org.gradle.api.internal;
 
-public interface JarFilePackageListener {
-    void receivePackage(String packageName);
+import org.gradle.api.Nullable;
+
+/**
+ * Keeps the bytecode of classes generated by a {@link ClassGenerator}, so that they do not need to be generated again by later builds.
+ */
+public interface GeneratedBytecodeCache {
+    /**
+     * Returns the bytecode stored for the given key, or null if there is none.
+     */
+    @Nullable
+    byte[] get(String key);
+
+    void put(String key, byte[] bytecode);
 }
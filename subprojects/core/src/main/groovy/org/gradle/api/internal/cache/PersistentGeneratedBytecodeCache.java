@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache;
+
+import org.gradle.api.internal.GeneratedBytecodeCache;
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.FileLockManager;
+import org.gradle.internal.Factory;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * A {@link GeneratedBytecodeCache} that is shared by all builds that use the current Gradle version. The cache is opened when it is first used, and
+ * is locked on demand: the lock is acquired by the first read and then kept until another process asks for it. New entries are kept in memory
+ * and written together when the cache is closed at the end of the build, so that generating many classes does not lock the cache for each one.
+ */
+public class PersistentGeneratedBytecodeCache implements GeneratedBytecodeCache, Closeable {
+    private final CacheRepository cacheRepository;
+    private PersistentCache cache;
+    private PersistentIndexedCache<String, byte[]> bytecode;
+    private final Map<String, byte[]> pending = new HashMap<String, byte[]>();
+
+    public PersistentGeneratedBytecodeCache(CacheRepository cacheRepository) {
+        this.cacheRepository = cacheRepository;
+    }
+
+    public synchronized byte[] get(final String key) {
+        byte[] value = pending.get(key);
+        if (value != null) {
+            return value;
+        }
+        open();
+        return cache.useCache("Load generated class", new Factory<byte[]>() {
+            public byte[] create() {
+                return bytecode.get(key);
+            }
+        });
+    }
+
+    public synchronized void put(String key, byte[] value) {
+        pending.put(key, value);
+    }
+
+    public synchronized void close() {
+        if (!pending.isEmpty()) {
+            open();
+            cache.useCache("Store generated classes", new Runnable() {
+                public void run() {
+                    for (Map.Entry<String, byte[]> entry : pending.entrySet()) {
+                        bytecode.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            });
+            pending.clear();
+        }
+        if (cache != null) {
+            cache.close();
+            cache = null;
+            bytecode = null;
+        }
+    }
+
+    private void open() {
+        if (cache == null) {
+            cache = cacheRepository.cache("generated-classes")
+                    .withDisplayName("generated class cache")
+                    .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                    .open();
+            bytecode = cache.createCache(new PersistentIndexedCacheParameters<String, byte[]>("generatedClasses", String.class, byte[].class));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.changedetection.state;
+
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.collections.ArchiveFileTree;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentStore;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.messaging.serialize.Decoder;
+import org.gradle.messaging.serialize.Encoder;
+import org.gradle.messaging.serialize.Serializer;
+
+import java.io.File;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Hashes the file entries of an archive by reading them from the archive, rather than extracting them and hashing the extracted files. The hashes
+ * are the same as those of the extracted files. The hashes of the entries of a local archive file are cached against the hash of the archive file.
+ */
+public class ArchiveTreeSnapshotter {
+    private final FileSnapshotter fileSnapshotter;
+    private final PersistentIndexedCache<String, Map<String, byte[]>> cache;
+
+    public ArchiveTreeSnapshotter(FileSnapshotter fileSnapshotter, PersistentStore store) {
+        this.fileSnapshotter = fileSnapshotter;
+        this.cache = store.createCache("archiveSnapshots", String.class, new EntryHashesSerializer());
+    }
+
+    /**
+     * Returns the hashes of the file entries of the given archive, keyed by the path of the entry relative to the root of the archive.
+     */
+    public Map<String, byte[]> snapshot(ArchiveFileTree tree) {
+        File archive = tree.getBackingFile();
+        String key = null;
+        if (archive != null && archive.isFile()) {
+            key = new HashValue(fileSnapshotter.snapshot(archive).getHash()).asCompactString();
+            Map<String, byte[]> hashes = cache.get(key);
+            if (hashes != null) {
+                return hashes;
+            }
+        }
+
+        final Map<String, byte[]> hashes = new TreeMap<String, byte[]>();
+        tree.visit(new EmptyFileVisitor() {
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                hashes.put(fileDetails.getRelativePath().getPathString(), HashUtil.createHash(fileDetails.open(), "MD5").asByteArray());
+            }
+        });
+        if (key != null) {
+            cache.put(key, hashes);
+        }
+        return hashes;
+    }
+
+    private static class EntryHashesSerializer implements Serializer<Map<String, byte[]>> {
+        public Map<String, byte[]> read(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            Map<String, byte[]> hashes = new TreeMap<String, byte[]>();
+            for (int i = 0; i < count; i++) {
+                String path = decoder.readString();
+                hashes.put(path, decoder.readBinary());
+            }
+            return hashes;
+        }
+
+        public void write(Encoder encoder, Map<String, byte[]> value) throws Exception {
+            encoder.writeSmallInt(value.size());
+            for (Map.Entry<String, byte[]> entry : value.entrySet()) {
+                encoder.writeString(entry.getKey());
+                encoder.writeBinary(entry.getValue());
+            }
+        }
+    }
+}
@@ -17,6 +17,9 @@
 package org.gradle.api.internal.changedetection.state;
 
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.file.collections.ArchiveFileTree;
+import org.gradle.api.internal.file.collections.DefaultFileCollectionResolveContext;
+import org.gradle.api.internal.file.collections.FileTreeAdapter;
 import org.gradle.api.internal.file.collections.SimpleFileCollection;
 import org.gradle.messaging.serialize.SerializerRegistry;
 import org.gradle.util.ChangeListener;
@@ -28,11 +31,13 @@ import java.util.*;
 
 public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshotter {
     private final FileSnapshotter snapshotter;
+    private final ArchiveTreeSnapshotter archiveSnapshotter;
     private TaskArtifactStateCacheAccess cacheAccess;
 
     public DefaultFileCollectionSnapshotter(FileSnapshotter snapshotter, TaskArtifactStateCacheAccess cacheAccess) {
         this.snapshotter = snapshotter;
         this.cacheAccess = cacheAccess;
+        this.archiveSnapshotter = new ArchiveTreeSnapshotter(snapshotter, cacheAccess);
     }
 
     public void registerSerializers(SerializerRegistry<FileCollectionSnapshot> registry) {
@@ -44,13 +49,30 @@ public class DefaultFileCollectionSnapshotter implements FileCollectionSnapshott
     }
 
     public FileCollectionSnapshot snapshot(FileCollection input) {
-        final Set<File> files = input.getAsFileTree().getFiles();
-        if (files.isEmpty()) {
+        // Archive trees are snapshotted from their entries, so that the entries are not extracted to the file system
+        final List<ArchiveFileTree> archives = new ArrayList<ArchiveFileTree>();
+        final Set<File> files = new LinkedHashSet<File>();
+        DefaultFileCollectionResolveContext context = new DefaultFileCollectionResolveContext();
+        context.add(input);
+        for (FileCollection fileCollection : context.resolveAsFileCollections()) {
+            if (fileCollection instanceof FileTreeAdapter && ((FileTreeAdapter) fileCollection).getTree() instanceof ArchiveFileTree) {
+                archives.add((ArchiveFileTree) ((FileTreeAdapter) fileCollection).getTree());
+            } else {
+                files.addAll(fileCollection.getAsFileTree().getFiles());
+            }
+        }
+        if (files.isEmpty() && archives.isEmpty()) {
             return new FileCollectionSnapshotImpl(Collections.<String, IncrementalFileSnapshot>emptyMap());
         }
         final Map<String, IncrementalFileSnapshot> snapshots = new HashMap<String, IncrementalFileSnapshot>();
         cacheAccess.useCache("Create file snapshot", new Runnable() {
             public void run() {
+                for (ArchiveFileTree archive : archives) {
+                    File mirrorDir = archive.getMirror().getDir();
+                    for (Map.Entry<String, byte[]> entry : archiveSnapshotter.snapshot(archive).entrySet()) {
+                        snapshots.put(new File(mirrorDir, entry.getKey()).getAbsolutePath(), new FileHashSnapshot(entry.getValue()));
+                    }
+                }
                 for (File file : files) {
                     if (file.isFile()) {
                         snapshots.put(file.getAbsolutePath(), new FileHashSnapshot(snapshotter.snapshot(file).getHash()));
@@ -44,6 +44,7 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         CACHE_CAPS.put("outputFileStates", 3000);
         CACHE_CAPS.put("fileHashes", 140000);
         CACHE_CAPS.put("compilationState", 1000);
+        CACHE_CAPS.put("archiveSnapshots", 100);
 
         //In general, the in-memory cache must be capped at some level, otherwise it is reduces performance in truly gigantic builds
     }
@@ -108,6 +109,16 @@ public class InMemoryTaskArtifactCache implements CacheDecorator {
         };
     }
 
+    /**
+     * Discards all cached data, to reclaim the memory it uses. The data is loaded again on demand. Should only be called between builds.
+     */
+    public void clear() {
+        synchronized (lock) {
+            cache.invalidateAll();
+            states.clear();
+        }
+    }
+
     private Cache<Object, Object> loadData(String cacheId, String cacheName) {
         Cache<Object, Object> theData;
         synchronized (lock) {
@@ -0,0 +1,595 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.Zip64RequiredException;
+import org.apache.tools.zip.ZipEncoding;
+import org.apache.tools.zip.ZipEncodingHelper;
+import org.apache.tools.zip.ZipOutputStream;
+import org.apache.tools.zip.ZipUtil;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a ZIP file, compressing its entries concurrently.
+ *
+ * <p>The content of each entry is buffered in memory and compressed by a worker thread, and the entries are written to the file in the order they
+ * were added. Entries larger than {@link #LARGE_ENTRY_SIZE} are not buffered: once the entries before them have been written, they are compressed
+ * by the calling thread as their content is written. The file is the same, byte for byte, as the one written by Ant's {@link ZipOutputStream} to a
+ * file with the zip64 extension disabled, and fails in the same way when the archive needs the zip64 extension.</p>
+ */
+public class ParallelZipWriter implements Closeable {
+    static final int LARGE_ENTRY_SIZE = 1024 * 1024;
+    private static final int MAX_PENDING_BYTES = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_SHORT = 0xFFFF;
+    private static final long LFH_SIG = 0x04034b50L;
+    private static final long CFH_SIG = 0x02014b50L;
+    private static final long EOCD_SIG = 0x06054b50L;
+    private static final int VERSION_NEEDED = 10;
+    private static final int PLATFORM_UNIX = 3;
+    private static final int VERSION_MADE_BY = (PLATFORM_UNIX << 8) | 20;
+    private static final int UTF8_NAMES_FLAG = 0x0800;
+    private static final int LFH_CRC_OFFSET = 14;
+
+    private final File destination;
+    private final int method;
+    private final ZipEncoding zipEncoding = ZipEncodingHelper.getZipEncoding(null);
+    private final StoppableExecutor executor;
+    private final Semaphore compressors;
+    private final ConcurrentLinkedQueue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+    private final LinkedList<PendingEntry> pending = new LinkedList<PendingEntry>();
+    private final List<Entry> written = new ArrayList<Entry>();
+    private final FileOutput output;
+    private long pendingBytes;
+    private EntryOutputStream current;
+    private boolean closed;
+
+    /**
+     * @param method The method used to compress the content of the entries, {@link ZipOutputStream#DEFLATED} or {@link ZipOutputStream#STORED}.
+     */
+    public ParallelZipWriter(File destination, int method, ExecutorFactory executorFactory) throws IOException {
+        this.destination = destination;
+        this.method = method;
+        this.output = new FileOutput(destination);
+        this.executor = executorFactory.create(String.format("Compress entries of %s", destination.getName()));
+        this.compressors = new Semaphore(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns the method used to compress the content of the entries written through {@link #putFile(String, long, int)}.
+     */
+    public int getMethod() {
+        return method;
+    }
+
+    /**
+     * Adds a directory entry. The name should end with a slash.
+     */
+    public void putDirectory(String name, long lastModified, int unixMode) throws IOException {
+        putFile(name, lastModified, unixMode).close();
+    }
+
+    /**
+     * Adds a file entry. The content of the entry is written to the returned stream, and the entry is complete once the stream has been closed.
+     */
+    public OutputStream putFile(String name, long lastModified, int unixMode) throws IOException {
+        assertNoCurrentEntry();
+        current = new EntryOutputStream(new Entry(name, lastModified, unixMode, method));
+        return current;
+    }
+
+    /**
+     * Adds an entry whose content has already been compressed, such as an entry copied from another ZIP file. The compressed content is read from
+     * the given stream and written to the file as is.
+     */
+    public void putRawFile(String name, long lastModified, int unixMode, int method, long crc, long size, long compressedSize, InputStream compressedContent) throws IOException {
+        assertNoCurrentEntry();
+        Entry entry = new Entry(name, lastModified, unixMode, method);
+        entry.crc = crc;
+        entry.size = size;
+        entry.compressedSize = compressedSize;
+        checkEntrySize(entry);
+        if (compressedSize > LARGE_ENTRY_SIZE) {
+            writePending(0);
+            writeLocalFileHeader(entry);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long remaining = compressedSize;
+            while (remaining > 0) {
+                int nread = compressedContent.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (nread < 0) {
+                    throw new EOFException(String.format("Unexpected end of compressed content of %s.", name));
+                }
+                output.write(buffer, 0, nread);
+                remaining -= nread;
+            }
+            written.add(entry);
+            return;
+        }
+        EntryBuffer content = new EntryBuffer((int) compressedSize);
+        content.readFully(compressedContent, (int) compressedSize, name);
+        entry.content = content;
+        add(new PendingEntry(entry));
+    }
+
+    /**
+     * Writes the remaining entries and the central directory, and closes the file.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (current != null) {
+                // The content of the entry could not be written, so leave it out
+                current.discard();
+            }
+            writePending(0);
+            writeCentralDirectory();
+        } finally {
+            try {
+                output.close();
+            } finally {
+                executor.stop();
+                for (Deflater deflater : deflaters) {
+                    deflater.end();
+                }
+            }
+        }
+    }
+
+    private void assertNoCurrentEntry() {
+        if (closed) {
+            throw new IllegalStateException(String.format("Cannot add entries to %s once it has been closed.", destination));
+        }
+        if (current != null) {
+            throw new IllegalStateException(String.format("The content of the previous entry of %s has not been closed.", destination));
+        }
+    }
+
+    private void add(PendingEntry entry) throws IOException {
+        pending.add(entry);
+        pendingBytes += entry.bufferedBytes();
+        writePending(MAX_PENDING_BYTES);
+    }
+
+    /**
+     * Writes the entries that have been compressed, in order, then waits for and writes further entries until no more than the given number of
+     * bytes remain buffered.
+     */
+    private void writePending(int maxPendingBytes) throws IOException {
+        while (!pending.isEmpty() && (pendingBytes > maxPendingBytes || pending.getFirst().isDone())) {
+            PendingEntry next = pending.removeFirst();
+            pendingBytes -= next.bufferedBytes();
+            Entry entry = next.get();
+            checkEntrySize(entry);
+            writeLocalFileHeader(entry);
+            output.write(entry.content.buffer(), 0, entry.content.size());
+            entry.content = null;
+            written.add(entry);
+        }
+    }
+
+    private void compress(Entry entry) {
+        EntryBuffer content = entry.content;
+        CRC32 crc = new CRC32();
+        crc.update(content.buffer(), 0, content.size());
+        entry.crc = crc.getValue();
+        entry.size = content.size();
+        if (entry.method == ZipOutputStream.DEFLATED) {
+            EntryBuffer compressed = new EntryBuffer(content.size() / 2 + 64);
+            Deflater deflater = acquireDeflater();
+            try {
+                deflater.setInput(content.buffer(), 0, content.size());
+                deflater.finish();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, count);
+                }
+            } finally {
+                releaseDeflater(deflater);
+            }
+            entry.content = compressed;
+        }
+        entry.compressedSize = entry.content.size();
+    }
+
+    private Deflater acquireDeflater() {
+        Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+
+    private void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        deflaters.add(deflater);
+    }
+
+    private void checkEntrySize(Entry entry) throws Zip64RequiredException {
+        if (entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC) {
+            throw new Zip64RequiredException(entry.name + "'s size exceeds the limit of 4GByte.");
+        }
+    }
+
+    private void writeLocalFileHeader(Entry entry) throws IOException {
+        entry.offset = output.position();
+        byte[] name = encode(entry.name);
+        byte[] header = new byte[30 + name.length];
+        putLong(header, 0, LFH_SIG);
+        putShort(header, 4, VERSION_NEEDED);
+        putShort(header, 6, UTF8_NAMES_FLAG);
+        putShort(header, 8, entry.method);
+        System.arraycopy(ZipUtil.toDosTime(entry.lastModified), 0, header, 10, 4);
+        putLong(header, LFH_CRC_OFFSET, entry.crc);
+        putLong(header, 18, entry.compressedSize);
+        putLong(header, 22, entry.size);
+        putShort(header, 26, name.length);
+        putShort(header, 28, 0);
+        System.arraycopy(name, 0, header, 30, name.length);
+        output.write(header, 0, header.length);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long cdOffset = output.position();
+        for (Entry entry : written) {
+            if (entry.offset >= ZIP64_MAGIC) {
+                throw new Zip64RequiredException("archive's size exceeds the limit of 4GByte.");
+            }
+            byte[] name = encode(entry.name);
+            byte[] header = new byte[46 + name.length];
+            putLong(header, 0, CFH_SIG);
+            putShort(header, 4, VERSION_MADE_BY);
+            putShort(header, 6, VERSION_NEEDED);
+            putShort(header, 8, UTF8_NAMES_FLAG);
+            putShort(header, 10, entry.method);
+            System.arraycopy(ZipUtil.toDosTime(entry.lastModified), 0, header, 12, 4);
+            putLong(header, 16, entry.crc);
+            putLong(header, 20, entry.compressedSize);
+            putLong(header, 24, entry.size);
+            putShort(header, 28, name.length);
+            // Extra field length, comment length, disk number and internal attributes are all zero
+            putLong(header, 38, entry.externalAttributes());
+            putLong(header, 42, entry.offset);
+            System.arraycopy(name, 0, header, 46, name.length);
+            output.write(header, 0, header.length);
+        }
+        long cdLength = output.position() - cdOffset;
+
+        if (written.size() > ZIP64_MAGIC_SHORT) {
+            throw new Zip64RequiredException("archive contains more than 65535 entries.");
+        }
+        if (cdOffset > ZIP64_MAGIC) {
+            throw new Zip64RequiredException("archive's size exceeds the limit of 4GByte.");
+        }
+        byte[] end = new byte[22];
+        putLong(end, 0, EOCD_SIG);
+        putShort(end, 8, written.size());
+        putShort(end, 10, written.size());
+        putLong(end, 12, Math.min(cdLength, ZIP64_MAGIC));
+        putLong(end, 16, cdOffset);
+        output.write(end, 0, end.length);
+    }
+
+    private byte[] encode(String name) throws IOException {
+        ByteBuffer encoded = zipEncoding.encode(name);
+        byte[] bytes = new byte[encoded.limit() - encoded.position()];
+        System.arraycopy(encoded.array(), encoded.arrayOffset(), bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private static void putShort(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+    }
+
+    private static void putLong(byte[] buffer, int offset, long value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    private static class Entry {
+        final String name;
+        final long lastModified;
+        final int unixMode;
+        final int method;
+        EntryBuffer content;
+        long crc;
+        long size;
+        long compressedSize;
+        long offset;
+
+        Entry(String name, long lastModified, int unixMode, int method) {
+            this.name = name;
+            this.lastModified = lastModified;
+            this.unixMode = unixMode;
+            this.method = method;
+        }
+
+        long externalAttributes() {
+            // Same attributes as ZipEntry.setUnixMode()
+            return ((long) unixMode << 16) | ((unixMode & 0200) == 0 ? 1 : 0) | (name.endsWith("/") ? 0x10 : 0);
+        }
+    }
+
+    /**
+     * An entry whose content is buffered, and either compressed already or being compressed by a worker thread.
+     */
+    private static class PendingEntry {
+        private final Entry entry;
+        private final Future<Entry> result;
+        private final int bufferedBytes;
+
+        PendingEntry(Entry entry) {
+            this(entry, null);
+        }
+
+        PendingEntry(Entry entry, Future<Entry> result) {
+            this.entry = entry;
+            this.result = result;
+            this.bufferedBytes = entry.content.size();
+        }
+
+        int bufferedBytes() {
+            return bufferedBytes;
+        }
+
+        boolean isDone() {
+            return result == null || result.isDone();
+        }
+
+        Entry get() throws IOException {
+            if (result == null) {
+                return entry;
+            }
+            try {
+                return result.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Receives the content of a file entry. The content is buffered until it grows larger than {@link #LARGE_ENTRY_SIZE}, at which point the entries
+     * before it are written and the content is compressed and written to the file as it is received.
+     */
+    private class EntryOutputStream extends OutputStream {
+        private final Entry entry;
+        private EntryBuffer buffer = new EntryBuffer(256);
+        private CRC32 crc;
+        private Deflater deflater;
+        private byte[] deflateBuffer;
+
+        EntryOutputStream(Entry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (buffer != null && buffer.size() + length > LARGE_ENTRY_SIZE) {
+                startStreaming();
+            }
+            if (buffer != null) {
+                buffer.write(bytes, offset, length);
+            } else {
+                stream(bytes, offset, length);
+            }
+        }
+
+        private void startStreaming() throws IOException {
+            writePending(0);
+            writeLocalFileHeader(entry);
+            crc = new CRC32();
+            if (entry.method == ZipOutputStream.DEFLATED) {
+                deflater = acquireDeflater();
+                deflateBuffer = new byte[BUFFER_SIZE];
+            }
+            EntryBuffer content = buffer;
+            buffer = null;
+            stream(content.buffer(), 0, content.size());
+        }
+
+        private void stream(byte[] bytes, int offset, int length) throws IOException {
+            crc.update(bytes, offset, length);
+            entry.size += length;
+            if (deflater == null) {
+                output.write(bytes, offset, length);
+                entry.compressedSize += length;
+                return;
+            }
+            deflater.setInput(bytes, offset, length);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+        }
+
+        private void deflate() throws IOException {
+            int count = deflater.deflate(deflateBuffer);
+            output.write(deflateBuffer, 0, count);
+            entry.compressedSize += count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != this) {
+                return;
+            }
+            current = null;
+            if (buffer != null) {
+                finishBuffered();
+            } else {
+                finishStreamed();
+            }
+        }
+
+        void discard() {
+            current = null;
+            buffer = null;
+            if (deflater != null) {
+                releaseDeflater(deflater);
+                deflater = null;
+            }
+        }
+
+        private void finishBuffered() throws IOException {
+            entry.content = buffer;
+            buffer = null;
+            if (entry.content.size() == 0) {
+                compress(entry);
+                add(new PendingEntry(entry));
+                return;
+            }
+            FutureTask<Entry> task = new FutureTask<Entry>(new Callable<Entry>() {
+                public Entry call() {
+                    try {
+                        compress(entry);
+                        return entry;
+                    } finally {
+                        compressors.release();
+                    }
+                }
+            });
+            PendingEntry pendingEntry = new PendingEntry(entry, task);
+            compressors.acquireUninterruptibly();
+            try {
+                executor.execute(task);
+            } catch (RuntimeException e) {
+                compressors.release();
+                throw e;
+            }
+            add(pendingEntry);
+        }
+
+        private void finishStreamed() throws IOException {
+            if (deflater != null) {
+                try {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        deflate();
+                    }
+                } finally {
+                    releaseDeflater(deflater);
+                    deflater = null;
+                }
+            }
+            entry.crc = crc.getValue();
+            checkEntrySize(entry);
+            byte[] values = new byte[12];
+            putLong(values, 0, entry.crc);
+            putLong(values, 4, entry.compressedSize);
+            putLong(values, 8, entry.size);
+            output.patch(entry.offset + LFH_CRC_OFFSET, values);
+            written.add(entry);
+        }
+    }
+
+    private static class EntryBuffer extends ByteArrayOutputStream {
+        EntryBuffer(int size) {
+            super(size);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        void readFully(InputStream inputStream, int length, String name) throws IOException {
+            if (buf.length < length) {
+                buf = new byte[length];
+            }
+            while (count < length) {
+                int nread = inputStream.read(buf, count, length - count);
+                if (nread < 0) {
+                    throw new EOFException(String.format("Unexpected end of compressed content of %s.", name));
+                }
+                count += nread;
+            }
+        }
+    }
+
+    /**
+     * A buffered file output that can go back to fill in the values of a header once they are known.
+     */
+    private static class FileOutput implements Closeable {
+        private final RandomAccessFile file;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int count;
+        private long position;
+
+        FileOutput(File destination) throws IOException {
+            file = new RandomAccessFile(destination, "rw");
+            file.setLength(0);
+        }
+
+        long position() {
+            return position;
+        }
+
+        void write(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.length - count) {
+                flush();
+            }
+            if (length > buffer.length) {
+                file.write(bytes, offset, length);
+            } else {
+                System.arraycopy(bytes, offset, buffer, count, length);
+                count += length;
+            }
+            position += length;
+        }
+
+        void patch(long offset, byte[] bytes) throws IOException {
+            flush();
+            file.seek(offset);
+            file.write(bytes);
+            file.seek(position);
+        }
+
+        private void flush() throws IOException {
+            file.write(buffer, 0, count);
+            count = 0;
+        }
+
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                file.close();
+            }
+        }
+    }
+}
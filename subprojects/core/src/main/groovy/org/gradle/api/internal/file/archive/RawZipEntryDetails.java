@@ -0,0 +1,32 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import java.io.IOException;
+
+/**
+ * A file whose content is stored in a ZIP file, and can be written to another ZIP file without being decompressed and compressed again.
+ */
+public interface RawZipEntryDetails {
+    /**
+     * Adds the compressed content of this file to the given writer as an entry with the given attributes.
+     *
+     * @return true if the entry was added, false if the compressed content is not available or is not compressed using the method of the writer,
+     * and the content needs to be copied instead.
+     */
+    boolean copyRawTo(ParallelZipWriter zipWriter, String name, long lastModified, int unixMode) throws IOException;
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.apache.tools.zip.ZipEncoding;
+import org.apache.tools.zip.ZipEncodingHelper;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipOutputStream;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Provides access to the compressed content of the entries of a ZIP file, read from the central directory of the file. Entries that cannot be copied as
+ * is, such as encrypted entries or entries that use the zip64 extension, are not available.
+ */
+class RawZipFile implements Closeable {
+    private static final int LFH_SIG = 0x04034b50;
+    private static final int CFH_SIG = 0x02014b50;
+    private static final int EOCD_SIG = 0x06054b50;
+    private static final int EOCD_LENGTH = 22;
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ENCRYPTED_FLAG = 0x0001;
+    private static final int UTF8_NAMES_FLAG = 0x0800;
+
+    private final File zipFile;
+    private RandomAccessFile file;
+    private Map<String, RawEntry> entries;
+
+    RawZipFile(File zipFile) {
+        this.zipFile = zipFile;
+    }
+
+    /**
+     * Returns the compressed content of the given entry, or null if the content is not available.
+     */
+    InputStream openCompressed(ZipEntry entry) throws IOException {
+        if (entries == null) {
+            file = new RandomAccessFile(zipFile, "r");
+            entries = readCentralDirectory();
+        }
+        RawEntry rawEntry = entries.get(entry.getName());
+        if (rawEntry == null
+                || rawEntry.method != entry.getMethod()
+                || rawEntry.crc != entry.getCrc()
+                || rawEntry.compressedSize != entry.getCompressedSize()
+                || rawEntry.size != entry.getSize()) {
+            return null;
+        }
+        byte[] header = new byte[30];
+        file.seek(rawEntry.localHeaderOffset);
+        file.readFully(header);
+        if (getInt(header, 0) != LFH_SIG) {
+            return null;
+        }
+        long dataOffset = rawEntry.localHeaderOffset + header.length + getShort(header, 26) + getShort(header, 28);
+        return new ContentInputStream(dataOffset, rawEntry.compressedSize);
+    }
+
+    public void close() throws IOException {
+        if (file != null) {
+            file.close();
+        }
+    }
+
+    private Map<String, RawEntry> readCentralDirectory() throws IOException {
+        Map<String, RawEntry> entries = new HashMap<String, RawEntry>();
+        byte[] tail = new byte[(int) Math.min(file.length(), EOCD_LENGTH + MAX_COMMENT_LENGTH)];
+        file.seek(file.length() - tail.length);
+        file.readFully(tail);
+        int end = tail.length - EOCD_LENGTH;
+        while (end >= 0 && getInt(tail, end) != EOCD_SIG) {
+            end--;
+        }
+        if (end < 0) {
+            return entries;
+        }
+        long cdLength = getLong(tail, end + 12);
+        long cdOffset = getLong(tail, end + 16);
+        if (cdOffset == ZIP64_MAGIC || cdLength == ZIP64_MAGIC || cdOffset + cdLength > file.length()) {
+            return entries;
+        }
+
+        byte[] cd = new byte[(int) cdLength];
+        file.seek(cdOffset);
+        file.readFully(cd);
+        ZipEncoding utf8Encoding = ZipEncodingHelper.getZipEncoding("UTF8");
+        ZipEncoding defaultEncoding = ZipEncodingHelper.getZipEncoding(null);
+        int pos = 0;
+        while (pos + 46 <= cd.length && getInt(cd, pos) == CFH_SIG) {
+            int flags = getShort(cd, pos + 8);
+            int nameLength = getShort(cd, pos + 28);
+            int extraLength = getShort(cd, pos + 30);
+            int commentLength = getShort(cd, pos + 32);
+            RawEntry entry = new RawEntry(getShort(cd, pos + 10), getLong(cd, pos + 16), getLong(cd, pos + 20), getLong(cd, pos + 24), getLong(cd, pos + 42));
+            byte[] name = new byte[nameLength];
+            System.arraycopy(cd, pos + 46, name, 0, nameLength);
+            pos += 46 + nameLength + extraLength + commentLength;
+            if ((flags & ENCRYPTED_FLAG) != 0
+                    || (entry.method != ZipOutputStream.STORED && entry.method != ZipOutputStream.DEFLATED)
+                    || entry.compressedSize == ZIP64_MAGIC || entry.size == ZIP64_MAGIC || entry.localHeaderOffset == ZIP64_MAGIC) {
+                continue;
+            }
+            ZipEncoding encoding = (flags & UTF8_NAMES_FLAG) != 0 ? utf8Encoding : defaultEncoding;
+            entries.put(encoding.decode(name), entry);
+        }
+        return entries;
+    }
+
+    private static int getShort(byte[] buffer, int offset) {
+        return (buffer[offset] & 0xFF) | (buffer[offset + 1] & 0xFF) << 8;
+    }
+
+    private static int getInt(byte[] buffer, int offset) {
+        return getShort(buffer, offset) | getShort(buffer, offset + 2) << 16;
+    }
+
+    private static long getLong(byte[] buffer, int offset) {
+        return getInt(buffer, offset) & 0xFFFFFFFFL;
+    }
+
+    private static class RawEntry {
+        final int method;
+        final long crc;
+        final long compressedSize;
+        final long size;
+        final long localHeaderOffset;
+
+        RawEntry(int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+
+    private class ContentInputStream extends InputStream {
+        private long position;
+        private long remaining;
+
+        ContentInputStream(long position, long length) {
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] buffer = new byte[1];
+            return read(buffer, 0, 1) < 0 ? -1 : buffer[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining == 0) {
+                return -1;
+            }
+            file.seek(position);
+            int nread = file.read(buffer, offset, (int) Math.min(length, remaining));
+            if (nread > 0) {
+                position += nread;
+                remaining -= nread;
+            }
+            return nread;
+        }
+    }
+}
@@ -23,9 +23,8 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.collections.ArchiveFileTree;
 import org.gradle.api.internal.file.collections.DirectoryFileTree;
-import org.gradle.api.internal.file.collections.FileSystemMirroringFileTree;
-import org.gradle.api.internal.file.collections.MinimalFileTree;
 import org.gradle.api.resources.ReadableResource;
 import org.gradle.api.resources.ResourceException;
 import org.gradle.internal.hash.HashUtil;
@@ -37,7 +36,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree {
+public class TarFileTree implements ArchiveFileTree {
     private final ReadableResource resource;
     private final Chmod chmod;
     private final File tmpDir;
@@ -57,6 +56,11 @@ public class TarFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         return new DirectoryFileTree(tmpDir);
     }
 
+    public File getBackingFile() {
+        // The resource may be compressed, or may not be a local file
+        return null;
+    }
+
     public void visit(FileVisitor visitor) {
         InputStream inputStream;
         try {
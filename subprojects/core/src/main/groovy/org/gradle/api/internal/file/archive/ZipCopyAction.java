@@ -33,35 +33,56 @@ import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.bundling.Zip;
 import org.gradle.internal.IoActions;
+import org.gradle.internal.concurrent.ExecutorFactory;
 
 import java.io.File;
+import java.io.OutputStream;
 
 public class ZipCopyAction implements CopyAction {
     private final File zipFile;
     private final ZipCompressor compressor;
     private final DocumentationRegistry documentationRegistry;
+    private final ExecutorFactory executorFactory;
 
     public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry) {
+        this(zipFile, compressor, documentationRegistry, null);
+    }
+
+    /**
+     * @param executorFactory Used to compress the entries of the archive concurrently. When null, the entries are compressed by the calling thread.
+     */
+    public ZipCopyAction(File zipFile, ZipCompressor compressor, DocumentationRegistry documentationRegistry, ExecutorFactory executorFactory) {
         this.zipFile = zipFile;
         this.compressor = compressor;
         this.documentationRegistry = documentationRegistry;
+        this.executorFactory = executorFactory;
     }
 
     public WorkResult execute(final CopyActionProcessingStream stream) {
         final ZipOutputStream zipOutStr;
+        final ParallelZipWriter zipWriter;
 
         try {
-            zipOutStr = compressor.createArchiveOutputStream(zipFile);
+            zipWriter = executorFactory == null ? null : compressor.createParallelArchiveWriter(zipFile, executorFactory);
+            zipOutStr = zipWriter == null ? compressor.createArchiveOutputStream(zipFile) : null;
         } catch (Exception e) {
             throw new GradleException(String.format("Could not create ZIP '%s'.", zipFile), e);
         }
 
         try {
-            IoActions.withResource(zipOutStr, new Action<ZipOutputStream>() {
-                public void execute(ZipOutputStream outputStream) {
-                    stream.process(new StreamAction(outputStream));
-                }
-            });
+            if (zipWriter != null) {
+                IoActions.withResource(zipWriter, new Action<ParallelZipWriter>() {
+                    public void execute(ParallelZipWriter writer) {
+                        stream.process(new ParallelStreamAction(writer));
+                    }
+                });
+            } else {
+                IoActions.withResource(zipOutStr, new Action<ZipOutputStream>() {
+                    public void execute(ZipOutputStream outputStream) {
+                        stream.process(new StreamAction(outputStream));
+                    }
+                });
+            }
         } catch (UncheckedIOException e) {
             if (e.getCause() instanceof Zip64RequiredException) {
                 throw new org.gradle.api.tasks.bundling.internal.Zip64RequiredException(
@@ -114,4 +135,45 @@ public class ZipCopyAction implements CopyAction {
             }
         }
     }
+
+    private class ParallelStreamAction implements CopyActionProcessingStreamAction {
+        private final ParallelZipWriter zipWriter;
+
+        public ParallelStreamAction(ParallelZipWriter zipWriter) {
+            this.zipWriter = zipWriter;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            if (details.isDirectory()) {
+                visitDir(details);
+            } else {
+                visitFile(details);
+            }
+        }
+
+        private void visitFile(FileCopyDetails fileDetails) {
+            try {
+                String name = fileDetails.getRelativePath().getPathString();
+                int unixMode = UnixStat.FILE_FLAG | fileDetails.getMode();
+                if (fileDetails instanceof RawZipEntryDetails && ((RawZipEntryDetails) fileDetails).copyRawTo(zipWriter, name, fileDetails.getLastModified(), unixMode)) {
+                    // Content is unchanged and already compressed
+                    return;
+                }
+                OutputStream outputStream = zipWriter.putFile(name, fileDetails.getLastModified(), unixMode);
+                fileDetails.copyTo(outputStream);
+                outputStream.close();
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", fileDetails, zipFile), e);
+            }
+        }
+
+        private void visitDir(FileCopyDetails dirDetails) {
+            try {
+                // Trailing slash in name indicates that entry is a directory
+                zipWriter.putDirectory(dirDetails.getRelativePath().getPathString() + '/', dirDetails.getLastModified(), UnixStat.DIR_FLAG | dirDetails.getMode());
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not add %s to ZIP '%s'.", dirDetails, zipFile), e);
+            }
+        }
+    }
 }
@@ -24,9 +24,8 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.collections.ArchiveFileTree;
 import org.gradle.api.internal.file.collections.DirectoryFileTree;
-import org.gradle.api.internal.file.collections.FileSystemMirroringFileTree;
-import org.gradle.api.internal.file.collections.MinimalFileTree;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
@@ -40,7 +39,7 @@ import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree {
+public class ZipFileTree implements ArchiveFileTree {
     private final File zipFile;
     private final Chmod chmod;
     private final File tmpDir;
@@ -60,6 +59,10 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
         return new DirectoryFileTree(tmpDir);
     }
 
+    public File getBackingFile() {
+        return zipFile;
+    }
+
     public void visit(FileVisitor visitor) {
         if (!zipFile.exists()) {
             throw new InvalidUserDataException(String.format("Cannot expand %s as it does not exist.", getDisplayName()));
@@ -72,6 +75,7 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
 
         try {
             ZipFile zip = new ZipFile(zipFile);
+            RawZipFile rawZip = new RawZipFile(zipFile);
             try {
                 // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
                 // to us. So, collect the entries in a map and iterate over them in alphabetical order.
@@ -85,29 +89,32 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
                 while (!stopFlag.get() && sortedEntries.hasNext()) {
                     ZipEntry entry = sortedEntries.next();
                     if (entry.isDirectory()) {
-                        visitor.visitDir(new DetailsImpl(entry, zip, stopFlag, chmod));
+                        visitor.visitDir(new DetailsImpl(entry, zip, rawZip, stopFlag, chmod));
                     } else {
-                        visitor.visitFile(new DetailsImpl(entry, zip, stopFlag, chmod));
+                        visitor.visitFile(new DetailsImpl(entry, zip, rawZip, stopFlag, chmod));
                     }
                 }
             } finally {
                 zip.close();
+                rawZip.close();
             }
         } catch (Exception e) {
             throw new GradleException(String.format("Could not expand %s.", getDisplayName()), e);
         }
     }
 
-    private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
+    private class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails, RawZipEntryDetails {
         private final ZipEntry entry;
         private final ZipFile zip;
+        private final RawZipFile rawZip;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(ZipEntry entry, ZipFile zip, RawZipFile rawZip, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
             this.entry = entry;
             this.zip = zip;
+            this.rawZip = rawZip;
             this.stopFlag = stopFlag;
         }
 
@@ -147,6 +154,19 @@ public class ZipFileTree implements MinimalFileTree, FileSystemMirroringFileTree
             }
         }
 
+        public boolean copyRawTo(ParallelZipWriter zipWriter, String name, long lastModified, int unixMode) throws IOException {
+            if (entry.getMethod() != zipWriter.getMethod()) {
+                // The content needs to be decompressed and compressed again using the method of the target
+                return false;
+            }
+            InputStream compressedContent = rawZip.openCompressed(entry);
+            if (compressedContent == null) {
+                return false;
+            }
+            zipWriter.putRawFile(name, lastModified, unixMode, entry.getMethod(), entry.getCrc(), entry.getSize(), entry.getCompressedSize(), compressedContent);
+            return true;
+        }
+
         public RelativePath getRelativePath() {
             return new RelativePath(!entry.isDirectory(), entry.getName().split("/"));
         }
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.collections;
+
+import org.gradle.api.Nullable;
+
+import java.io.File;
+
+/**
+ * A file tree made up of the entries of an archive. The contents of the entries can be read while the tree is visited, without extracting them to the
+ * file system.
+ */
+public interface ArchiveFileTree extends FileSystemMirroringFileTree {
+    /**
+     * Returns the archive file, or null when the archive is not read from a local file.
+     */
+    @Nullable
+    File getBackingFile();
+}
@@ -22,12 +22,15 @@ import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.AbstractFileTreeElement;
+import org.gradle.api.internal.file.DefaultFileTreeElement;
+import org.gradle.api.internal.file.archive.ParallelZipWriter;
+import org.gradle.api.internal.file.archive.RawZipEntryDetails;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 
 import java.io.*;
 import java.util.Map;
 
-public class DefaultFileCopyDetails extends AbstractFileTreeElement implements FileVisitDetails, FileCopyDetailsInternal {
+public class DefaultFileCopyDetails extends AbstractFileTreeElement implements FileVisitDetails, FileCopyDetailsInternal, RawZipEntryDetails {
     private final FileVisitDetails fileDetails;
     private final CopySpecResolver specResolver;
     private final FilterChain filterChain = new FilterChain();
@@ -107,11 +110,37 @@ public class DefaultFileCopyDetails extends AbstractFileTreeElement implements F
         }
     }
 
-    private void adaptPermissions(File target) {
+    public boolean copyRawTo(ParallelZipWriter zipWriter, String name, long lastModified, int unixMode) throws IOException {
+        if (filterChain.hasFilters() || !(fileDetails instanceof RawZipEntryDetails) || !hasSourceAttributes(lastModified, unixMode)) {
+            return false;
+        }
+        return ((RawZipEntryDetails) fileDetails).copyRawTo(zipWriter, name, lastModified, unixMode);
+    }
+
+    /**
+     * Returns true when the given entry attributes are those of the source file, i.e. its permissions and timestamp have not been changed. The file
+     * may have been renamed, as the name of the entry is written from the copy details rather than copied with the compressed content.
+     */
+    private boolean hasSourceAttributes(long lastModified, int unixMode) {
+        return lastModified == fileDetails.getLastModified()
+                && (unixMode & 0777) == (fileDetails.getMode() & 0777);
+    }
+
+    void adaptPermissions(File target) {
         int specMode = getMode();
         getChmod().chmod(target, specMode);
     }
 
+    /**
+     * Returns the file whose content is copied unchanged, or null when the content is filtered or does not come from a file in the file system.
+     */
+    File getSourceFile() {
+        if (filterChain.hasFilters() || !(fileDetails instanceof DefaultFileTreeElement) || fileDetails.isDirectory()) {
+            return null;
+        }
+        return fileDetails.getFile();
+    }
+
     public RelativePath getRelativePath() {
         if (relativePath == null) {
             RelativePath path = fileDetails.getRelativePath();
@@ -18,6 +18,8 @@ package org.gradle.api.internal.file.copy;
 import org.apache.tools.zip.Zip64Mode;
 import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.file.archive.ParallelZipWriter;
+import org.gradle.internal.concurrent.ExecutorFactory;
 
 import java.io.File;
 
@@ -42,4 +44,16 @@ public class DefaultZipCompressor implements ZipCompressor {
         }
     }
 
+    public ParallelZipWriter createParallelArchiveWriter(File destination, ExecutorFactory executorFactory) {
+        if (zip64Mode != Zip64Mode.Never) {
+            return null;
+        }
+        try {
+            return new ParallelZipWriter(destination, entryCompressionMethod, executorFactory);
+        } catch (Exception e) {
+            String message = String.format("Unable to create ZIP writer for file %s.", destination);
+            throw new UncheckedIOException(message, e);
+        }
+    }
+
 }
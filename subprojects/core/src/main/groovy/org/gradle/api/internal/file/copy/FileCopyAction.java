@@ -15,24 +15,57 @@
  */
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.GradleException;
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class FileCopyAction implements CopyAction {
 
     private final FileResolver fileResolver;
+    private final ExecutorFactory executorFactory;
 
     public FileCopyAction(FileResolver fileResolver) {
+        this(fileResolver, null);
+    }
+
+    /**
+     * @param executorFactory Used to copy files concurrently. When null, the files are copied by the calling thread.
+     */
+    public FileCopyAction(FileResolver fileResolver, ExecutorFactory executorFactory) {
         this.fileResolver = fileResolver;
+        this.executorFactory = executorFactory;
     }
 
     public WorkResult execute(CopyActionProcessingStream stream) {
-        FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
-        stream.process(action);
+        if (executorFactory == null) {
+            FileCopyDetailsInternalAction action = new FileCopyDetailsInternalAction();
+            stream.process(action);
+            return new SimpleWorkResult(action.didWork);
+        }
+
+        ConcurrentFileCopyDetailsInternalAction action = new ConcurrentFileCopyDetailsInternalAction(executorFactory.create("Copy files"));
+        boolean processed = false;
+        try {
+            stream.process(action);
+            processed = true;
+        } finally {
+            // Do not replace the failure of the calling thread with the failure of a worker
+            action.stop(processed);
+        }
         return new SimpleWorkResult(action.didWork);
     }
 
@@ -47,4 +80,158 @@ public class FileCopyAction implements CopyAction {
             }
         }
     }
+
+    /**
+     * Copies files whose content is copied unchanged from the file system using worker threads, and any other files using the calling thread, as
+     * their content may only be available while they are being visited. Files that already have the expected content are not written again.
+     * A file is not copied until any earlier copy to the same target has completed.
+     */
+    private class ConcurrentFileCopyDetailsInternalAction implements CopyActionProcessingStreamAction {
+        private final StoppableExecutor executor;
+        private final Semaphore copiers = new Semaphore(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        private final Map<File, Future<?>> pending = new ConcurrentHashMap<File, Future<?>>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        private boolean didWork;
+
+        ConcurrentFileCopyDetailsInternalAction(StoppableExecutor executor) {
+            this.executor = executor;
+        }
+
+        public void processFile(FileCopyDetailsInternal details) {
+            rethrowFailure();
+            final File target = fileResolver.resolve(details.getRelativePath().getPathString());
+            awaitPendingCopy(target);
+            File source = details instanceof DefaultFileCopyDetails ? ((DefaultFileCopyDetails) details).getSourceFile() : null;
+            if (source == null) {
+                if (details.copyTo(target)) {
+                    didWork = true;
+                }
+                return;
+            }
+
+            final CopyJob job = new CopyJob((DefaultFileCopyDetails) details, source, target);
+            FutureTask<Void> task = new FutureTask<Void>(new Callable<Void>() {
+                public Void call() {
+                    try {
+                        job.run();
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        pending.remove(target);
+                        copiers.release();
+                    }
+                    return null;
+                }
+            });
+            copiers.acquireUninterruptibly();
+            pending.put(target, task);
+            try {
+                executor.execute(task);
+            } catch (RuntimeException e) {
+                pending.remove(target);
+                copiers.release();
+                throw e;
+            }
+            didWork = true;
+        }
+
+        private void awaitPendingCopy(File target) {
+            Future<?> copy = pending.get(target);
+            if (copy == null) {
+                return;
+            }
+            try {
+                copy.get();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
+        }
+
+        void stop(boolean rethrowFailure) {
+            executor.stop();
+            if (rethrowFailure) {
+                rethrowFailure();
+            }
+        }
+
+        private void rethrowFailure() {
+            Throwable t = failure.get();
+            if (t != null) {
+                throw UncheckedException.throwAsUncheckedException(t);
+            }
+        }
+    }
+
+    private static class CopyJob implements Runnable {
+        private final DefaultFileCopyDetails details;
+        private final File source;
+        private final File target;
+
+        CopyJob(DefaultFileCopyDetails details, File source, File target) {
+            this.details = details;
+            this.source = source;
+            this.target = target;
+        }
+
+        public void run() {
+            boolean upToDate;
+            try {
+                upToDate = hasSameContent(source, target);
+            } catch (IOException e) {
+                throw new GradleException(String.format("Could not copy %s to '%s'.", details.getDisplayName(), target), e);
+            }
+            if (upToDate) {
+                details.adaptPermissions(target);
+            } else {
+                details.copyTo(target);
+            }
+        }
+
+        private static boolean hasSameContent(File source, File target) throws IOException {
+            if (!target.isFile() || target.length() != source.length()) {
+                return false;
+            }
+            InputStream sourceStream = new BufferedInputStream(new FileInputStream(source));
+            try {
+                InputStream targetStream = new BufferedInputStream(new FileInputStream(target));
+                try {
+                    byte[] sourceBuffer = new byte[8192];
+                    byte[] targetBuffer = new byte[8192];
+                    while (true) {
+                        int sourceCount = read(sourceStream, sourceBuffer);
+                        int targetCount = read(targetStream, targetBuffer);
+                        if (sourceCount != targetCount) {
+                            return false;
+                        }
+                        if (sourceCount == 0) {
+                            return true;
+                        }
+                        for (int i = 0; i < sourceCount; i++) {
+                            if (sourceBuffer[i] != targetBuffer[i]) {
+                                return false;
+                            }
+                        }
+                    }
+                } finally {
+                    targetStream.close();
+                }
+            } finally {
+                sourceStream.close();
+            }
+        }
+
+        private static int read(InputStream inputStream, byte[] buffer) throws IOException {
+            int count = 0;
+            while (count < buffer.length) {
+                int nread = inputStream.read(buffer, count, buffer.length - count);
+                if (nread < 0) {
+                    break;
+                }
+                count += nread;
+            }
+            return count;
+        }
+    }
 }
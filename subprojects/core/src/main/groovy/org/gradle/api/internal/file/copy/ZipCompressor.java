@@ -16,7 +16,9 @@
 package org.gradle.api.internal.file.copy;
 
 import org.apache.tools.zip.ZipOutputStream;
+import org.gradle.api.internal.file.archive.ParallelZipWriter;
 import org.gradle.api.internal.file.archive.compression.ArchiveOutputStreamFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 
 import java.io.File;
 
@@ -24,4 +26,10 @@ public interface ZipCompressor extends ArchiveOutputStreamFactory {
 
     ZipOutputStream createArchiveOutputStream(File destination);
 
+    /**
+     * Creates a writer that compresses the entries of the archive concurrently. Returns null when the archive may need the zip64 extension,
+     * which only the stream returned by {@link #createArchiveOutputStream(File)} supports.
+     */
+    ParallelZipWriter createParallelArchiveWriter(File destination, ExecutorFactory executorFactory);
+
 }
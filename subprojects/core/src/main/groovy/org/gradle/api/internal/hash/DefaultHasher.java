@@ -17,10 +17,15 @@ package org.gradle.api.internal.hash;
 
 import org.gradle.internal.hash.HashUtil;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 
 public class DefaultHasher implements Hasher {
     public byte[] hash(File file) {
         return HashUtil.createHash(file, "MD5").asByteArray();
     }
+
+    public byte[] hash(byte[] content) {
+        return HashUtil.createHash(new ByteArrayInputStream(content), "MD5").asByteArray();
+    }
 }
\ No newline at end of file
@@ -19,4 +19,6 @@ import java.io.File;
 
 public interface Hasher {
     byte[] hash(File file);
+
+    byte[] hash(byte[] content);
 }
@@ -64,7 +64,7 @@ public class DefaultClassLoaderScope implements ClassLoaderScope {
         return new CachingClassLoader(new MultiParentClassLoader(additional, loader(id, classPath)));
     }
 
-    private void buildEffectiveLoaders() {
+    private synchronized void buildEffectiveLoaders() {
         if (effectiveLocalClassLoader == null) {
             if (locked) {
                 if (local.isEmpty() && export.isEmpty()) {
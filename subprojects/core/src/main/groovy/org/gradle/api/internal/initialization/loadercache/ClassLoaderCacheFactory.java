@@ -35,6 +35,15 @@ public class ClassLoaderCacheFactory {
         return newCache(new FileClassPathSnapshotter());
     }
 
+    /**
+     * Discards the class loaders held by the cache shared across builds, if any.
+     */
+    public void clearSharedCache() {
+        if (instance != null) {
+            instance.clear();
+        }
+    }
+
     private DefaultClassLoaderCache newCache(ClassPathSnapshotter snapshotter) {
         return new DefaultClassLoaderCache(new HashMap<DefaultClassLoaderCache.Key, ClassLoader>(), snapshotter);
     }
@@ -104,6 +104,16 @@ public class DefaultClassLoaderCache implements ClassLoaderCache {
         }
     }
 
+    /**
+     * Discards all cached class loaders. Should only be called between builds.
+     */
+    public void clear() {
+        synchronized (lock) {
+            storage.clear();
+            idCache.clear();
+        }
+    }
+
     private void invalidateStaleEntries(ClassLoaderId id, Key key) {
         Key existingKey = idCache.get(id);
         if (existingKey == null) {
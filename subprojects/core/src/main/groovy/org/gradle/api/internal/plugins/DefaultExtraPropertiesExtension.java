@@ -22,12 +22,14 @@ import groovy.lang.MissingPropertyException;
 import groovy.lang.ReadOnlyPropertyException;
 import org.gradle.api.plugins.ExtraPropertiesExtension;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 public class DefaultExtraPropertiesExtension extends GroovyObjectSupport implements ExtraPropertiesExtension {
 
-    Map<String, Object> storage = new HashMap<String, Object>();
+    // The extra properties of a project may be used by other projects, which may be configured concurrently
+    Map<String, Object> storage = Collections.synchronizedMap(new HashMap<String, Object>());
 
     public boolean has(String name) {
         return storage.containsKey(name);
@@ -65,7 +67,9 @@ public class DefaultExtraPropertiesExtension extends GroovyObjectSupport impleme
     }
 
     public Map<String, Object> getProperties() {
-        return new HashMap<String, Object>(storage);
+        synchronized (storage) {
+            return new HashMap<String, Object>(storage);
+        }
     }
 
     public Object methodMissing(String name, Object args) {
@@ -535,11 +535,19 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
+        if (projectToEvaluate.getState().isExecutingInCurrentThread()) {
+            throw circularEvaluation(projectToEvaluate);
+        }
+        projectToEvaluate.evaluate();
         if (projectToEvaluate.getState().getExecuting()) {
-            throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
-                    projectToEvaluate));
+            // Being evaluated by another thread, which is waiting for this thread
+            throw circularEvaluation(projectToEvaluate);
         }
-        return projectToEvaluate.evaluate();
+        return projectToEvaluate;
+    }
+
+    private static CircularReferenceException circularEvaluation(Project projectToEvaluate) {
+        return new CircularReferenceException(String.format("Circular referencing during evaluation for %s.", projectToEvaluate));
     }
 
     public String toString() {
@@ -15,6 +15,10 @@
  */
 package org.gradle.api.internal.project.taskfactory;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.*;
 import org.gradle.api.internal.AbstractTask;
@@ -29,7 +33,9 @@ import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.*;
 import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.Instantiator;
+import org.gradle.internal.reflect.JavaMethod;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.util.DeprecationLogger;
 
@@ -41,39 +47,57 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 /**
  * A {@link ITaskFactory} which determines task actions, inputs and outputs based on annotation attached to the task properties. Also provides some validation based on these annotations.
+ *
+ * <p>The actions, inputs and outputs of a task type are inspected once per process and shared by all builds, so that a long living process, such as the
+ * daemon, does not inspect the task types again for every build. The methods of the type are resolved when the type is inspected, rather than each
+ * time a property is read or an action is executed.</p>
  */
 public class AnnotationProcessingTaskFactory implements ITaskFactory {
-    private final ITaskFactory taskFactory;
-    private final Map<Class, TaskClassInfo> classInfos;
+    // The inspected information references the methods of the task type, and so the type itself. A strongly held value would keep its weakly held key
+    // reachable, so the value is held using a soft reference instead. This is a trade-off:
+    // - The type and its class loader, such as the class loader of a build script that has changed, are only collected once the JVM clears the soft
+    //   reference. It does so when the entry has not been used for a while, relative to the free heap, and always before running out of memory.
+    //   Until then the cache retains them, in a long-lived daemon as well.
+    // - Under memory pressure the information of a type that is still in use may be cleared as well. It is then inspected again on next use, which
+    //   costs time but produces the same result.
+    // The cache is not bounded by size: the number of task types in use is small, and a bound would evict the information of types still in use.
+    private static final LoadingCache<Class<? extends Task>, TaskClassInfo> CLASS_INFOS = CacheBuilder.newBuilder().weakKeys().softValues().build(
+            new CacheLoader<Class<? extends Task>, TaskClassInfo>() {
+                @Override
+                public TaskClassInfo load(Class<? extends Task> type) {
+                    return createTaskClassInfo(type);
+                }
+            });
 
-    private final Transformer<Iterable<File>, Object> filePropertyTransformer = new Transformer<Iterable<File>, Object>() {
+    private static final Transformer<Iterable<File>, Object> FILE_PROPERTY_TRANSFORMER = new Transformer<Iterable<File>, Object>() {
         public Iterable<File> transform(Object original) {
             File file = (File) original;
             return file == null ? Collections.<File>emptyList() : Collections.singleton(file);
         }
     };
 
-    private final Transformer<Iterable<File>, Object> iterableFilePropertyTransformer = new Transformer<Iterable<File>, Object>() {
+    private static final Transformer<Iterable<File>, Object> ITERABLE_FILE_PROPERTY_TRANSFORMER = new Transformer<Iterable<File>, Object>() {
         @SuppressWarnings("unchecked")
         public Iterable<File> transform(Object original) {
             return original != null ? (Iterable<File>) original : Collections.<File>emptyList();
         }
     };
 
-    private final List<? extends PropertyAnnotationHandler> handlers = Arrays.asList(
+    private static final List<? extends PropertyAnnotationHandler> HANDLERS = Arrays.asList(
             new InputFilePropertyAnnotationHandler(),
             new InputDirectoryPropertyAnnotationHandler(),
             new InputFilesPropertyAnnotationHandler(),
-            new OutputFilePropertyAnnotationHandler(OutputFile.class, filePropertyTransformer),
-            new OutputFilePropertyAnnotationHandler(OutputFiles.class, iterableFilePropertyTransformer),
-            new OutputDirectoryPropertyAnnotationHandler(OutputDirectory.class, filePropertyTransformer),
-            new OutputDirectoryPropertyAnnotationHandler(OutputDirectories.class, iterableFilePropertyTransformer),
+            new OutputFilePropertyAnnotationHandler(OutputFile.class, FILE_PROPERTY_TRANSFORMER),
+            new OutputFilePropertyAnnotationHandler(OutputFiles.class, ITERABLE_FILE_PROPERTY_TRANSFORMER),
+            new OutputDirectoryPropertyAnnotationHandler(OutputDirectory.class, FILE_PROPERTY_TRANSFORMER),
+            new OutputDirectoryPropertyAnnotationHandler(OutputDirectories.class, ITERABLE_FILE_PROPERTY_TRANSFORMER),
             new InputPropertyAnnotationHandler(),
             new NestedBeanPropertyAnnotationHandler());
-    private final ValidationAction notNullValidator = new ValidationAction() {
+    private static final ValidationAction NOT_NULL_VALIDATOR = new ValidationAction() {
         public void validate(String propertyName, Object value, Collection<String> messages) {
             if (value == null) {
                 messages.add(String.format("No value has been specified for property '%s'.", propertyName));
@@ -81,18 +105,14 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         }
     };
 
-    public AnnotationProcessingTaskFactory(ITaskFactory taskFactory) {
-        this.taskFactory = taskFactory;
-        this.classInfos = new HashMap<Class, TaskClassInfo>();
-    }
+    private final ITaskFactory taskFactory;
 
-    private AnnotationProcessingTaskFactory(Map<Class, TaskClassInfo> classInfos, ITaskFactory taskFactory) {
-        this.classInfos = classInfos;
+    public AnnotationProcessingTaskFactory(ITaskFactory taskFactory) {
         this.taskFactory = taskFactory;
     }
 
     public ITaskFactory createChild(ProjectInternal project, Instantiator instantiator) {
-        return new AnnotationProcessingTaskFactory(classInfos, taskFactory.createChild(project, instantiator));
+        return new AnnotationProcessingTaskFactory(taskFactory.createChild(project, instantiator));
     }
 
     public TaskInternal createTask(Map<String, ?> args) {
@@ -120,33 +140,39 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         return task;
     }
 
-    private TaskClassInfo getTaskClassInfo(Class<? extends Task> type) {
-        TaskClassInfo taskClassInfo = classInfos.get(type);
-        if (taskClassInfo == null) {
-            taskClassInfo = new TaskClassInfo();
-            findTaskActions(type, taskClassInfo);
+    private static TaskClassInfo getTaskClassInfo(Class<? extends Task> type) {
+        try {
+            return CLASS_INFOS.get(type);
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
 
-            Validator validator = new Validator();
-            validator.attachActions(null, type);
+    private static TaskClassInfo createTaskClassInfo(Class<? extends Task> type) {
+        TaskClassInfo taskClassInfo = new TaskClassInfo();
+        findTaskActions(type, taskClassInfo);
 
-            if (!validator.properties.isEmpty()) {
-                taskClassInfo.validator = validator;
-            }
-            classInfos.put(type, taskClassInfo);
+        Validator validator = new Validator();
+        validator.attachActions(null, type);
+
+        if (!validator.properties.isEmpty()) {
+            taskClassInfo.validator = validator;
         }
         return taskClassInfo;
     }
 
-    private void findTaskActions(Class<? extends Task> type, TaskClassInfo taskClassInfo) {
+    private static void findTaskActions(Class<? extends Task> type, TaskClassInfo taskClassInfo) {
         Set<String> methods = new HashSet<String>();
         for (Class current = type; current != null; current = current.getSuperclass()) {
             for (Method method : current.getDeclaredMethods()) {
-                attachTaskAction(method, taskClassInfo, methods);
+                attachTaskAction(type, method, taskClassInfo, methods);
             }
         }
     }
 
-    private void attachTaskAction(final Method method, TaskClassInfo taskClassInfo, Collection<String> processedMethods) {
+    private static void attachTaskAction(Class<? extends Task> type, Method method, TaskClassInfo taskClassInfo, Collection<String> processedMethods) {
         if (method.getAnnotation(TaskAction.class) == null) {
             return;
         }
@@ -175,17 +201,21 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         if (processedMethods.contains(method.getName())) {
             return;
         }
-        taskClassInfo.taskActions.add(createActionFactory(method, parameterTypes));
+        // Resolve the method that is called for an instance of the type, which may override the annotated method
+        @SuppressWarnings("unchecked")
+        Class<Task> taskType = (Class<Task>) type;
+        JavaMethod<Task, Object> taskMethod = JavaReflectionUtil.method(taskType, Object.class, method.getName(), parameterTypes);
+        taskClassInfo.taskActions.add(createActionFactory(method, taskMethod, parameterTypes));
         processedMethods.add(method.getName());
     }
 
-    private Factory<Action<Task>> createActionFactory(final Method method, final Class<?>[] parameterTypes) {
+    private static Factory<Action<Task>> createActionFactory(final Method method, final JavaMethod<Task, Object> taskMethod, final Class<?>[] parameterTypes) {
         return new Factory<Action<Task>>() {
             public Action<Task> create() {
                 if (parameterTypes.length == 1) {
-                    return new IncrementalTaskAction(method);
+                    return new IncrementalTaskAction(method, taskMethod);
                 } else {
-                    return new StandardTaskAction(method);
+                    return new StandardTaskAction(method, taskMethod);
                 }
             }
         };
@@ -199,23 +229,25 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
     private static class StandardTaskAction implements Action<Task> {
         private final Method method;
+        protected final JavaMethod<Task, Object> taskMethod;
 
-        public StandardTaskAction(Method method) {
+        public StandardTaskAction(Method method, JavaMethod<Task, Object> taskMethod) {
             this.method = method;
+            this.taskMethod = taskMethod;
         }
 
         public void execute(Task task) {
             ClassLoader original = Thread.currentThread().getContextClassLoader();
             Thread.currentThread().setContextClassLoader(method.getDeclaringClass().getClassLoader());
             try {
-                doExecute(task, method.getName());
+                doExecute(task);
             } finally {
                 Thread.currentThread().setContextClassLoader(original);
             }
         }
 
-        protected void doExecute(Task task, String methodName) {
-            JavaReflectionUtil.method(task, Object.class, methodName).invoke(task);
+        protected void doExecute(Task task) {
+            taskMethod.invoke(task);
         }
     }
 
@@ -223,16 +255,16 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
         private TaskArtifactState taskArtifactState;
 
-        public IncrementalTaskAction(Method method) {
-            super(method);
+        public IncrementalTaskAction(Method method, JavaMethod<Task, Object> taskMethod) {
+            super(method, taskMethod);
         }
 
         public void contextualise(TaskExecutionContext context) {
             this.taskArtifactState = context == null ? null : context.getTaskArtifactState();
         }
 
-        protected void doExecute(Task task, String methodName) {
-            JavaReflectionUtil.method(task, Object.class, methodName, IncrementalTaskInputs.class).invoke(task, taskArtifactState.getInputChanges());
+        protected void doExecute(Task task) {
+            taskMethod.invoke(task, taskArtifactState.getInputChanges());
             taskArtifactState = null;
         }
     }
@@ -243,7 +275,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         public boolean incremental;
     }
 
-    private class Validator implements Action<Task>, TaskValidator {
+    private static class Validator implements Action<Task>, TaskValidator {
         private Set<PropertyInfo> properties = new LinkedHashSet<PropertyInfo>();
 
         public void addInputsAndOutputs(final TaskInternal task) {
@@ -308,7 +340,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         }
 
         private void attachValidationActions(PropertyInfo propertyInfo, String fieldName) {
-            for (PropertyAnnotationHandler handler : handlers) {
+            for (PropertyAnnotationHandler handler : HANDLERS) {
                 attachValidationAction(handler, propertyInfo, fieldName);
             }
         }
@@ -336,7 +368,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
 
             Annotation optional = annotationTarget.getAnnotation(org.gradle.api.tasks.Optional.class);
             if (optional == null) {
-                propertyInfo.setNotNullValidator(notNullValidator);
+                propertyInfo.setNotNullValidator(NOT_NULL_VALIDATOR);
             }
 
             propertyInfo.attachActions(handler);
@@ -376,6 +408,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
         private final PropertyInfo parent;
         private final String propertyName;
         private final Method method;
+        private final JavaMethod<Object, Object> getter;
         private ValidationAction validationAction = NO_OP_VALIDATION_ACTION;
         private ValidationAction notNullValidator = NO_OP_VALIDATION_ACTION;
         private UpdateAction configureAction = NO_OP_CONFIGURATION_ACTION;
@@ -388,6 +421,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
             this.parent = parent;
             this.propertyName = propertyName;
             this.method = method;
+            this.getter = JavaReflectionUtil.method(Object.class, Object.class, method);
         }
 
         @Override
@@ -449,7 +483,7 @@ public class AnnotationProcessingTaskFactory implements ITaskFactory {
             final Object finalBean = bean;
             final Object value = DeprecationLogger.whileDisabled(new Factory<Object>() {
                 public Object create() {
-                    return JavaReflectionUtil.method(finalBean, Object.class, method).invoke(finalBean);
+                    return getter.invoke(finalBean);
                 }
             });
 
@@ -16,14 +16,22 @@
 package org.gradle.api.internal.tasks;
 
 import groovy.lang.Closure;
+import groovy.lang.GroovyObject;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.*;
 import org.gradle.api.internal.DynamicObject;
+import org.gradle.api.internal.DynamicObjectAware;
+import org.gradle.api.internal.HasConvention;
+import org.gradle.api.internal.IConventionAware;
 import org.gradle.api.internal.NamedDomainObjectContainerConfigureDelegate;
+import org.gradle.api.internal.collections.CollectionFilter;
+import org.gradle.api.internal.collections.FilteredSet;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.Transformers;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.graph.CachingDirectedGraphWalker;
 import org.gradle.internal.graph.DirectedGraph;
 import org.gradle.internal.reflect.Instantiator;
@@ -34,9 +42,18 @@ import org.gradle.util.GUtil;
 import java.util.*;
 
 public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements TaskContainerInternal {
+    // The types that the class generator may mix in to the generated subclass of a task type
+    private static final List<Class<?>> MIX_IN_TYPES = Arrays.<Class<?>>asList(IConventionAware.class, DynamicObjectAware.class, ExtensionAware.class, HasConvention.class, GroovyObject.class);
+
     private final ITaskFactory taskFactory;
     private final ProjectAccessListener projectAccessListener;
+    // Tasks may be looked up by other projects, which may be configured concurrently, and a lookup may create the task.
+    // The store, placeholders, registrations and the names of the tasks being created are guarded by this container. The lock is not
+    // held while running task constructors, registration and placeholder actions, rules or collection actions, as these may look up
+    // the tasks of another project that is looking up the tasks of this project
     private final Map<String, Runnable> placeholders = new HashMap<String, Runnable>();
+    private final Map<String, TaskRegistration<?>> registrations = new LinkedHashMap<String, TaskRegistration<?>>();
+    private final Map<String, Thread> creating = new HashMap<String, Thread>();
     private final NamedEntityInstantiator<Task> instantiator = new TaskInstantiator();
 
     public DefaultTaskContainer(ProjectInternal project, Instantiator instantiator, ITaskFactory taskFactory, ProjectAccessListener projectAccessListener) {
@@ -54,17 +71,35 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         Task task = taskFactory.createTask(mutableOptions);
         String name = task.getName();
 
-        Task existing = findByNameWithoutRules(name);
-        if (existing != null) {
-            if (replace) {
-                remove(existing);
-            } else {
-                throw new InvalidUserDataException(String.format(
-                        "Cannot add %s as a task with that name already exists.", task));
+        assertMutable();
+        Task existing;
+        synchronized (this) {
+            if (registrations.containsKey(name)) {
+                if (replace) {
+                    registrations.remove(name);
+                } else {
+                    throw new InvalidUserDataException(String.format(
+                            "Cannot add %s as a task with that name already exists.", task));
+                }
             }
+
+            existing = findByNameWithoutRules(name);
+            if (existing != null) {
+                if (replace) {
+                    getStore().remove(existing);
+                } else {
+                    throw new InvalidUserDataException(String.format(
+                            "Cannot add %s as a task with that name already exists.", task));
+                }
+            }
+
+            getStore().add(task);
         }
 
-        add(task);
+        if (existing != null) {
+            getEventRegister().getRemoveAction().execute(existing);
+        }
+        getEventRegister().getAddAction().execute(task);
 
         return task;
     }
@@ -117,6 +152,17 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return task;
     }
 
+    public <T extends Task> void register(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException {
+        assertMutable();
+        synchronized (this) {
+            if (registrations.containsKey(name) || findByNameWithoutRules(name) != null) {
+                throw new InvalidUserDataException(String.format(
+                        "Cannot register task '%s' as a task with that name already exists.", name));
+            }
+            registrations.put(name, new TaskRegistration<T>(name, type, configuration));
+        }
+    }
+
     public <T extends Task> T replace(String name, Class<T> type) {
         return type.cast(create(GUtil.map(Task.TASK_NAME, name, Task.TASK_TYPE, type, Task.TASK_OVERWRITE, true)));
     }
@@ -168,7 +214,7 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return getElementsAsDynamicObject();
     }
 
-    public SortedSet<String> getNames() {
+    public synchronized SortedSet<String> getNames() {
         SortedSet<String> set = new TreeSet<String>();
         for (Task o : getStore()) {
             set.add(o.getName());
@@ -176,9 +222,44 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         for (String placeHolderName : placeholders.keySet()) {
             set.add(placeHolderName);
         }
+        set.addAll(registrations.keySet());
         return set;
     }
 
+    @Override
+    public SortedMap<String, Task> getAsMap() {
+        realizeRegistrations(Task.class);
+        return super.getAsMap();
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        realizeRegistrations(Task.class);
+        return super.iterator();
+    }
+
+    /**
+     * Creates the registered tasks, so that the size agrees with the tasks that are iterated over and that the container contains.
+     */
+    @Override
+    public int size() {
+        realizeRegistrations(Task.class);
+        return super.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return super.isEmpty() && registrations.isEmpty();
+    }
+
+    /**
+     * Creates the registered tasks that may match the filter when the filtered collection is queried, rather than all registered tasks.
+     */
+    @Override
+    protected <S extends Task> Set<S> filteredStore(CollectionFilter<S> filter) {
+        return new FilteredSet<Task, S>(new RealizingView(filter.getType()), filter);
+    }
+
     public void actualize() {
         new CachingDirectedGraphWalker<Task, Void>(new DirectedGraph<Task, Void>() {
             public void getNodeValues(Task node, Collection<? super Void> values, Collection<? super Task> connectedNodes) {
@@ -187,9 +268,17 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         }).add(this).findValues();
 
 
-        final HashSet<String> placeholderNames = new HashSet<String>(placeholders.keySet());
+        final HashSet<String> placeholderNames;
+        synchronized (this) {
+            placeholderNames = new HashSet<String>(placeholders.keySet());
+        }
         for (String placeholder : placeholderNames) {
-            maybeMaterializePlaceholder(placeholder);
+            boolean claimed = claim(placeholder);
+            try {
+                maybeMaterializePlaceholder(placeholder);
+            } finally {
+                release(placeholder, claimed);
+            }
         }
 
     }
@@ -198,25 +287,106 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return placeholders;
     }
 
+    @Override
+    protected synchronized boolean hasWithName(String name) {
+        return registrations.containsKey(name) || super.hasWithName(name);
+    }
+
+    @Override
+    protected synchronized Task findByNameWithoutRules(String name) {
+        return super.findByNameWithoutRules(name);
+    }
+
     public Task findByName(String name) {
-        Task task = super.findByName(name);
-        if (task != null) {
-            return task;
+        // Wait for any other thread that is creating the task, so that the task is not returned before it has been configured
+        boolean claimed = claim(name);
+        try {
+            maybeRealizeRegistration(name);
+            Task task = super.findByName(name);
+            if (task != null) {
+                return task;
+            }
+            maybeMaterializePlaceholder(name);
+            return super.findByName(name);
+        } finally {
+            release(name, claimed);
+        }
+    }
+
+    /**
+     * Claims the creation of the task with the given name for the current thread, waiting while another thread is creating it.
+     *
+     * @return false when the current thread is already creating the task.
+     */
+    private synchronized boolean claim(String name) {
+        Thread currentThread = Thread.currentThread();
+        while (true) {
+            Thread owner = creating.get(name);
+            if (owner == null) {
+                creating.put(name, currentThread);
+                return true;
+            }
+            if (owner == currentThread) {
+                return false;
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    private synchronized void release(String name, boolean claimed) {
+        if (claimed) {
+            creating.remove(name);
+            notifyAll();
         }
-        maybeMaterializePlaceholder(name);
-        return super.findByName(name);
     }
 
     private void maybeMaterializePlaceholder(String name) {
-        if (placeholders.containsKey(name)) {
-            if (super.findByName(name) == null) {
-                final Runnable placeholderAction = placeholders.remove(name);
-                placeholderAction.run();
+        Runnable placeholderAction;
+        synchronized (this) {
+            if (!placeholders.containsKey(name) || findByNameWithoutRules(name) != null) {
+                return;
             }
+            placeholderAction = placeholders.remove(name);
         }
+        placeholderAction.run();
     }
 
-    public void addPlaceholderAction(String placeholderName, Runnable runnable) {
+    private void maybeRealizeRegistration(String name) {
+        TaskRegistration<?> registration;
+        synchronized (this) {
+            registration = registrations.remove(name);
+        }
+        if (registration != null) {
+            registration.realize();
+        }
+    }
+
+    private void realizeRegistrations(Class<?> type) {
+        // Configuring a task may register further tasks
+        List<String> names = registeredNames(type);
+        while (!names.isEmpty()) {
+            for (String name : names) {
+                findByName(name);
+            }
+            names = registeredNames(type);
+        }
+    }
+
+    private synchronized List<String> registeredNames(Class<?> type) {
+        List<String> names = new ArrayList<String>();
+        for (TaskRegistration<?> registration : registrations.values()) {
+            if (registration.mayBeInstanceOf(type)) {
+                names.add(registration.name);
+            }
+        }
+        return names;
+    }
+
+    public synchronized void addPlaceholderAction(String placeholderName, Runnable runnable) {
         placeholders.put(placeholderName, runnable);
     }
 
@@ -228,6 +398,59 @@ public class DefaultTaskContainer extends DefaultTaskCollection<Task> implements
         return Collections.singleton(getType());
     }
 
+    private class TaskRegistration<T extends Task> {
+        private final String name;
+        private final Class<T> type;
+        private final Action<? super T> configuration;
+
+        TaskRegistration(String name, Class<T> type, Action<? super T> configuration) {
+            this.name = name;
+            this.type = type;
+            this.configuration = configuration;
+        }
+
+        boolean mayBeInstanceOf(Class<?> queriedType) {
+            if (queriedType.isAssignableFrom(type)) {
+                return true;
+            }
+            for (Class<?> mixInType : MIX_IN_TYPES) {
+                if (queriedType.isAssignableFrom(mixInType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void realize() {
+            create(name, type, configuration);
+        }
+    }
+
+    private class RealizingView extends AbstractSet<Task> {
+        private final Class<?> type;
+
+        RealizingView(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            realizeRegistrations(type);
+            return DefaultTaskContainer.super.iterator();
+        }
+
+        @Override
+        public int size() {
+            realizeRegistrations(type);
+            return getStore().size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return getStore().contains(o);
+        }
+    }
+
     private class TaskInstantiator implements NamedEntityInstantiator<Task> {
         @Override
         public <S extends Task> S create(String name, Class<S> type) {
@@ -155,6 +155,24 @@ public interface TaskContainer extends TaskCollection<Task>, PolymorphicDomainOb
      */
     <T extends Task> T create(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
 
+    /**
+     * <p>Registers a {@link Task} with the given name and type, to be created and configured with the given action when it is first needed. Until then,
+     * the task is not instantiated.</p>
+     *
+     * <p>The task is created when it is looked up by name or path, for example when it is referenced from the build script, requested on the command line or
+     * added to the task graph as a dependency of another task. It is also created when a collection returned by {@link #withType(Class)} or
+     * {@link #matching(org.gradle.api.specs.Spec)} that may contain it is queried, or when this container is iterated or its size is queried. Actions
+     * added using {@link #all(Action)} or {@link #whenTaskAdded(Action)} are executed for the task when it is created.</p>
+     *
+     * @param name The name of the task to register.
+     * @param type The type of task to create.
+     * @param configuration The action to configure the task with once it is created.
+     * @throws InvalidUserDataException If a task with the given name already exists in this project.
+     * @since 2.4
+     */
+    @Incubating
+    <T extends Task> void register(String name, Class<T> type, Action<? super T> configuration) throws InvalidUserDataException;
+
     /**
      * <p>Creates a {@link Task} with the given name and adds it to this container, replacing any existing task with the
      * same name.</p>
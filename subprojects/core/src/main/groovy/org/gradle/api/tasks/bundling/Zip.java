@@ -20,6 +20,7 @@ import org.gradle.api.Incubating;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.file.archive.ZipCopyAction;
 import org.gradle.api.internal.file.copy.*;
+import org.gradle.internal.concurrent.ExecutorFactory;
 
 /**
  * Assembles a ZIP archive.
@@ -50,7 +51,8 @@ public class Zip extends AbstractArchiveTask {
     @Override
     protected CopyAction createCopyAction() {
         DocumentationRegistry documentationRegistry = getServices().get(DocumentationRegistry.class);
-        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry);
+        ExecutorFactory executorFactory = getServices().get(ExecutorFactory.class);
+        return new ZipCopyAction(getArchivePath(), getCompressor(), documentationRegistry, executorFactory);
     }
 
     /**
@@ -20,11 +20,19 @@ import org.gradle.api.ProjectConfigurationException;
 import org.gradle.api.ProjectEvaluationListener;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.api.internal.project.ProjectStateInternal;
+import org.gradle.internal.UncheckedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Manages lifecycle concerns while delegating actual evaluation to another evaluator
+ *
+ * <p>Projects may be evaluated by several threads at once. A thread that asks for a project that is being evaluated by another thread waits until the
+ * evaluation of the project is complete, unless the other thread is itself waiting for this thread, in which case the request is treated as a request
+ * for a project that is being evaluated further up the stack of the current thread.</p>
  * 
  * @see org.gradle.internal.service.scopes.BuildScopeServices#createProjectEvaluator()
  */
@@ -35,17 +43,73 @@ public class LifecycleProjectEvaluator implements ProjectEvaluator {
 
     private final Action<? super ProjectInternal> projectFinalizer;
 
+    private final Object lock = new Object();
+    private final Map<ProjectInternal, Thread> evaluatingThreads = new HashMap<ProjectInternal, Thread>();
+    private final Map<Thread, ProjectInternal> awaitedProjects = new HashMap<Thread, ProjectInternal>();
+
     public LifecycleProjectEvaluator(ProjectEvaluator delegate, Action<? super ProjectInternal> projectFinalizer) {
         this.delegate = delegate;
         this.projectFinalizer = projectFinalizer;
     }
 
     public void evaluate(ProjectInternal project, ProjectStateInternal state) {
-        //TODO this is one of the places to look into thread safety when we implement parallel configuration
-        if (state.getExecuted() || state.getExecuting()) {
+        if (!startEvaluation(project, state)) {
             return;
         }
+        try {
+            doEvaluate(project, state);
+        } finally {
+            finishEvaluation(project);
+        }
+    }
+
+    private boolean startEvaluation(ProjectInternal project, ProjectStateInternal state) {
+        Thread currentThread = Thread.currentThread();
+        synchronized (lock) {
+            while (true) {
+                Thread evaluatingThread = evaluatingThreads.get(project);
+                if (evaluatingThread == null) {
+                    if (state.getExecuted() || state.getExecuting()) {
+                        return false;
+                    }
+                    evaluatingThreads.put(project, currentThread);
+                    return true;
+                }
+                if (evaluatingThread == currentThread || isWaitingFor(evaluatingThread, currentThread)) {
+                    return false;
+                }
+                awaitedProjects.put(currentThread, project);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                } finally {
+                    awaitedProjects.remove(currentThread);
+                }
+            }
+        }
+    }
+
+    private boolean isWaitingFor(Thread thread, Thread target) {
+        ProjectInternal awaitedProject = awaitedProjects.get(thread);
+        while (awaitedProject != null) {
+            Thread evaluatingThread = evaluatingThreads.get(awaitedProject);
+            if (evaluatingThread == target) {
+                return true;
+            }
+            awaitedProject = awaitedProjects.get(evaluatingThread);
+        }
+        return false;
+    }
+
+    private void finishEvaluation(ProjectInternal project) {
+        synchronized (lock) {
+            evaluatingThreads.remove(project);
+            lock.notifyAll();
+        }
+    }
 
+    private void doEvaluate(ProjectInternal project, ProjectStateInternal state) {
         ProjectEvaluationListener listener = project.getProjectEvaluationBroadcaster();
         try {
             listener.beforeEvaluate(project);
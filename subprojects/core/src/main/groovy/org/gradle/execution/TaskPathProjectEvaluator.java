@@ -20,12 +20,32 @@ import org.gradle.api.BuildCancelledException;
 import org.gradle.api.Project;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.LinkedList;
 
 public class TaskPathProjectEvaluator implements ProjectConfigurer {
+    /**
+     * The system property that enables the concurrent configuration of the project hierarchy. Should only be set for builds whose projects do not
+     * configure their sibling projects, or do so only after declaring it using {@link Project#evaluationDependsOn(String)}.
+     */
+    public static final String PARALLEL_CONFIGURATION_PROPERTY = "org.gradle.configure.parallel";
+
     private final BuildCancellationToken cancellationToken;
+    private final ExecutorFactory executorFactory;
 
     public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken) {
+        this(cancellationToken, null);
+    }
+
+    /**
+     * @param executorFactory Used to configure the projects of a hierarchy concurrently. When null, the projects are configured one after another.
+     */
+    public TaskPathProjectEvaluator(BuildCancellationToken cancellationToken, ExecutorFactory executorFactory) {
         this.cancellationToken = cancellationToken;
+        this.executorFactory = executorFactory;
     }
 
     public void configure(ProjectInternal project) {
@@ -40,6 +60,10 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             throw new BuildCancelledException();
         }
         project.evaluate();
+        if (executorFactory != null) {
+            configureChildrenConcurrently(project);
+            return;
+        }
         for (Project sub : project.getSubprojects()) {
             if (cancellationToken.isCancellationRequested()) {
                 throw new BuildCancelledException();
@@ -47,4 +71,89 @@ public class TaskPathProjectEvaluator implements ProjectConfigurer {
             ((ProjectInternal) sub).evaluate();
         }
     }
+
+    private void configureChildrenConcurrently(ProjectInternal project) {
+        ConcurrentConfiguration configuration = new ConcurrentConfiguration();
+        configuration.addChildren(project);
+        StoppableExecutor executor = executorFactory.create("Configure projects");
+        try {
+            int workers = Runtime.getRuntime().availableProcessors();
+            for (int i = 0; i < workers; i++) {
+                executor.execute(configuration);
+            }
+        } finally {
+            executor.stop();
+        }
+        configuration.rethrowFailure();
+    }
+
+    /**
+     * Configures projects using a number of worker threads. A project is configured once its parent has been configured, as the parent may configure
+     * it. No further projects are configured once the configuration of a project has failed.
+     */
+    private class ConcurrentConfiguration implements Runnable {
+        private final LinkedList<ProjectInternal> queue = new LinkedList<ProjectInternal>();
+        private int incomplete;
+        private Throwable failure;
+
+        public void run() {
+            while (true) {
+                ProjectInternal project = next();
+                if (project == null) {
+                    return;
+                }
+                try {
+                    if (cancellationToken.isCancellationRequested()) {
+                        throw new BuildCancelledException();
+                    }
+                    project.evaluate();
+                    addChildren(project);
+                } catch (Throwable t) {
+                    failed(t);
+                } finally {
+                    completed();
+                }
+            }
+        }
+
+        synchronized void addChildren(ProjectInternal project) {
+            for (Project child : project.getChildProjects().values()) {
+                queue.add((ProjectInternal) child);
+                incomplete++;
+            }
+            notifyAll();
+        }
+
+        private synchronized ProjectInternal next() {
+            while (queue.isEmpty() && incomplete > 0 && failure == null) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            if (failure != null || queue.isEmpty()) {
+                return null;
+            }
+            return queue.removeFirst();
+        }
+
+        private synchronized void completed() {
+            incomplete--;
+            notifyAll();
+        }
+
+        private synchronized void failed(Throwable t) {
+            if (failure == null) {
+                failure = t;
+            }
+            notifyAll();
+        }
+
+        synchronized void rethrowFailure() {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -25,17 +25,35 @@ import java.util.*;
 public class CachingScriptClassCompiler implements ScriptClassCompiler {
     private final Map<Collection<Object>, Class<?>> cachedClasses = new HashMap<Collection<Object>, Class<?>>();
     private final ScriptClassCompiler scriptClassCompiler;
+    private final CrossBuildScriptClassCache crossBuildCache;
 
     public CachingScriptClassCompiler(ScriptClassCompiler scriptClassCompiler) {
+        this(scriptClassCompiler, null);
+    }
+
+    /**
+     * @param crossBuildCache The cache to reuse classes compiled by earlier builds from, or null to compile the scripts of each build afresh.
+     */
+    public CachingScriptClassCompiler(ScriptClassCompiler scriptClassCompiler, CrossBuildScriptClassCache crossBuildCache) {
         this.scriptClassCompiler = scriptClassCompiler;
+        this.crossBuildCache = crossBuildCache;
     }
 
     public <T extends Script> Class<? extends T> compile(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<T> scriptBaseClass, Verifier verifier) {
         List<Object> key = Arrays.asList(source.getClassName(), classLoader, transformer.getId(), scriptBaseClass.getName());
-        Class<?> c = cachedClasses.get(key);
+        Class<?> c;
+        synchronized (cachedClasses) {
+            c = cachedClasses.get(key);
+        }
         if (c == null) {
-            c = scriptClassCompiler.compile(source, classLoader, transformer, scriptBaseClass, verifier);
-            cachedClasses.put(key, c);
+            if (crossBuildCache != null) {
+                c = crossBuildCache.getOrCompile(source, classLoader, transformer, scriptBaseClass, verifier, scriptClassCompiler);
+            } else {
+                c = scriptClassCompiler.compile(source, classLoader, transformer, scriptBaseClass, verifier);
+            }
+            synchronized (cachedClasses) {
+                cachedClasses.put(key, c);
+            }
         }
         return c.asSubclass(scriptBaseClass);
     }
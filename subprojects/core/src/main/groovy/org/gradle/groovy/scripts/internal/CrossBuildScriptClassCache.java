@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal;
+
+import groovy.lang.Script;
+import org.codehaus.groovy.classgen.Verifier;
+import org.gradle.groovy.scripts.ScriptSource;
+import org.gradle.groovy.scripts.Transformer;
+import org.gradle.internal.hash.HashUtil;
+
+import java.lang.ref.SoftReference;
+import java.util.*;
+
+/**
+ * Holds compiled script classes in memory for the lifetime of the process, so that a long living process, such as the daemon, can reuse them across
+ * builds rather than opening the script cache and loading the classes again for every build.
+ *
+ * <p>A class is reused when the content of the script is unchanged and it is compiled against the same class loader. Class loaders are only reused
+ * across builds when the class loader cache is shared, in which case the class loader identity covers the build script classpath.</p>
+ *
+ * <p>Between builds nothing else references a script class, so the classes are softly referenced: they survive the garbage collections that run
+ * between builds and are only discarded when memory runs low or they have not been used for a while. Class loaders are weakly referenced, so that
+ * their entries are discarded once the class loader is no longer in use and its classes have been discarded.</p>
+ */
+public class CrossBuildScriptClassCache {
+    private final Map<ClassLoader, Map<List<String>, CachedClass>> cachedClasses = new WeakHashMap<ClassLoader, Map<List<String>, CachedClass>>();
+
+    /**
+     * Returns the class for the given script, using the given compiler when there is no class for the script's current content.
+     */
+    public <T extends Script> Class<? extends T> getOrCompile(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<T> scriptBaseClass,
+                                                              Verifier verifier, ScriptClassCompiler compiler) {
+        String hash = HashUtil.createCompactMD5(source.getResource().getText());
+        List<String> key = Arrays.asList(source.getClassName(), transformer.getId(), scriptBaseClass.getName());
+        synchronized (cachedClasses) {
+            Map<List<String>, CachedClass> classes = cachedClasses.get(classLoader);
+            CachedClass cachedClass = classes == null ? null : classes.get(key);
+            Class<?> c = cachedClass == null || !cachedClass.hash.equals(hash) ? null : cachedClass.type.get();
+            if (c != null) {
+                return c.asSubclass(scriptBaseClass);
+            }
+        }
+
+        Class<? extends T> c = compiler.compile(source, classLoader, transformer, scriptBaseClass, verifier);
+        synchronized (cachedClasses) {
+            Map<List<String>, CachedClass> classes = cachedClasses.get(classLoader);
+            if (classes == null) {
+                classes = new HashMap<List<String>, CachedClass>();
+                cachedClasses.put(classLoader, classes);
+            }
+            classes.put(key, new CachedClass(hash, c));
+        }
+        return c;
+    }
+
+    private static class CachedClass {
+        final String hash;
+        final SoftReference<Class<?>> type;
+
+        CachedClass(String hash, Class<?> type) {
+            this.hash = hash;
+            this.type = new SoftReference<Class<?>>(type);
+        }
+    }
+}
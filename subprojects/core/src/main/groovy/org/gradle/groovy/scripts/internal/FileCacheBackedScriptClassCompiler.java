@@ -17,31 +17,54 @@ package org.gradle.groovy.scripts.internal;
 
 import groovy.lang.Script;
 import org.codehaus.groovy.classgen.Verifier;
-import org.gradle.api.Action;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.CacheValidator;
 import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.FileLockManager;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.groovy.scripts.Transformer;
-import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashUtil;
 import org.gradle.logging.ProgressLogger;
 import org.gradle.logging.ProgressLoggerFactory;
+import org.gradle.util.GFileUtils;
 
 import java.io.Closeable;
 import java.io.File;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
 
 /**
  * A {@link ScriptClassCompiler} which compiles scripts to a cache directory, and loads them from there.
+ *
+ * <p>The classes of all scripts are kept in a single cache, along with an index that records the directory that holds the classes of each script.
+ * The name of the directory starts with the hash of the script content that the classes were compiled from. The cache is locked only while the index
+ * is read or updated. Scripts are compiled to a new directory without holding the lock, so that several scripts can be compiled at the same time.</p>
+ *
+ * <p>Classes are loaded from a directory without holding the lock, and a class loader may load classes from it long after, so a directory is never
+ * changed or deleted once it has been recorded in the index. Instead, recompiling a script records a new directory. The directories that are no
+ * longer recorded are deleted once they have not been recorded for {@link #RETAIN_SUPERSEDED_DAYS} days.</p>
  */
 public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler, Closeable {
+    static final int RETAIN_SUPERSEDED_DAYS = 7;
     private final ScriptCompilationHandler scriptCompilationHandler;
     private ProgressLoggerFactory progressLoggerFactory;
     private final CacheRepository cacheRepository;
     private final CacheValidator validator;
-    private final CompositeStoppable caches = new CompositeStoppable();
+    private final ConcurrentMap<String, String> scriptHashes = new ConcurrentHashMap<String, String>();
+    private final ConcurrentMap<String, Object> scriptLocks = new ConcurrentHashMap<String, Object>();
+    private final Set<String> recompiledScripts = Collections.synchronizedSet(new HashSet<String>());
+    private PersistentCache cache;
+    private PersistentIndexedCache<String, String> index;
 
     public FileCacheBackedScriptClassCompiler(CacheRepository cacheRepository, CacheValidator validator, ScriptCompilationHandler scriptCompilationHandler, ProgressLoggerFactory progressLoggerFactory) {
         this.cacheRepository = cacheRepository;
@@ -51,71 +74,117 @@ public class FileCacheBackedScriptClassCompiler implements ScriptClassCompiler,
     }
 
     public <T extends Script> Class<? extends T> compile(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<T> scriptBaseClass, Verifier verifier) {
-        Map<String, Object> properties = new HashMap<String, Object>();
-        properties.put("source.filename", source.getFileName());
-        properties.put("source.hash", HashUtil.createCompactMD5(source.getResource().getText()));
-
-        String cacheName = String.format("scripts/%s/%s/%s", source.getClassName(), scriptBaseClass.getSimpleName(), transformer.getId());
-        PersistentCache cache = cacheRepository.cache(cacheName)
-                .withProperties(properties)
-                .withValidator(validator)
-                .withDisplayName(String.format("%s class cache for %s", transformer.getId(), source.getDisplayName()))
-                .withInitializer(new ProgressReportingInitializer(progressLoggerFactory, new CacheInitializer(source, classLoader, transformer, verifier, scriptBaseClass)))
-                .open();
+        final String key = String.format("%s/%s/%s", source.getClassName(), scriptBaseClass.getSimpleName(), transformer.getId());
+        final String hash = hashOf(source);
+        File scriptDir = new File(getCache().getBaseDir(), key);
+
+        String classesDirName;
+        synchronized (lockFor(key)) {
+            // Compile each script at most once per build when the cache is invalid, rather than once for each class loader it is compiled against
+            boolean recompile = !validator.isValid() && recompiledScripts.add(key);
+            classesDirName = recompile ? null : findClassesDir(source, key, hash);
+            if (classesDirName == null) {
+                classesDirName = compileToDir(source, classLoader, transformer, scriptBaseClass, verifier, key, hash, scriptDir, recompile);
+            }
+        }
+        return scriptCompilationHandler.loadFromDir(source, classLoader, new File(scriptDir, classesDirName), scriptBaseClass);
+    }
 
-        // This isn't quite right. The cache will be closed at the end of the build, releasing the shared lock on the classes. Instead, the cache for a script should be
-        // closed once we no longer require the script classes. This may be earlier than the end of the current build, or it may used across multiple builds
-        caches.add(cache);
+    public synchronized void close() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
 
-        File classesDir = classesDir(cache);
-        return scriptCompilationHandler.loadFromDir(source, classLoader, classesDir, scriptBaseClass);
+    private synchronized PersistentCache getCache() {
+        if (cache == null) {
+            cache = cacheRepository.cache("scripts")
+                    .withDisplayName("script class cache")
+                    .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+                    .open();
+            index = cache.createCache(new PersistentIndexedCacheParameters<String, String>("scriptClasses", String.class, String.class));
+        }
+        return cache;
     }
 
-    public void close() {
-        caches.stop();
+    private String hashOf(ScriptSource source) {
+        String hash = scriptHashes.get(source.getClassName());
+        if (hash == null) {
+            hash = HashUtil.createCompactMD5(source.getResource().getText());
+            scriptHashes.put(source.getClassName(), hash);
+        }
+        return hash;
     }
 
-    private File classesDir(PersistentCache cache) {
-        return new File(cache.getBaseDir(), "classes");
+    private Object lockFor(String key) {
+        Object lock = new Object();
+        Object existing = scriptLocks.putIfAbsent(key, lock);
+        return existing != null ? existing : lock;
     }
 
-    private class CacheInitializer implements Action<PersistentCache> {
-        private final Verifier verifier;
-        private final Class<? extends Script> scriptBaseClass;
-        private final ClassLoader classLoader;
-        private final Transformer transformer;
-        private final ScriptSource source;
+    /**
+     * Returns the name of the directory that holds the classes compiled from the given script content, or null when there is none.
+     */
+    private String findClassesDir(ScriptSource source, final String key, final String hash) {
+        return cache.useCache(String.format("Locate classes for %s", source.getDisplayName()), new Factory<String>() {
+            public String create() {
+                String classesDirName = index.get(key);
+                return isCompiledFrom(classesDirName, hash) ? classesDirName : null;
+            }
+        });
+    }
 
-        private CacheInitializer(ScriptSource source, ClassLoader classLoader, Transformer transformer, Verifier verifier, Class<? extends Script> scriptBaseClass) {
-            this.source = source;
-            this.classLoader = classLoader;
-            this.transformer = transformer;
-            this.verifier = verifier;
-            this.scriptBaseClass = scriptBaseClass;
-        }
+    private static boolean isCompiledFrom(String classesDirName, String hash) {
+        return classesDirName != null && classesDirName.startsWith(hash + "-");
+    }
 
-        public void execute(PersistentCache cache) {
-            File classesDir = classesDir(cache);
-            scriptCompilationHandler.compileToDir(source, classLoader, classesDir, transformer, scriptBaseClass, verifier);
+    private String compileToDir(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<? extends Script> scriptBaseClass, Verifier verifier,
+                                final String key, final String hash, final File scriptDir, final boolean replace) {
+        final String compileDirName = String.format("%s-%s", hash, UUID.randomUUID());
+        File compileDir = new File(scriptDir, compileDirName);
+        String classesDirName = null;
+        ProgressLogger op = progressLoggerFactory.newOperation(FileCacheBackedScriptClassCompiler.class)
+                .start("Compile script into cache", "Compiling script into cache");
+        try {
+            scriptCompilationHandler.compileToDir(source, classLoader, compileDir, transformer, scriptBaseClass, verifier);
+            classesDirName = cache.useCache(String.format("Store classes for %s", source.getDisplayName()), new Factory<String>() {
+                public String create() {
+                    String current = index.get(key);
+                    if (!replace && isCompiledFrom(current, hash)) {
+                        // Compiled by another process in the meantime
+                        return current;
+                    }
+                    index.put(key, compileDirName);
+                    if (current != null) {
+                        // Record when the directory was superseded. It may still be in use by another build, so keep it for now
+                        new File(scriptDir, current).setLastModified(System.currentTimeMillis());
+                    }
+                    pruneSupersededDirs(scriptDir, compileDirName);
+                    return compileDirName;
+                }
+            });
+            return classesDirName;
+        } finally {
+            if (!compileDirName.equals(classesDirName)) {
+                GFileUtils.deleteQuietly(compileDir);
+            }
+            op.completed();
         }
     }
 
-    static class ProgressReportingInitializer implements Action<PersistentCache> {
-        private ProgressLoggerFactory progressLoggerFactory;
-        private Action<? super PersistentCache> delegate;
-
-        public ProgressReportingInitializer(ProgressLoggerFactory progressLoggerFactory, Action<PersistentCache> delegate) {
-            this.progressLoggerFactory = progressLoggerFactory;
-            this.delegate = delegate;
+    /**
+     * Deletes the directories of the given script that have not been recorded in the index for a while, including those left behind by compilations
+     * that did not complete. Must be called while holding the lock.
+     */
+    private static void pruneSupersededDirs(File scriptDir, String classesDirName) {
+        File[] dirs = scriptDir.listFiles();
+        if (dirs == null) {
+            return;
         }
-
-        public void execute(PersistentCache cache) {
-            ProgressLogger op = progressLoggerFactory.newOperation(FileCacheBackedScriptClassCompiler.class)
-                    .start("Compile script into cache", "Compiling script into cache");
-            try {
-                delegate.execute(cache);
-            } finally {
-                op.completed();
+        long expiry = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(RETAIN_SUPERSEDED_DAYS);
+        for (File dir : dirs) {
+            if (dir.isDirectory() && !dir.getName().equals(classesDirName) && dir.lastModified() < expiry) {
+                GFileUtils.deleteQuietly(dir);
             }
         }
     }
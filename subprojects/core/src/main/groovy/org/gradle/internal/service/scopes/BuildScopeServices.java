@@ -24,6 +24,7 @@ import org.gradle.api.internal.artifacts.DefaultModule;
 import org.gradle.api.internal.artifacts.DependencyManagementServices;
 import org.gradle.api.internal.artifacts.ModuleInternal;
 import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider;
+import org.gradle.api.internal.cache.PersistentGeneratedBytecodeCache;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.classpath.PluginModuleRegistry;
 import org.gradle.api.internal.component.ComponentTypeRegistry;
@@ -62,6 +63,7 @@ import org.gradle.internal.TimeProvider;
 import org.gradle.internal.TrueTimeProvider;
 import org.gradle.internal.classloader.ClassLoaderFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.id.IdGenerator;
 import org.gradle.internal.id.LongIdGenerator;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.service.DefaultServiceRegistry;
@@ -79,6 +81,7 @@ import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.plugin.use.internal.PluginRequestApplicator;
 import org.gradle.process.internal.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.WorkerProcessPool;
 import org.gradle.process.internal.child.WorkerProcessClassPathProvider;
 import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ProfileListener;
@@ -171,6 +174,14 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         return new LifecycleProjectEvaluator(withActionsEvaluator, projectFinalizer);
     }
 
+    protected GeneratedBytecodeCache createGeneratedBytecodeCache(CacheRepository cacheRepository) {
+        return new PersistentGeneratedBytecodeCache(cacheRepository);
+    }
+
+    protected ClassGenerator createClassGenerator(GeneratedBytecodeCache bytecodeCache) {
+        return new AsmBackedClassGenerator(bytecodeCache);
+    }
+
     protected ITaskFactory createITaskFactory() {
         return new DependencyAutoWireTaskFactory(
                 new AnnotationProcessingTaskFactory(
@@ -180,13 +191,15 @@ public class BuildScopeServices extends DefaultServiceRegistry {
         );
     }
 
-    protected ScriptCompilerFactory createScriptCompileFactory(ListenerManager listenerManager, EmptyScriptGenerator emptyScriptGenerator, FileCacheBackedScriptClassCompiler scriptCompiler) {
+    protected ScriptCompilerFactory createScriptCompileFactory(ListenerManager listenerManager, EmptyScriptGenerator emptyScriptGenerator, FileCacheBackedScriptClassCompiler scriptCompiler,
+                                                               CrossBuildScriptClassCache crossBuildScriptClassCache, StartParameter startParameter) {
         ScriptExecutionListener scriptExecutionListener = listenerManager.getBroadcaster(ScriptExecutionListener.class);
         return new DefaultScriptCompilerFactory(
                 new CachingScriptClassCompiler(
                         new ShortCircuitEmptyScriptCompiler(
                                 scriptCompiler,
-                                emptyScriptGenerator)
+                                emptyScriptGenerator),
+                        startParameter.isRecompileScripts() ? null : crossBuildScriptClassCache
                 ),
                 new DefaultScriptRunnerFactory(
                         scriptExecutionListener)
@@ -268,17 +281,23 @@ public class BuildScopeServices extends DefaultServiceRegistry {
     }
 
     protected Factory<WorkerProcessBuilder> createWorkerProcessFactory(StartParameter startParameter, MessagingServer messagingServer, ClassPathRegistry classPathRegistry,
-                                                                       FileResolver fileResolver) {
+                                                                       FileResolver fileResolver, ExecutorFactory executorFactory) {
+        int spareWorkerProcesses = Integer.getInteger(DefaultWorkerProcessFactory.SPARE_WORKER_PROCESSES_PROPERTY, 0);
+        // Pooled processes are given ids by the pool, so share the id generator with the pool
+        IdGenerator<Long> idGenerator = new LongIdGenerator();
+        WorkerProcessPool workerProcessPool = spareWorkerProcesses > 0 ? new WorkerProcessPool(spareWorkerProcesses, fileResolver, idGenerator, executorFactory) : null;
         return new DefaultWorkerProcessFactory(
                 startParameter.getLogLevel(),
                 messagingServer,
                 classPathRegistry,
                 fileResolver,
-                new LongIdGenerator());
+                idGenerator,
+                workerProcessPool);
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, ExecutorFactory executorFactory) {
+        boolean parallelConfiguration = Boolean.getBoolean(TaskPathProjectEvaluator.PARALLEL_CONFIGURATION_PROPERTY);
+        return new TaskPathProjectEvaluator(cancellationToken, parallelConfiguration ? executorFactory : null);
     }
 
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
@@ -29,6 +29,7 @@ import org.gradle.cache.internal.*;
 import org.gradle.cache.internal.locklistener.DefaultFileLockContentionHandler;
 import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
 import org.gradle.cli.CommandLineConverter;
+import org.gradle.groovy.scripts.internal.CrossBuildScriptClassCache;
 import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.initialization.DefaultClassLoaderRegistry;
 import org.gradle.initialization.DefaultCommandLineConverter;
@@ -180,6 +181,10 @@ public class GlobalScopeServices {
         return new ClassLoaderCacheFactory();
     }
 
+    CrossBuildScriptClassCache createCrossBuildScriptClassCache() {
+        return new CrossBuildScriptClassCache();
+    }
+
     protected ModelSchemaStore createModelSchemaStore() {
         return DefaultModelSchemaStore.getInstance();
     }
@@ -41,16 +41,22 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
     }
 
     public void add(Dispatch<MethodInvocation> dispatch) {
-        handlers.put(dispatch, dispatch);
+        synchronized (handlers) {
+            handlers.put(dispatch, dispatch);
+        }
     }
 
     public void add(T listener) {
-        handlers.put(listener, new ReflectionDispatch(listener));
+        synchronized (handlers) {
+            handlers.put(listener, new ReflectionDispatch(listener));
+        }
     }
 
     public void add(String methodName, Action<?> action) {
         assertIsMethod(methodName);
-        handlers.put(action, new ActionInvocationHandler(methodName, action));
+        synchronized (handlers) {
+            handlers.put(action, new ActionInvocationHandler(methodName, action));
+        }
     }
 
     private void assertIsMethod(String methodName) {
@@ -64,11 +70,15 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
     }
 
     public void remove(Object listener) {
-        handlers.remove(listener);
+        synchronized (handlers) {
+            handlers.remove(listener);
+        }
     }
 
     public void removeAll() {
-        handlers.clear();
+        synchronized (handlers) {
+            handlers.clear();
+        }
     }
 
     private String getErrorMessage() {
@@ -77,8 +87,13 @@ public class BroadcastDispatch<T> implements Dispatch<MethodInvocation> {
     }
 
     public void dispatch(MethodInvocation invocation) {
+        List<Dispatch<MethodInvocation>> handlers;
+        synchronized (this.handlers) {
+            // Listeners may be added and events dispatched by several threads, e.g. when projects are configured concurrently
+            handlers = new ArrayList<Dispatch<MethodInvocation>>(this.handlers.values());
+        }
         List<Throwable> failures = new ArrayList<Throwable>();
-        for (Dispatch<MethodInvocation> handler : new ArrayList<Dispatch<MethodInvocation>>(handlers.values())) {
+        for (Dispatch<MethodInvocation> handler : handlers) {
             try {
                 handler.dispatch(invocation);
             } catch (UncheckedException e) {
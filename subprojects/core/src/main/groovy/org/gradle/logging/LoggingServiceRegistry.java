@@ -133,6 +133,9 @@ public abstract class LoggingServiceRegistry extends DefaultServiceRegistry {
         protected OutputEventRenderer createOutputEventRenderer() {
             OutputEventRenderer renderer = new OutputEventRenderer(new ConsoleConfigureAction());
             renderer.attachSystemOutAndErr();
+            if (Boolean.getBoolean(OutputEventRenderer.ASYNC_RENDERING_PROPERTY)) {
+                renderer.startAsyncRendering();
+            }
             return renderer;
         }
     }
@@ -15,23 +15,61 @@
  */
 package org.gradle.logging.internal;
 
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.logging.internal.progress.ProgressOperation;
 import org.gradle.logging.internal.progress.ProgressOperations;
 
-public class ConsoleBackedProgressRenderer implements OutputEventListener {
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Renders the status of the most recently updated operation in the status bar of a console.
+ *
+ * <p>When a minimum update period is given, the status bar is updated at most once per period, with the latest status. The status bar is updated
+ * straight away when no update has been made during the current period, or when there are no more operations in progress. Any other update is
+ * deferred to the end of the period.</p>
+ *
+ * <p>Deferred updates are rendered by a timer thread, while holding the given lock. The lock must be the one held by any other thread that writes to
+ * the console. The timer thread is discarded when there are no more operations in progress, or when this renderer is stopped.</p>
+ */
+public class ConsoleBackedProgressRenderer implements OutputEventListener, Stoppable {
+    private final Object lock;
     private final OutputEventListener listener;
     private final Console console;
     private final ProgressOperations operations = new ProgressOperations();
     private final DefaultStatusBarFormatter statusBarFormatter;
+    private final long updatePeriodMillis;
+    private final TimeProvider timeProvider;
     private Label statusBar;
+    private ProgressOperation pendingOperation;
+    private boolean updatePending;
+    private boolean updateScheduled;
+    private long lastUpdate;
+    private Timer timer;
 
     public ConsoleBackedProgressRenderer(OutputEventListener listener, Console console, DefaultStatusBarFormatter statusBarFormatter) {
+        this(listener, console, statusBarFormatter, 0, new TrueTimeProvider(), new Object());
+    }
+
+    public ConsoleBackedProgressRenderer(OutputEventListener listener, Console console, DefaultStatusBarFormatter statusBarFormatter, long updatePeriodMillis, TimeProvider timeProvider,
+                                         Object consoleLock) {
+        this.lock = consoleLock;
         this.listener = listener;
         this.console = console;
         this.statusBarFormatter = statusBarFormatter;
+        this.updatePeriodMillis = updatePeriodMillis;
+        this.timeProvider = timeProvider;
     }
 
     public void onOutput(OutputEvent event) {
+        synchronized (lock) {
+            doOutput(event);
+        }
+    }
+
+    private void doOutput(OutputEvent event) {
         try {
             if (event instanceof ProgressStartEvent) {
                 ProgressStartEvent startEvent = (ProgressStartEvent) event;
@@ -52,10 +90,64 @@ public class ConsoleBackedProgressRenderer implements OutputEventListener {
         }
     }
 
+    public void stop() {
+        synchronized (lock) {
+            cancelTimer();
+        }
+    }
+
     private void updateText(ProgressOperation op) {
+        pendingOperation = op;
+        updatePending = true;
+        long now = timeProvider.getCurrentTime();
+        long nextUpdate = lastUpdate + updatePeriodMillis;
+        if (op == null) {
+            renderPendingUpdate(now);
+            cancelTimer();
+        } else if (now >= nextUpdate) {
+            renderPendingUpdate(now);
+        } else if (!updateScheduled) {
+            updateScheduled = true;
+            if (timer == null) {
+                timer = new Timer("Status bar updater", true);
+            }
+            final Timer owner = timer;
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    synchronized (lock) {
+                        if (timer != owner) {
+                            // Cancelled since this update was scheduled
+                            return;
+                        }
+                        updateScheduled = false;
+                        renderPendingUpdate(timeProvider.getCurrentTime());
+                    }
+                }
+            }, nextUpdate - now);
+        }
+    }
+
+    // Called under lock
+    private void cancelTimer() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        updateScheduled = false;
+    }
+
+    // Called under lock
+    private void renderPendingUpdate(long now) {
+        if (!updatePending) {
+            return;
+        }
         if (statusBar == null) {
             statusBar = console.getStatusBar();
         }
-        statusBar.setText(statusBarFormatter.format(op));
+        statusBar.setText(statusBarFormatter.format(pendingOperation));
+        updatePending = false;
+        pendingOperation = null;
+        lastUpdate = now;
     }
 }
@@ -19,6 +19,8 @@ import net.jcip.annotations.ThreadSafe;
 import org.gradle.api.Action;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.StandardOutputListener;
+import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData;
 import org.gradle.internal.nativeintegration.console.FallbackConsoleMetaData;
 import org.gradle.listener.ListenerBroadcast;
@@ -26,18 +28,32 @@ import org.gradle.logging.ConsoleOutput;
 
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A {@link org.gradle.logging.internal.OutputEventListener} implementation which renders output events to various
  * destinations. This implementation is thread-safe.
+ *
+ * <p>By default, events are rendered by the thread that generates them. When asynchronous rendering is started, events are instead queued and
+ * rendered by a dedicated thread, in the order in which they were queued. Error events and changes to the destinations wait for all queued
+ * events to be rendered.</p>
  */
 @ThreadSafe
 public class OutputEventRenderer implements OutputEventListener, LoggingConfigurer, LoggingOutputInternal {
+    public static final String ASYNC_RENDERING_PROPERTY = "org.gradle.logging.async";
+    // Repaint the status bar at most 10 times a second, however many progress events there are
+    private static final long STATUS_BAR_UPDATE_PERIOD_MILLIS = 100;
     private final ListenerBroadcast<OutputEventListener> stdOutAndErrorFormatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<OutputEventListener> formatters = new ListenerBroadcast<OutputEventListener>(OutputEventListener.class);
     private final ListenerBroadcast<StandardOutputListener> stdoutListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final ListenerBroadcast<StandardOutputListener> stderrListeners = new ListenerBroadcast<StandardOutputListener>(StandardOutputListener.class);
     private final Object lock = new Object();
+    private final List<ConsoleBackedProgressRenderer> consoleRenderers = new ArrayList<ConsoleBackedProgressRenderer>();
     private final DefaultColorMap colourMap = new DefaultColorMap();
     private LogLevel logLevel = LogLevel.LIFECYCLE;
     private final Action<? super OutputEventRenderer> consoleConfigureAction;
@@ -46,6 +62,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     private StreamBackedStandardOutputListener stdOutListener;
     private StreamBackedStandardOutputListener stdErrListener;
     private ConsoleOutput consoleOutput;
+    private volatile AsyncRenderer asyncRenderer;
 
     public OutputEventRenderer(Action<? super OutputEventRenderer> consoleConfigureAction) {
         OutputEventListener stdOutChain = onNonError(new ProgressLogEventGenerator(new StyledTextOutputBackedRenderer(new StreamingStyledTextOutput(stdoutListeners.getSource())), false));
@@ -70,6 +87,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void attachProcessConsole(ConsoleOutput consoleOutput) {
+        flush();
         synchronized (lock) {
             this.consoleOutput = consoleOutput;
             consoleConfigureAction.execute(this);
@@ -77,6 +95,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void attachAnsiConsole(OutputStream outputStream) {
+        flush();
         synchronized (lock) {
             OutputStreamWriter writer = new OutputStreamWriter(outputStream);
             Console console = new AnsiConsole(writer, writer, colourMap, true);
@@ -90,6 +109,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     private void addStandardOutputListener() {
+        flush();
         synchronized (lock) {
             originalStdOut = System.out;
             if (stdOutListener != null) {
@@ -101,6 +121,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     private void addStandardErrorListener() {
+        flush();
         synchronized (lock) {
             originalStdErr = System.err;
             if(stdErrListener != null) {
@@ -117,6 +138,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     private void removeStandardOutputListener() {
+        flush();
         synchronized (lock) {
             if (stdOutListener != null) {
                 stdoutListeners.remove(stdOutListener);
@@ -126,6 +148,7 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     private void removeStandardErrorListener() {
+        flush();
         synchronized (lock) {
             if(stdErrListener != null) {
                 stderrListeners.remove(stdErrListener);
@@ -135,30 +158,43 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addOutputEventListener(OutputEventListener listener) {
+        flush();
         synchronized (lock) {
             formatters.add(listener);
         }
     }
 
     public void removeOutputEventListener(OutputEventListener listener) {
+        flush();
         synchronized (lock) {
             formatters.remove(listener);
         }
     }
 
     public void removeAllOutputEventListeners() {
+        flush();
         synchronized (lock) {
             formatters.removeAll();
+            for (ConsoleBackedProgressRenderer consoleRenderer : consoleRenderers) {
+                consoleRenderer.stop();
+            }
+            consoleRenderers.clear();
         }
     }
 
     public OutputEventRenderer addConsole(Console console, boolean stdout, boolean stderr, ConsoleMetaData consoleMetaData) {
-        final OutputEventListener consoleChain = new ConsoleBackedProgressRenderer(
+        // The status bar is repainted using the same lock as all other writes to the console
+        final ConsoleBackedProgressRenderer consoleChain = new ConsoleBackedProgressRenderer(
                 new ProgressLogEventGenerator(
                         new StyledTextOutputBackedRenderer(console.getMainArea()), true),
                 console,
-                new DefaultStatusBarFormatter(consoleMetaData));
+                new DefaultStatusBarFormatter(consoleMetaData),
+                STATUS_BAR_UPDATE_PERIOD_MILLIS,
+                new TrueTimeProvider(),
+                lock);
+        flush();
         synchronized (lock) {
+            consoleRenderers.add(consoleChain);
             if (stdout && stderr) {
                 formatters.add(consoleChain);
                 removeStandardOutputAndError();
@@ -195,12 +231,14 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
     }
 
     public void addStandardErrorListener(StandardOutputListener listener) {
+        flush();
         synchronized (lock) {
             stderrListeners.add(listener);
         }
     }
 
     public void addStandardOutputListener(StandardOutputListener listener) {
+        flush();
         synchronized (lock) {
             stdoutListeners.add(listener);
         }
@@ -216,22 +254,73 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
 
 
     public void removeStandardOutputListener(StandardOutputListener listener) {
+        flush();
         synchronized (lock) {
             stdoutListeners.remove(listener);
         }
     }
 
     public void removeStandardErrorListener(StandardOutputListener listener) {
+        flush();
         synchronized (lock) {
             stderrListeners.remove(listener);
         }
     }
 
+    /**
+     * Starts rendering events on a dedicated thread. Does nothing when already started.
+     */
+    public void startAsyncRendering() {
+        synchronized (lock) {
+            if (asyncRenderer == null) {
+                asyncRenderer = new AsyncRenderer();
+                asyncRenderer.start();
+            }
+        }
+    }
+
+    /**
+     * Renders any queued events and goes back to rendering events on the thread that generates them.
+     */
+    public void stopAsyncRendering() {
+        AsyncRenderer renderer;
+        synchronized (lock) {
+            renderer = asyncRenderer;
+            asyncRenderer = null;
+        }
+        if (renderer != null) {
+            renderer.stop();
+        }
+    }
+
+    /**
+     * Blocks until all events generated so far have been rendered.
+     */
+    public void flush() {
+        AsyncRenderer renderer = asyncRenderer;
+        // The rendering thread cannot make progress while the lock is held
+        if (renderer != null && !Thread.holdsLock(lock)) {
+            renderer.flush();
+        }
+    }
+
     public void configure(LogLevel logLevel) {
         onOutput(new LogLevelChangeEvent(logLevel));
     }
 
     public void onOutput(OutputEvent event) {
+        AsyncRenderer renderer = asyncRenderer;
+        if (renderer != null && renderer.submit(event)) {
+            if (event.getLogLevel() == LogLevel.ERROR) {
+                // Make sure failures have been written before the caller carries on, as it may be about to exit
+                renderer.flush();
+            }
+            return;
+        }
+        render(event);
+    }
+
+    private void render(OutputEvent event) {
         synchronized (lock) {
             if (event.getLogLevel() != null && event.getLogLevel().compareTo(logLevel) < 0) {
                 return;
@@ -248,4 +337,129 @@ public class OutputEventRenderer implements OutputEventListener, LoggingConfigur
             formatters.getSource().onOutput(event);
         }
     }
+
+    private class AsyncRenderer implements Runnable {
+        private static final int MAX_QUEUED_EVENTS = 10000;
+        private final BlockingQueue<OutputEvent> queue = new LinkedBlockingQueue<OutputEvent>(MAX_QUEUED_EVENTS);
+        private final AtomicLong submitted = new AtomicLong();
+        private final Object renderedLock = new Object();
+        private final Thread thread;
+        private final Thread shutdownHook;
+        private long rendered;
+        private Throwable failure;
+        private volatile boolean stopped;
+
+        AsyncRenderer() {
+            thread = new Thread(this, "Output event renderer");
+            thread.setDaemon(true);
+            shutdownHook = new Thread(new Runnable() {
+                public void run() {
+                    awaitRendered(submitted.get(), TimeUnit.SECONDS.toMillis(5));
+                }
+            }, "Output event renderer shutdown");
+        }
+
+        void start() {
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        }
+
+        void stop() {
+            flush();
+            stopped = true;
+            thread.interrupt();
+            try {
+                thread.join();
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (IllegalStateException e) {
+                // Already shutting down
+            }
+            // Render anything queued by threads that raced with the stop
+            OutputEvent event;
+            while ((event = queue.poll()) != null) {
+                render(event);
+            }
+        }
+
+        /**
+         * Queues the given event, blocking while the queue is full. Returns false when the event should be rendered by the calling thread instead.
+         */
+        boolean submit(OutputEvent event) {
+            if (stopped || Thread.currentThread() == thread) {
+                return false;
+            }
+            submitted.incrementAndGet();
+            try {
+                queue.put(event);
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return true;
+        }
+
+        void flush() {
+            if (Thread.currentThread() == thread) {
+                return;
+            }
+            Throwable renderFailure = awaitRendered(submitted.get(), 0);
+            if (renderFailure != null) {
+                throw UncheckedException.throwAsUncheckedException(renderFailure);
+            }
+        }
+
+        /**
+         * Waits for the given number of events to have been rendered and returns the first rendering failure since the last call, if any.
+         */
+        private Throwable awaitRendered(long count, long timeoutMillis) {
+            long expiry = System.currentTimeMillis() + timeoutMillis;
+            synchronized (renderedLock) {
+                while (rendered < count && thread.isAlive()) {
+                    long remaining = timeoutMillis == 0 ? 0 : expiry - System.currentTimeMillis();
+                    if (timeoutMillis != 0 && remaining <= 0) {
+                        break;
+                    }
+                    try {
+                        renderedLock.wait(remaining);
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                Throwable result = failure;
+                failure = null;
+                return result;
+            }
+        }
+
+        public void run() {
+            List<OutputEvent> events = new ArrayList<OutputEvent>();
+            while (!stopped || !queue.isEmpty()) {
+                try {
+                    events.add(queue.take());
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                queue.drainTo(events);
+                Throwable renderFailure = null;
+                for (OutputEvent event : events) {
+                    try {
+                        render(event);
+                    } catch (Throwable t) {
+                        if (renderFailure == null) {
+                            renderFailure = t;
+                        }
+                    }
+                }
+                synchronized (renderedLock) {
+                    rendered += events.size();
+                    if (renderFailure != null && failure == null) {
+                        failure = renderFailure;
+                    }
+                    renderedLock.notifyAll();
+                }
+                events.clear();
+            }
+        }
+    }
 }
@@ -146,6 +146,10 @@ public abstract class AbstractExecHandleBuilder extends DefaultProcessForkOption
         return this;
     }
 
+    public boolean isRedirectErrorStream() {
+        return redirectErrorStream;
+    }
+
     public AbstractExecHandleBuilder setTimeout(int timeoutMillis) {
         this.timeoutMillis = timeoutMillis;
         return this;
@@ -128,7 +128,12 @@ public class DefaultWorkerProcess implements WorkerProcess {
             lock.unlock();
         }
 
-        execHandle.start();
+        if (execHandle.getState() == ExecHandleState.INIT) {
+            execHandle.start();
+        } else if (execHandle.getState() != ExecHandleState.STARTED) {
+            // A process started ahead of time that has since finished
+            throw new ExecException(format("Process '%s' finished before the worker could be started in it.", execHandle));
+        }
 
         Date connectExpiry = new Date(System.currentTimeMillis() + connectTimeout);
         lock.lock();
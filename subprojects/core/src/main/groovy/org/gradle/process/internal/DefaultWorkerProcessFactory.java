@@ -22,6 +22,8 @@ import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.internal.Factory;
 import org.gradle.internal.classloader.ClasspathUtil;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.messaging.remote.Address;
 import org.gradle.messaging.remote.ConnectionAcceptor;
@@ -42,28 +44,44 @@ import java.net.URL;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder> {
+public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder>, Stoppable {
+    /**
+     * The number of worker processes to start ahead of time for each worker command line. Zero, the default, disables the pool.
+     */
+    public static final String SPARE_WORKER_PROCESSES_PROPERTY = "org.gradle.workers.spare";
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultWorkerProcessFactory.class);
     private final LogLevel workerLogLevel;
     private final MessagingServer server;
     private final ClassPathRegistry classPathRegistry;
     private final FileResolver resolver;
     private final IdGenerator<?> idGenerator;
+    private final WorkerProcessPool workerProcessPool;
 
     public DefaultWorkerProcessFactory(LogLevel workerLogLevel, MessagingServer server,
                                        ClassPathRegistry classPathRegistry, FileResolver resolver,
                                        IdGenerator<?> idGenerator) {
+        this(workerLogLevel, server, classPathRegistry, resolver, idGenerator, null);
+    }
+
+    public DefaultWorkerProcessFactory(LogLevel workerLogLevel, MessagingServer server,
+                                       ClassPathRegistry classPathRegistry, FileResolver resolver,
+                                       IdGenerator<?> idGenerator, WorkerProcessPool workerProcessPool) {
         this.workerLogLevel = workerLogLevel;
         this.server = server;
         this.classPathRegistry = classPathRegistry;
         this.resolver = resolver;
         this.idGenerator = idGenerator;
+        this.workerProcessPool = workerProcessPool;
     }
 
     public WorkerProcessBuilder create() {
         return new DefaultWorkerProcessBuilder();
     }
 
+    public void stop() {
+        CompositeStoppable.stoppable(workerProcessPool).stop();
+    }
+
     private class DefaultWorkerProcessBuilder extends WorkerProcessBuilder {
         public DefaultWorkerProcessBuilder() {
             super(resolver);
@@ -90,14 +108,7 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
             Object id = idGenerator.generateId();
             String displayName = getBaseName() + " " + id;
 
-            WorkerFactory workerFactory;
-            if (isLoadApplicationInSystemClassLoader()) {
-                workerFactory = new ApplicationClassesInSystemClassLoaderWorkerFactory(id, displayName, this,
-                        implementationClassPath, localAddress, classPathRegistry);
-            } else {
-                workerFactory = new ApplicationClassesInIsolatedClassLoaderWorkerFactory(id, displayName, this,
-                        implementationClassPath, localAddress, classPathRegistry);
-            }
+            WorkerFactory workerFactory = createWorkerFactory(id, displayName, implementationClassPath, localAddress);
 
             LOGGER.debug("Creating {}", displayName);
             LOGGER.debug("Using application classpath {}", getApplicationClasspath());
@@ -106,15 +117,35 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
             JavaExecHandleBuilder javaCommand = getJavaCommand();
             attachStdInContent(workerFactory, javaCommand);
             workerFactory.prepareJavaCommand(javaCommand);
-            javaCommand.setDisplayName(displayName);
-            javaCommand.args("'" + displayName + "'");
-            ExecHandle execHandle = javaCommand.build();
+            ExecHandle execHandle = null;
+            WorkerProcessPool.PooledProcess pooledProcess = workerProcessPool == null ? null : workerProcessPool.acquire(getBaseName(), javaCommand);
+            if (pooledProcess != null) {
+                // The pooled process was started with its own id and display name, so the worker takes them on
+                WorkerFactory pooledWorkerFactory = createWorkerFactory(pooledProcess.getId(), pooledProcess.getDisplayName(), implementationClassPath, localAddress);
+                JavaExecHandleBuilder pooledCommand = new JavaExecHandleBuilder(resolver);
+                attachStdInContent(pooledWorkerFactory, pooledCommand);
+                pooledWorkerFactory.prepareJavaCommand(pooledCommand);
+                execHandle = pooledProcess.connect(pooledCommand.getStandardInput(), javaCommand.getStandardOutput(), javaCommand.getErrorOutput());
+            } else {
+                javaCommand.setDisplayName(displayName);
+                javaCommand.args("'" + displayName + "'");
+                execHandle = javaCommand.build();
+            }
 
             workerProcess.setExecHandle(execHandle);
 
             return workerProcess;
         }
 
+        private WorkerFactory createWorkerFactory(Object id, String displayName, List<URL> implementationClassPath, Address localAddress) {
+            if (isLoadApplicationInSystemClassLoader()) {
+                return new ApplicationClassesInSystemClassLoaderWorkerFactory(id, displayName, this,
+                        implementationClassPath, localAddress, classPathRegistry);
+            }
+            return new ApplicationClassesInIsolatedClassLoaderWorkerFactory(id, displayName, this,
+                    implementationClassPath, localAddress, classPathRegistry);
+        }
+
         private void attachStdInContent(WorkerFactory workerFactory, JavaExecHandleBuilder javaCommand) {
             ByteArrayOutputStream bytes = new ByteArrayOutputStream();
             OutputStream encoded = new EncodedStream.EncodedOutput(bytes);
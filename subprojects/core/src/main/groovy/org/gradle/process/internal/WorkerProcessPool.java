@@ -0,0 +1,371 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal;
+
+import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.id.IdGenerator;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * A pool of worker processes that are started before they are needed.
+ *
+ * <p>A process in the pool is started with the command line of a worker, and the JVM starts up while it waits for the worker to be written to its
+ * standard input. When a worker is requested, an idle process started with the same command line, working directory, environment and exit value and
+ * error stream handling is used, if there is one, and replacements for it are started in the background. Any idle processes are killed when the pool is
+ * stopped.</p>
+ *
+ * <p>Each process is started with its own id and display name, which the worker that uses it takes on. The output of a process is held back until
+ * the process is handed out, and is then written to the output streams of the worker.</p>
+ */
+public class WorkerProcessPool implements Stoppable {
+    private static final Logger LOGGER = Logging.getLogger(WorkerProcessPool.class);
+    private final int spareProcesses;
+    private final FileResolver resolver;
+    private final IdGenerator<?> idGenerator;
+    private final StoppableExecutor executor;
+    private final Object lock = new Object();
+    private final Map<List<Object>, WorkerCommand> commands = new HashMap<List<Object>, WorkerCommand>();
+    private boolean stopped;
+
+    /**
+     * @param spareProcesses The number of idle processes to keep for each worker command line.
+     */
+    public WorkerProcessPool(int spareProcesses, FileResolver resolver, IdGenerator<?> idGenerator, ExecutorFactory executorFactory) {
+        this.spareProcesses = spareProcesses;
+        this.resolver = resolver;
+        this.idGenerator = idGenerator;
+        this.executor = executorFactory.create("Start worker processes");
+    }
+
+    /**
+     * Returns a started process for the given command, or null if there is no idle process for it. The input and output of the returned process are
+     * connected using {@link PooledProcess#connect}.
+     *
+     * @param baseName The base name of the worker. The display name of a process is made of this name and the id of the process.
+     */
+    public PooledProcess acquire(String baseName, JavaExecHandleBuilder javaCommand) {
+        List<String> commandLine = javaCommand.getCommandLine();
+        File workingDir = javaCommand.getWorkingDir();
+        Map<String, String> environment = javaCommand.getActualEnvironment();
+        boolean redirectErrorStream = javaCommand.isRedirectErrorStream();
+        boolean ignoreExitValue = javaCommand.isIgnoreExitValue();
+        List<Object> key = Arrays.<Object>asList(baseName, commandLine, workingDir, environment, redirectErrorStream, ignoreExitValue);
+
+        IdleProcess process = null;
+        List<IdleProcess> finished = new ArrayList<IdleProcess>();
+        final WorkerCommand command;
+        int toStart;
+        synchronized (lock) {
+            if (stopped) {
+                return null;
+            }
+            WorkerCommand existing = commands.get(key);
+            if (existing == null) {
+                existing = new WorkerCommand(baseName, commandLine, workingDir, environment, redirectErrorStream, ignoreExitValue);
+                commands.put(key, existing);
+            }
+            command = existing;
+            while (process == null && !command.idle.isEmpty()) {
+                IdleProcess candidate = command.idle.removeFirst();
+                if (candidate.handle.getState() == ExecHandleState.STARTED) {
+                    process = candidate;
+                } else {
+                    finished.add(candidate);
+                }
+            }
+            toStart = Math.max(0, spareProcesses - command.idle.size() - command.starting);
+            command.starting += toStart;
+        }
+
+        for (IdleProcess idleProcess : finished) {
+            idleProcess.stop();
+        }
+        for (int i = 0; i < toStart; i++) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    start(command);
+                }
+            });
+        }
+
+        if (process == null) {
+            return null;
+        }
+        LOGGER.debug("Using idle process {} for {}.", process.handle, baseName);
+        return process;
+    }
+
+    private void start(WorkerCommand command) {
+        Object id = idGenerator.generateId();
+        String displayName = command.baseName + " " + id;
+        PendingInputStream input = new PendingInputStream();
+        PendingOutputStream output = new PendingOutputStream();
+        PendingOutputStream errorOutput = new PendingOutputStream();
+        ExecHandle handle = null;
+        try {
+            ExecHandleBuilder builder = new ExecHandleBuilder(resolver);
+            builder.commandLine(command.commandLine);
+            builder.args("'" + displayName + "'");
+            builder.setWorkingDir(command.workingDir);
+            builder.setEnvironment(command.environment);
+            builder.setDisplayName(displayName);
+            builder.setIgnoreExitValue(command.ignoreExitValue);
+            if (command.redirectErrorStream) {
+                builder.redirectErrorStream();
+            }
+            builder.setStandardInput(input);
+            builder.setStandardOutput(output);
+            builder.setErrorOutput(errorOutput);
+            handle = builder.build();
+            handle.start();
+        } catch (Throwable t) {
+            // The worker will be started on demand instead, which reports the failure
+            LOGGER.debug(String.format("Could not start idle process for %s.", command.baseName), t);
+            handle = null;
+        }
+
+        IdleProcess process = handle == null ? null : new IdleProcess(id, displayName, handle, input, output, errorOutput);
+        boolean added = false;
+        synchronized (lock) {
+            command.starting--;
+            if (process != null && !stopped) {
+                command.idle.add(process);
+                added = true;
+            }
+        }
+        if (process != null && !added) {
+            process.stop();
+        }
+    }
+
+    public void stop() {
+        List<IdleProcess> processes = new ArrayList<IdleProcess>();
+        synchronized (lock) {
+            stopped = true;
+            for (WorkerCommand command : commands.values()) {
+                processes.addAll(command.idle);
+            }
+            commands.clear();
+        }
+        executor.stop();
+        for (IdleProcess process : processes) {
+            process.stop();
+        }
+    }
+
+    /**
+     * A process handed out by the pool.
+     */
+    public interface PooledProcess {
+        /**
+         * The id of the process, which the worker that uses it should take on.
+         */
+        Object getId();
+
+        /**
+         * The display name of the process, which the worker that uses it should take on.
+         */
+        String getDisplayName();
+
+        /**
+         * Forwards the given input to the process, and any output of the process to the given streams.
+         */
+        ExecHandle connect(InputStream standardInput, OutputStream standardOutput, OutputStream errorOutput);
+    }
+
+    private static class WorkerCommand {
+        final String baseName;
+        final List<String> commandLine;
+        final File workingDir;
+        final Map<String, String> environment;
+        final boolean redirectErrorStream;
+        final boolean ignoreExitValue;
+        final LinkedList<IdleProcess> idle = new LinkedList<IdleProcess>();
+        int starting;
+
+        WorkerCommand(String baseName, List<String> commandLine, File workingDir, Map<String, String> environment, boolean redirectErrorStream,
+                      boolean ignoreExitValue) {
+            this.baseName = baseName;
+            this.commandLine = commandLine;
+            this.workingDir = workingDir;
+            this.environment = environment;
+            this.redirectErrorStream = redirectErrorStream;
+            this.ignoreExitValue = ignoreExitValue;
+        }
+    }
+
+    private static class IdleProcess implements PooledProcess {
+        final Object id;
+        final String displayName;
+        final ExecHandle handle;
+        final PendingInputStream input;
+        final PendingOutputStream output;
+        final PendingOutputStream errorOutput;
+
+        IdleProcess(Object id, String displayName, ExecHandle handle, PendingInputStream input, PendingOutputStream output, PendingOutputStream errorOutput) {
+            this.id = id;
+            this.displayName = displayName;
+            this.handle = handle;
+            this.input = input;
+            this.output = output;
+            this.errorOutput = errorOutput;
+        }
+
+        public Object getId() {
+            return id;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public ExecHandle connect(InputStream standardInput, OutputStream standardOutput, OutputStream errorOutput) {
+            this.output.connect(standardOutput);
+            this.errorOutput.connect(errorOutput);
+            input.connect(standardInput);
+            return handle;
+        }
+
+        void stop() {
+            // Kill the process rather than closing its input, as the worker reports an unexpected end of input as a failure
+            if (handle.getState() == ExecHandleState.STARTED) {
+                handle.abort();
+            }
+            handle.waitForFinish();
+        }
+    }
+
+    /**
+     * An input stream that blocks until its content has been provided.
+     */
+    private static class PendingInputStream extends InputStream {
+        private final Object lock = new Object();
+        private InputStream content;
+        private boolean closed;
+
+        void connect(InputStream content) {
+            synchronized (lock) {
+                this.content = content;
+                lock.notifyAll();
+            }
+        }
+
+        private InputStream awaitContent() {
+            synchronized (lock) {
+                while (content == null && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                return closed ? null : content;
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            InputStream input = awaitContent();
+            return input == null ? -1 : input.read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            InputStream input = awaitContent();
+            return input == null ? -1 : input.read(buffer, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            InputStream input;
+            synchronized (lock) {
+                closed = true;
+                input = content;
+                lock.notifyAll();
+            }
+            if (input != null) {
+                input.close();
+            }
+        }
+    }
+
+    /**
+     * An output stream that holds on to its content until its destination has been provided.
+     */
+    private static class PendingOutputStream extends OutputStream {
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private OutputStream destination;
+        private boolean closed;
+
+        synchronized void connect(OutputStream destination) {
+            this.destination = destination;
+            try {
+                pending.writeTo(destination);
+                if (closed) {
+                    destination.close();
+                } else {
+                    destination.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            pending = null;
+        }
+
+        @Override
+        public synchronized void write(int b) throws IOException {
+            if (destination == null) {
+                pending.write(b);
+            } else {
+                destination.write(b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] buffer, int offset, int length) throws IOException {
+            if (destination == null) {
+                pending.write(buffer, offset, length);
+            } else {
+                destination.write(buffer, offset, length);
+            }
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            if (destination != null) {
+                destination.flush();
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closed = true;
+            if (destination != null) {
+                destination.close();
+            }
+        }
+    }
+}
@@ -39,7 +39,7 @@ public class ExecOutputHandleRunner implements Runnable {
     }
 
     public void run() {
-        byte[] buffer = new byte[2048];
+        byte[] buffer = new byte[8192];
         try {
             while (true) {
                 int nread = inputStream.read(buffer);
@@ -47,7 +47,10 @@ public class ExecOutputHandleRunner implements Runnable {
                     break;
                 }
                 outputStream.write(buffer, 0, nread);
-                outputStream.flush();
+                // Hand over whatever else has already arrived in the same write
+                if (inputStream.available() == 0) {
+                    outputStream.flush();
+                }
             }
             CompositeStoppable.stoppable(inputStream, outputStream).stop();
         } catch (Throwable t) {
@@ -96,7 +96,7 @@ public class BuildProfile {
      * Get the profiling container for the specified project
      * @param projectPath to look up
      */
-    public ProjectProfile getProjectProfile(String projectPath) {
+    public synchronized ProjectProfile getProjectProfile(String projectPath) {
         ProjectProfile result = projects.get(projectPath);
         if (result == null) {
             result = new ProjectProfile(projectPath);
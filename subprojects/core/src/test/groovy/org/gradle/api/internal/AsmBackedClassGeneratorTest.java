@@ -15,6 +15,7 @@
  */
 package org.gradle.api.internal;
 
+import com.google.common.io.ByteStreams;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
 import groovy.lang.MissingMethodException;
@@ -32,14 +33,13 @@ import spock.lang.Issue;
 
 import javax.inject.Inject;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.*;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.Callable;
 
 import static org.gradle.api.internal.AbstractClassGeneratorTestGroovy.BeanWithGroovyBoolean;
@@ -112,6 +112,26 @@ public class AsmBackedClassGeneratorTest {
         assertSame(generatedClass, generator.generate(generatedClass));
     }
 
+    @Test
+    public void reusesClassGeneratedByEarlierBuild() throws Exception {
+        MapBackedBytecodeCache bytecodeCache = new MapBackedBytecodeCache();
+
+        Class<?> generatedClass = new AsmBackedClassGenerator(bytecodeCache) { }.generate(loadIsolated(Bean.class));
+        assertThat(bytecodeCache.entries.size(), equalTo(1));
+        assertThat(bytecodeCache.hits, equalTo(0));
+
+        Class<?> reusedClass = new AsmBackedClassGenerator(bytecodeCache) { }.generate(loadIsolated(Bean.class));
+        assertThat(bytecodeCache.entries.size(), equalTo(1));
+        assertThat(bytecodeCache.hits, equalTo(1));
+        assertNotSame(generatedClass, reusedClass);
+        assertThat(reusedClass.getName(), equalTo(Bean.class.getName() + "_Decorated"));
+
+        GroovyObject bean = (GroovyObject) reusedClass.newInstance();
+        assertTrue(bean instanceof IConventionAware);
+        bean.setProperty("prop", "value");
+        assertThat(bean.getProperty("prop"), equalTo((Object) "value"));
+    }
+
     @Test
     public void overridesPublicConstructors() throws Exception {
         Class<? extends Bean> generatedClass = generator.generate(BeanWithConstructor.class);
@@ -323,6 +343,27 @@ public class AsmBackedClassGeneratorTest {
         }
     }
 
+    private static Class<?> loadIsolated(final Class<?> type) throws Exception {
+        InputStream inputStream = type.getClassLoader().getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        final byte[] classFile;
+        try {
+            classFile = ByteStreams.toByteArray(inputStream);
+        } finally {
+            inputStream.close();
+        }
+        ClassLoader classLoader = new ClassLoader(type.getClassLoader()) {
+            @Override
+            protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.equals(type.getName())) {
+                    return super.loadClass(name, resolve);
+                }
+                Class<?> loaded = findLoadedClass(name);
+                return loaded != null ? loaded : defineClass(name, classFile, 0, classFile.length);
+            }
+        };
+        return classLoader.loadClass(type.getName());
+    }
+
     @Test
     public void appliesConventionMappingToEachProperty() throws Exception {
         Class<? extends Bean> generatedClass = generator.generate(Bean.class);
@@ -1289,4 +1330,21 @@ public class AsmBackedClassGeneratorTest {
     )
     public static class AnnotatedBean {
     }
+
+    private static class MapBackedBytecodeCache implements GeneratedBytecodeCache {
+        final Map<String, byte[]> entries = new HashMap<String, byte[]>();
+        int hits;
+
+        public byte[] get(String key) {
+            byte[] bytecode = entries.get(key);
+            if (bytecode != null) {
+                hits++;
+            }
+            return bytecode;
+        }
+
+        public void put(String key, byte[] bytecode) {
+            entries.put(key, bytecode);
+        }
+    }
 }
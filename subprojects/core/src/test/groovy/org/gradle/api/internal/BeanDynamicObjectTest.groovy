@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal
+
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+class BeanDynamicObjectTest extends Specification {
+    def "does not hold strong reference to the types it has looked up"() {
+        given:
+        def cl = new GroovyClassLoader(getClass().classLoader)
+        lookUp(cl)
+
+        expect:
+        cachedTypes().contains("SomeThing")
+
+        when:
+        cl.clearCache()
+        cl = null
+
+        then:
+        new PollingConditions(timeout: 10).eventually {
+            System.gc()
+            BeanDynamicObject.CACHED_META_CLASSES.cleanUp()
+            !cachedTypes().contains("SomeThing")
+        }
+    }
+
+    private static List<String> cachedTypes() {
+        BeanDynamicObject.CACHED_META_CLASSES.asMap().keySet().collect { it.theClass.name }
+    }
+
+    private void lookUp(GroovyClassLoader cl) {
+        def bean = cl.parseClass("class SomeThing { String prop = 'value'; void doSomething() { } }").newInstance()
+        def dynamicObject = new BeanDynamicObject(bean)
+        assert dynamicObject.hasProperty("prop")
+        assert !dynamicObject.hasProperty("unknown")
+        assert dynamicObject.hasMethod("doSomething")
+        assert !dynamicObject.hasMethod("unknown")
+    }
+}
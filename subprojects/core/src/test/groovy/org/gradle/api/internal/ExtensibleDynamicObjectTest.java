@@ -385,6 +385,14 @@ public class ExtensibleDynamicObjectTest {
         }
     }
 
+    @Test
+    public void canGetPropertyImplementedByPropertyMissingMethod() {
+        Bean bean = new BeanWithPropertyMissing();
+
+        assertFalse(bean.hasProperty("unknown"));
+        assertThat(bean.getProperty("unknown"), equalTo((Object) "missing:unknown"));
+    }
+
     @Test
     public void extraPropertyWithNullValueIsNotTreatedAsUnknown() {
         Bean bean = new Bean();
@@ -645,6 +653,20 @@ public class ExtensibleDynamicObjectTest {
         assertThat(inherited.getProperties().get("parentProperty"), equalTo((Object) "value"));
     }
 
+    @Test
+    public void inheritedParentPropertiesTrackChanges() {
+        Bean parent = new Bean();
+        parent.defineProperty("parentProperty", "value");
+        Bean bean = new Bean();
+
+        DynamicObject inherited = bean.getInheritable();
+        assertFalse(inherited.hasProperty("parentProperty"));
+
+        bean.setParent(parent.getAsDynamicObject());
+        assertTrue(inherited.hasProperty("parentProperty"));
+        assertThat(inherited.getProperty("parentProperty"), equalTo((Object) "value"));
+    }
+
     @Test
     public void otherPropertiesAreNotInherited() {
         Bean bean = new Bean();
@@ -858,6 +880,12 @@ public class ExtensibleDynamicObjectTest {
     private static class DynamicJavaBean extends GroovyBean {
     }
 
+    public static class BeanWithPropertyMissing extends Bean {
+        public Object propertyMissing(String name) {
+            return "missing:" + name;
+        }
+    }
+
     private static class ConventionBean {
         private String conventionProperty;
 
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.cache
+
+import org.gradle.cache.CacheBuilder
+import org.gradle.cache.CacheRepository
+import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+class PersistentGeneratedBytecodeCacheTest extends Specification {
+    final indexedCache = Mock(PersistentIndexedCache)
+    final persistentCache = Mock(PersistentCache) {
+        createCache(_) >> indexedCache
+    }
+    final cacheBuilder = Stub(CacheBuilder) {
+        withDisplayName(_) >> { cacheBuilder }
+        withLockOptions(_) >> { cacheBuilder }
+        open() >> persistentCache
+    }
+    final cacheRepository = Stub(CacheRepository) {
+        cache("generated-classes") >> cacheBuilder
+    }
+    final cache = new PersistentGeneratedBytecodeCache(cacheRepository)
+
+    def "reads entries from the persistent cache"() {
+        def bytecode = [1, 2] as byte[]
+
+        when:
+        def result = cache.get("key")
+
+        then:
+        1 * persistentCache.useCache(_, _ as Factory) >> { String operation, Factory factory -> factory.create() }
+        1 * indexedCache.get("key") >> bytecode
+        result == bytecode
+    }
+
+    def "keeps new entries in memory until the cache is closed"() {
+        def bytecode1 = [1] as byte[]
+        def bytecode2 = [2] as byte[]
+
+        when:
+        cache.put("key1", bytecode1)
+        cache.put("key2", bytecode2)
+
+        then:
+        cache.get("key1") == bytecode1
+        0 * persistentCache._
+        0 * indexedCache._
+
+        when:
+        cache.close()
+
+        then:
+        1 * persistentCache.useCache(_, _ as Runnable) >> { String operation, Runnable action -> action.run() }
+        1 * indexedCache.put("key1", bytecode1)
+        1 * indexedCache.put("key2", bytecode2)
+        1 * persistentCache.close()
+    }
+
+    def "does not open the cache when it has not been used"() {
+        when:
+        cache.close()
+
+        then:
+        0 * persistentCache._
+    }
+}
@@ -17,6 +17,9 @@ package org.gradle.api.internal.changedetection.state
 
 import org.gradle.api.file.FileCollection
 import org.gradle.api.file.FileTree
+import org.gradle.api.internal.file.archive.ZipFileTree
+import org.gradle.api.internal.file.collections.FileTreeAdapter
+import org.gradle.cache.PersistentIndexedCache
 import org.gradle.internal.hash.HashUtil
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -27,7 +30,8 @@ import spock.lang.Specification
 public class DefaultFileCollectionSnapshotterTest extends Specification {
     def fileSnapshotter = Stub(FileSnapshotter)
     def cacheAccess = Stub(TaskArtifactStateCacheAccess)
-    def snapshotter = new DefaultFileCollectionSnapshotter(fileSnapshotter, cacheAccess)
+    def archiveSnapshots = [:]
+    DefaultFileCollectionSnapshotter snapshotter
 
     def listener = Mock(ChangeListener)
     @Rule
@@ -42,6 +46,11 @@ public class DefaultFileCollectionSnapshotterTest extends Specification {
         cacheAccess.useCache(_, _) >> { String name, Runnable action ->
             action.run()
         }
+        cacheAccess.createCache("archiveSnapshots", String, _) >> Stub(PersistentIndexedCache) {
+            get(_) >> { String key -> archiveSnapshots[key] }
+            put(_, _) >> { String key, Map value -> archiveSnapshots[key] = value }
+        }
+        snapshotter = new DefaultFileCollectionSnapshotter(fileSnapshotter, cacheAccess)
     }
 
     def getFilesReturnsOnlyTheFilesWhichExisted() {
@@ -342,6 +351,45 @@ public class DefaultFileCollectionSnapshotterTest extends Specification {
         0 * _
     }
 
+    def snapshotsEntriesOfZipTreeWithoutExtractingThem() {
+        given:
+        TestFile contents = tmpDir.createDir('contents')
+        contents.createFile('file1').text = 'content1'
+        contents.createFile('dir/file2').text = 'content2'
+        TestFile zip = tmpDir.file('archive.zip')
+        contents.zipTo(zip)
+        TestFile expandDir = tmpDir.file('expanded')
+
+        def tree = new ZipFileTree(zip, expandDir, null)
+
+        when:
+        def snapshot = snapshotter.snapshot(new FileTreeAdapter(tree))
+
+        then:
+        def mirror = tree.mirror.dir
+        snapshot.files.files == [new File(mirror, 'file1'), new File(mirror, 'dir/file2')] as Set
+        snapshot.snapshot.findSnapshot(new File(mirror, 'file1')).hash == HashUtil.createHash('content1', 'MD5').asByteArray()
+        !mirror.exists()
+        archiveSnapshots.size() == 1
+    }
+
+    def reusesSnapshotOfUnchangedArchive() {
+        given:
+        TestFile contents = tmpDir.createDir('contents')
+        contents.createFile('file1').text = 'content1'
+        TestFile zip = tmpDir.file('archive.zip')
+        contents.zipTo(zip)
+        def tree = new FileTreeAdapter(new ZipFileTree(zip, tmpDir.file('expanded'), null))
+        def snapshot = snapshotter.snapshot(tree)
+        archiveSnapshots.values().first().put('file2', 'cached'.bytes)
+
+        when:
+        snapshotter.snapshot(tree).iterateChangesSince(snapshot).next(listener)
+
+        then:
+        1 * listener.added({ it.endsWith('file2') })
+    }
+
     private FileCollection files(File... files) {
         FileTree collection = Mock(FileTree.class)
         _ * collection.asFileTree >> collection
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive
+
+import org.apache.tools.zip.UnixStat
+import org.apache.tools.zip.Zip64Mode
+import org.apache.tools.zip.Zip64RequiredException
+import org.apache.tools.zip.ZipEntry
+import org.apache.tools.zip.ZipFile
+import org.apache.tools.zip.ZipOutputStream
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.zip.CRC32
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+
+class ParallelZipWriterTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final executorFactory = new DefaultExecutorFactory()
+    final random = new Random(12)
+
+    @Unroll
+    def "writes the same file as the serial zip stream using method #method"() {
+        def entries = [
+                [name: "dir/", mode: UnixStat.DIR_FLAG | 0755],
+                [name: "dir/empty.txt", content: new byte[0]],
+                [name: "dir/small.txt", content: "some content".bytes],
+                [name: "dir/medium.bin", content: content(70000)],
+                [name: "large.bin", content: content(ParallelZipWriter.LARGE_ENTRY_SIZE + 12345)],
+                [name: "read-only.txt", content: "more content".bytes, mode: UnixStat.FILE_FLAG | 0444],
+                [name: "été.txt", content: content(300)],
+        ]
+        def serialFile = tmpDir.file("serial.zip")
+        def parallelFile = tmpDir.file("parallel.zip")
+
+        when:
+        writeSerial(serialFile, method, entries)
+        writeParallel(parallelFile, method, entries)
+
+        then:
+        parallelFile.bytes == serialFile.bytes
+
+        where:
+        method << [ZipOutputStream.DEFLATED, ZipOutputStream.STORED]
+    }
+
+    def "writes many entries in the order they were added"() {
+        def entries = (1..500).collect { [name: "file${it}.txt", content: content(random.nextInt(20000))] }
+        def serialFile = tmpDir.file("serial.zip")
+        def parallelFile = tmpDir.file("parallel.zip")
+
+        when:
+        writeSerial(serialFile, ZipOutputStream.DEFLATED, entries)
+        writeParallel(parallelFile, ZipOutputStream.DEFLATED, entries)
+
+        then:
+        parallelFile.bytes == serialFile.bytes
+    }
+
+    def "writes compressed content of an entry as is"() {
+        def content = "some content that is compressed".bytes
+        def deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true)
+        def compressedStream = new ByteArrayOutputStream()
+        def deflaterStream = new DeflaterOutputStream(compressedStream, deflater)
+        deflaterStream.write(content)
+        deflaterStream.finish()
+        def compressed = compressedStream.toByteArray()
+        def crc = new CRC32()
+        crc.update(content)
+        def parallelFile = tmpDir.file("parallel.zip")
+
+        when:
+        def writer = new ParallelZipWriter(parallelFile, ZipOutputStream.STORED, executorFactory)
+        writer.putRawFile("copy.txt", 1000L, UnixStat.FILE_FLAG | 0644, ZipOutputStream.DEFLATED, crc.value, content.length, compressed.length, new ByteArrayInputStream(compressed))
+        writer.close()
+
+        then:
+        def result = new ZipFile(parallelFile)
+        def entry = result.getEntry("copy.txt")
+        entry.method == ZipOutputStream.DEFLATED
+        entry.crc == crc.value
+        result.getInputStream(entry).bytes == content
+
+        cleanup:
+        result?.close()
+        deflater.end()
+    }
+
+    def "fails when the archive contains too many entries"() {
+        def writer = new ParallelZipWriter(tmpDir.file("parallel.zip"), ZipOutputStream.STORED, executorFactory)
+
+        when:
+        65536.times { writer.putDirectory("dir${it}/", 1000L, UnixStat.DIR_FLAG | 0755) }
+        writer.close()
+
+        then:
+        Zip64RequiredException e = thrown()
+        e.message == "archive contains more than 65535 entries."
+    }
+
+    def "cannot add an entry before the content of the previous entry has been written"() {
+        def writer = new ParallelZipWriter(tmpDir.file("parallel.zip"), ZipOutputStream.DEFLATED, executorFactory)
+        writer.putFile("file.txt", 1000L, UnixStat.FILE_FLAG | 0644)
+
+        when:
+        writer.putFile("other.txt", 1000L, UnixStat.FILE_FLAG | 0644)
+
+        then:
+        thrown(IllegalStateException)
+
+        cleanup:
+        writer.close()
+    }
+
+    private byte[] content(int length) {
+        def bytes = new byte[length]
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) random.nextInt(i % 5 == 0 ? 256 : 16)
+        }
+        return bytes
+    }
+
+    private static void writeSerial(File file, int method, List<Map> entries) {
+        def outputStream = new ZipOutputStream(file)
+        outputStream.useZip64 = Zip64Mode.Never
+        outputStream.method = method
+        entries.each {
+            def entry = new ZipEntry(it.name)
+            entry.time = 1400000000000L
+            entry.unixMode = it.mode ?: UnixStat.FILE_FLAG | 0644
+            outputStream.putNextEntry(entry)
+            if (it.content != null) {
+                outputStream.write(it.content)
+            }
+            outputStream.closeEntry()
+        }
+        outputStream.close()
+    }
+
+    private void writeParallel(File file, int method, List<Map> entries) {
+        def writer = new ParallelZipWriter(file, method, executorFactory)
+        entries.each {
+            if (it.content == null) {
+                writer.putDirectory(it.name, 1400000000000L, it.mode)
+            } else {
+                def outputStream = writer.putFile(it.name, 1400000000000L, it.mode ?: UnixStat.FILE_FLAG | 0644)
+                outputStream.write(it.content)
+                outputStream.close()
+            }
+        }
+        writer.close()
+    }
+}
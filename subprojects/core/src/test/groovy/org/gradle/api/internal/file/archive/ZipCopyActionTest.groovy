@@ -17,14 +17,19 @@ package org.gradle.api.internal.file.archive
 
 import org.apache.tools.zip.Zip64RequiredException
 import org.apache.tools.zip.ZipOutputStream
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.FileVisitor
 import org.gradle.api.file.RelativePath
 import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.file.CopyActionProcessingStreamAction
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.file.copy.CopyActionProcessingStream
+import org.gradle.api.internal.file.copy.CopySpecResolver
+import org.gradle.api.internal.file.copy.DefaultFileCopyDetails
 import org.gradle.api.internal.file.copy.DefaultZipCompressor
 import org.gradle.api.internal.file.copy.FileCopyDetailsInternal
 import org.gradle.api.tasks.bundling.Zip
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
@@ -74,6 +79,66 @@ class ZipCopyActionTest extends Specification {
         expandDir.file("file2").assertContents(equalTo("contents of file2"))
     }
 
+    void createsZipFileCompressingEntriesConcurrently() {
+        given:
+        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipOutputStream.DEFLATED), new DocumentationRegistry(), new DefaultExecutorFactory())
+        zip(dir("dir"), file("dir/file1"), file("file2"))
+
+        when:
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded")
+        zipFile.unzipTo(expandDir)
+
+        then:
+        expandDir.file("dir/file1").assertContents(equalTo("contents of dir/file1"))
+        expandDir.file("file2").assertContents(equalTo("contents of file2"))
+    }
+
+    void copiesEntriesOfZipTreeIntoStoredZipFile() {
+        given:
+        def sourceDir = tmpDir.createDir("source")
+        sourceDir.file("dir/file1").write("contents of dir/file1")
+        sourceDir.file("file2").write("contents of file2")
+        def sourceZip = tmpDir.getTestDirectory().file("source.zip")
+        sourceDir.zipTo(sourceZip)
+        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipOutputStream.STORED), new DocumentationRegistry(), new DefaultExecutorFactory())
+
+        when:
+        zipTree(sourceZip)
+
+        then:
+        def zip = new java.util.zip.ZipFile(zipFile)
+        try {
+            assert zip.entries().collect { it.method } as Set == [java.util.zip.ZipEntry.STORED] as Set
+            assert zip.getInputStream(zip.getEntry("dir/file1")).text == "contents of dir/file1"
+            assert zip.getInputStream(zip.getEntry("file2")).text == "contents of file2"
+        } finally {
+            zip.close()
+        }
+    }
+
+    void copiesRenamedEntriesOfZipTreeIntoDeflatedZipFile() {
+        given:
+        def sourceDir = tmpDir.createDir("source")
+        sourceDir.file("dir/file1").write("contents of dir/file1")
+        sourceDir.file("file2").write("contents of file2")
+        def sourceZip = tmpDir.getTestDirectory().file("source.zip")
+        sourceDir.zipTo(sourceZip)
+        visitor = new ZipCopyAction(zipFile, new DefaultZipCompressor(false, ZipOutputStream.DEFLATED), new DocumentationRegistry(), new DefaultExecutorFactory())
+
+        when:
+        zipTree(sourceZip, RelativePath.parse(false, "renamed"))
+
+        then:
+        def zip = new java.util.zip.ZipFile(zipFile)
+        try {
+            assert zip.entries().collect { it.name } as Set == ["renamed/dir/file1", "renamed/file2"] as Set
+            assert zip.getInputStream(zip.getEntry("renamed/dir/file1")).text == "contents of dir/file1"
+            assert zip.getInputStream(zip.getEntry("renamed/file2")).text == "contents of file2"
+        } finally {
+            zip.close()
+        }
+    }
+
     void zipFileContainsExpectedPermissions() {
         given:
         zip(dir("dir"), file("file"))
@@ -157,6 +222,25 @@ class ZipCopyActionTest extends Specification {
         });
     }
 
+    private void zipTree(final File sourceZip, RelativePath destPath = new RelativePath(false)) {
+        def specResolver = Stub(CopySpecResolver) {
+            getDestPath() >> destPath
+            getFileMode() >> null
+        }
+        visitor.execute(new CopyActionProcessingStream() {
+            public void process(final CopyActionProcessingStreamAction action) {
+                new ZipFileTree(sourceZip, tmpDir.createDir("expanded"), TestFiles.fileSystem()).visit(new FileVisitor() {
+                    void visitDir(FileVisitDetails dirDetails) {
+                    }
+
+                    void visitFile(FileVisitDetails fileDetails) {
+                        action.processFile(new DefaultFileCopyDetails(fileDetails, specResolver, TestFiles.fileSystem()))
+                    }
+                })
+            }
+        });
+    }
+
     private FileCopyDetailsInternal file(final String path) {
         def mock = Mock(FileCopyDetailsInternal)
         mock.getRelativePath() >> RelativePath.parse(false, path)
@@ -15,14 +15,21 @@
  */
 package org.gradle.api.internal.file.archive;
 
+import org.apache.tools.zip.UnixStat;
+import org.apache.tools.zip.ZipOutputStream;
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.util.Resources;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,6 +39,7 @@ import static org.gradle.api.tasks.AntBuilderAwareUtil.assertSetContainsForAllTy
 import static org.gradle.util.WrapUtil.toList;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ZipFileTreeTest {
@@ -121,4 +129,32 @@ public class ZipFileTreeTest {
 
         assertVisitsPermissions(tree, expected);
     }
+
+    @Test
+    public void copiesCompressedContentOfEntriesToAnotherZipFile() throws IOException {
+        rootDir.file("subdir/file1.txt").write("content 1");
+        rootDir.file("subdir2/file2.txt").write("content 2");
+        rootDir.zipTo(zipFile);
+        TestFile copy = tmpDir.getTestDirectory().file("copy.zip");
+
+        final ParallelZipWriter zipWriter = new ParallelZipWriter(copy, ZipOutputStream.DEFLATED, new DefaultExecutorFactory());
+        tree.visit(new FileVisitor() {
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            public void visitFile(FileVisitDetails fileDetails) {
+                try {
+                    assertTrue(((RawZipEntryDetails) fileDetails).copyRawTo(zipWriter, "copy/" + fileDetails.getPath(), fileDetails.getLastModified(), UnixStat.FILE_FLAG | fileDetails.getMode()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        });
+        zipWriter.close();
+
+        TestFile expandDir = tmpDir.getTestDirectory().file("expanded");
+        copy.unzipTo(expandDir);
+        expandDir.file("copy/subdir/file1.txt").assertContents(equalTo("content 1"));
+        expandDir.file("copy/subdir2/file2.txt").assertContents(equalTo("content 2"));
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.apache.tools.zip.UnixStat
+import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.archive.ParallelZipWriter
+import org.gradle.api.internal.file.archive.RawZipEntryDetails
+import org.gradle.internal.nativeintegration.filesystem.Chmod
+import spock.lang.Specification
+
+class DefaultFileCopyDetailsTest extends Specification {
+    def source = Mock(RawZipFileVisitDetails)
+    def specResolver = Mock(CopySpecResolver)
+    def zipWriter = Mock(ParallelZipWriter)
+    def details
+
+    def setup() {
+        source.relativePath >> RelativePath.parse(true, "a/b.txt")
+        source.lastModified >> 1000L
+        source.mode >> 0644
+        specResolver.destPath >> RelativePath.parse(false, "dest")
+        details = new DefaultFileCopyDetails(source, specResolver, Mock(Chmod))
+    }
+
+    def "copies compressed content of unchanged file"() {
+        when:
+        def copied = details.copyRawTo(zipWriter, "dest/a/b.txt", 1000L, UnixStat.FILE_FLAG | 0644)
+
+        then:
+        copied
+        1 * source.copyRawTo(zipWriter, "dest/a/b.txt", 1000L, UnixStat.FILE_FLAG | 0644) >> true
+    }
+
+    def "copies compressed content of renamed file"() {
+        details.name = "c.txt"
+
+        when:
+        def copied = details.copyRawTo(zipWriter, details.relativePath.pathString, 1000L, UnixStat.FILE_FLAG | 0644)
+
+        then:
+        copied
+        1 * source.copyRawTo(zipWriter, "dest/a/c.txt", 1000L, UnixStat.FILE_FLAG | 0644) >> true
+    }
+
+    def "does not copy compressed content of file with changed permissions"() {
+        details.mode = 0755
+
+        when:
+        def copied = details.copyRawTo(zipWriter, "dest/a/b.txt", 1000L, UnixStat.FILE_FLAG | details.mode)
+
+        then:
+        !copied
+        0 * source.copyRawTo(_, _, _, _)
+    }
+
+    def "does not copy compressed content of file with permissions from spec"() {
+        specResolver.fileMode >> 0600
+
+        when:
+        def copied = details.copyRawTo(zipWriter, "dest/a/b.txt", 1000L, UnixStat.FILE_FLAG | details.mode)
+
+        then:
+        !copied
+        0 * source.copyRawTo(_, _, _, _)
+    }
+
+    def "does not copy compressed content of file with changed timestamp"() {
+        when:
+        def copied = details.copyRawTo(zipWriter, "dest/a/b.txt", 2000L, UnixStat.FILE_FLAG | 0644)
+
+        then:
+        !copied
+        0 * source.copyRawTo(_, _, _, _)
+    }
+
+    def "does not copy compressed content of filtered file"() {
+        details.filter { it }
+
+        when:
+        def copied = details.copyRawTo(zipWriter, "dest/a/b.txt", 1000L, UnixStat.FILE_FLAG | 0644)
+
+        then:
+        !copied
+        0 * source.copyRawTo(_, _, _, _)
+    }
+
+    interface RawZipFileVisitDetails extends FileVisitDetails, RawZipEntryDetails {
+    }
+}
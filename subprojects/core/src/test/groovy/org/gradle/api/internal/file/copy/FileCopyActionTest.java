@@ -16,8 +16,13 @@
 
 package org.gradle.api.internal.file.copy;
 
+import org.gradle.api.file.DuplicatesStrategy;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.file.DefaultFileVisitDetails;
 import org.gradle.api.internal.file.TestFiles;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.jmock.Expectations;
 import org.jmock.integration.junit4.JMock;
@@ -29,8 +34,13 @@ import org.junit.runner.RunWith;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.gradle.api.internal.file.copy.CopyActionExecuterUtil.visit;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 @RunWith(JMock.class)
 public class FileCopyActionTest {
@@ -54,6 +64,58 @@ public class FileCopyActionTest {
         );
     }
 
+    @Test
+    public void copiesFilesConcurrentlyAndDoesNotRewriteFilesWithSameContent() {
+        TestFile sourceDir = tmpDir.createDir("source");
+        sourceDir.file("rootfile.txt").write("root");
+        sourceDir.file("subdir/anotherfile.txt").write("another");
+        TestFile upToDate = new TestFile(destDir, "subdir/anotherfile.txt").write("another");
+        upToDate.setLastModified(upToDate.lastModified() - 10000);
+        long lastModified = upToDate.lastModified();
+
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), new DefaultExecutorFactory());
+        visit(visitor, sourceFile(sourceDir, "rootfile.txt"), sourceFile(sourceDir, "subdir/anotherfile.txt"));
+
+        new TestFile(destDir, "rootfile.txt").assertContents(equalTo("root"));
+        upToDate.assertContents(equalTo("another"));
+        assertEquals(lastModified, upToDate.lastModified());
+    }
+
+    @Test
+    public void keepsFailureOfCallingThreadWhenCopyingAFileAlsoFails() {
+        TestFile sourceDir = tmpDir.createDir("source");
+        final FileCopyDetailsInternal missingFile = sourceFile(sourceDir, "missing.txt");
+        final RuntimeException failure = new RuntimeException("broken");
+
+        FileCopyAction visitor = new FileCopyAction(TestFiles.resolver(destDir), new DefaultExecutorFactory());
+        try {
+            visitor.execute(new CopyActionProcessingStream() {
+                public void process(CopyActionProcessingStreamAction action) {
+                    action.processFile(missingFile);
+                    throw failure;
+                }
+            });
+            fail();
+        } catch (RuntimeException e) {
+            assertSame(failure, e);
+        }
+    }
+
+    private FileCopyDetailsInternal sourceFile(TestFile sourceDir, String path) {
+        final CopySpecResolver specResolver = context.mock(CopySpecResolver.class, path);
+        context.checking(new Expectations() {{
+            allowing(specResolver).getDuplicatesStrategy();
+            will(returnValue(DuplicatesStrategy.INCLUDE));
+            allowing(specResolver).getDestPath();
+            will(returnValue(new RelativePath(false)));
+            allowing(specResolver).getFileMode();
+            will(returnValue(null));
+        }});
+        RelativePath relativePath = RelativePath.parse(true, path);
+        DefaultFileVisitDetails fileDetails = new DefaultFileVisitDetails(sourceDir.file(path), relativePath, new AtomicBoolean(), TestFiles.fileSystem(), TestFiles.fileSystem());
+        return new DefaultFileCopyDetails(fileDetails, specResolver, TestFiles.fileSystem());
+    }
+
     private FileCopyDetailsInternal file(final RelativePath relativePath, final File targetFile) {
         final FileCopyDetailsInternal details = context.mock(FileCopyDetailsInternal.class, relativePath.getPathString());
         context.checking(new Expectations() {{
@@ -98,6 +98,10 @@ public class AnnotationProcessingTaskFactoryTest {
     }
 
     private <T extends Task> T expectTaskCreated(final Class<T> type, final Object... params) {
+        return expectTaskCreated(factory, newTask(type, params));
+    }
+
+    private <T extends Task> T newTask(final Class<T> type, final Object... params) {
         DefaultProject project = TestUtil.createRootProject();
         final Class<? extends T> decorated = project.getServices().get(ClassGenerator.class).generate(type);
         T task = AbstractTask.injectIntoNewInstance(project, "task", new Callable<T>() {
@@ -109,10 +113,14 @@ public class AnnotationProcessingTaskFactoryTest {
                 }
             }
         });
-        return expectTaskCreated(task);
+        return task;
     }
 
     private <T extends Task> T expectTaskCreated(final T task) {
+        return expectTaskCreated(factory, task);
+    }
+
+    private <T extends Task> T expectTaskCreated(ITaskFactory factory, final T task) {
         context.checking(new Expectations() {{
             one(delegate).createTask(args);
             will(returnValue(task));
@@ -185,6 +193,14 @@ public class AnnotationProcessingTaskFactoryTest {
 
         assertThat(readField(task.getActions().get(0), Action.class, "action"), sameInstance(readField(task2.getActions().get(0), Action.class, "action")));
     }
+
+    @Test
+    public void sharesClassMetaInfoWithOtherFactories() {
+        TaskWithInputFile task = expectTaskCreated(TaskWithInputFile.class, existingFile);
+        TaskWithInputFile task2 = expectTaskCreated(new AnnotationProcessingTaskFactory(delegate), newTask(TaskWithInputFile.class, missingFile));
+
+        assertThat(readField(task.getActions().get(0), Action.class, "action"), sameInstance(readField(task2.getActions().get(0), Action.class, "action")));
+    }
     
     @Test
     public void failsWhenStaticMethodHasTaskActionAnnotation() {
@@ -22,7 +22,7 @@ import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.taskfactory.ITaskFactory
 import org.gradle.api.tasks.TaskDependency
 import org.gradle.initialization.ProjectAccessListener
-import org.gradle.internal.reflect.Instantiator
+import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.util.GUtil
 import spock.lang.Specification
 
@@ -34,7 +34,7 @@ public class DefaultTaskContainerTest extends Specification {
     private project = Mock(ProjectInternal, name: "<project>")
     private taskCount = 1;
     private accessListener = Mock(ProjectAccessListener)
-    private container = new DefaultTaskContainer(project, Mock(Instantiator), taskFactory, accessListener)
+    private container = new DefaultTaskContainer(project, new DirectInstantiator(), taskFactory, accessListener)
 
     void "creates by Map"() {
         def options = singletonMap("option", "value")
@@ -334,6 +334,149 @@ public class DefaultTaskContainerTest extends Specification {
         container.names ==  ['task1', 'task2'] as SortedSet
     }
 
+    void "registered task is created and configured when it is looked up by name"() {
+        given:
+        def action = Mock(Action)
+        def task = task("task", CustomTask)
+
+        when:
+        container.register("task", CustomTask, action)
+
+        then:
+        0 * taskFactory._
+        0 * action._
+        container.names == ['task'] as SortedSet
+        !container.empty
+
+        when:
+        def found = container.getByName("task")
+
+        then:
+        1 * taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        1 * action.execute(task)
+        found == task
+        container.getByName("task") == task
+    }
+
+    void "registered task is created when a collection that may contain it is queried"() {
+        given:
+        def customTask = task("custom", CustomTask)
+        container.register("custom", CustomTask, Mock(Action))
+        container.register("other", OtherTask, Mock(Action))
+
+        when:
+        def matching = container.withType(CustomTask)
+
+        then:
+        0 * taskFactory._
+
+        when:
+        def tasks = matching.toList()
+
+        then:
+        1 * taskFactory.createTask([name: "custom", type: CustomTask]) >> customTask
+        0 * taskFactory._
+        tasks == [customTask]
+        container.names == ['custom', 'other'] as SortedSet
+    }
+
+    void "action added using all is executed for registered task when it is created"() {
+        given:
+        def task = task("task", CustomTask)
+        def action = Mock(Action)
+        taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        container.register("task", CustomTask, Mock(Action))
+
+        when:
+        container.all(action)
+
+        then:
+        0 * action._
+
+        when:
+        container.getByName("task")
+
+        then:
+        1 * action.execute(task)
+    }
+
+    void "registered tasks are created when container is iterated"() {
+        given:
+        def task1 = task("task1", CustomTask)
+        def task2 = task("task2", OtherTask)
+        taskFactory.createTask([name: "task1", type: CustomTask]) >> task1
+        taskFactory.createTask([name: "task2", type: OtherTask]) >> task2
+        container.register("task1", CustomTask, Mock(Action))
+        container.register("task2", OtherTask, Mock(Action))
+
+        expect:
+        container.toList() == [task1, task2]
+    }
+
+    void "registered tasks are created when the size of the container is queried"() {
+        given:
+        def task1 = task("task1", CustomTask)
+        def task2 = task("task2", OtherTask)
+        taskFactory.createTask([name: "task1", type: CustomTask]) >> task1
+        taskFactory.createTask([name: "task2", type: OtherTask]) >> task2
+        container.register("task1", CustomTask, Mock(Action))
+        container.register("task2", OtherTask, Mock(Action))
+
+        expect:
+        container.size() == 2
+        container.contains(task1)
+        container.contains(task2)
+    }
+
+    void "registered task is configured without holding the lock of the container"() {
+        given:
+        def other = addTask("other")
+        def task = task("task", CustomTask)
+        def found = null
+        taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        container.register("task", CustomTask, {
+            def thread = new Thread({ found = container.findByName("other") } as Runnable)
+            thread.start()
+            thread.join(10000)
+        } as Action)
+
+        when:
+        container.getByName("task")
+
+        then:
+        found == other
+    }
+
+    void "registered task is created and configured once when it is looked up concurrently"() {
+        given:
+        def task = task("task", CustomTask)
+        def action = Mock(Action)
+        def found = Collections.synchronizedList([])
+        container.register("task", CustomTask, action)
+
+        when:
+        def threads = (1..10).collect { new Thread({ found << container.findByName("task") } as Runnable) }
+        threads*.start()
+        threads*.join()
+
+        then:
+        1 * taskFactory.createTask([name: "task", type: CustomTask]) >> task
+        1 * action.execute(task) >> { Thread.sleep(100) }
+        found == [task] * 10
+    }
+
+    void "cannot register task with the same name as an existing task"() {
+        given:
+        addTask("task")
+
+        when:
+        container.register("task", CustomTask, Mock(Action))
+
+        then:
+        InvalidUserDataException e = thrown()
+        e.message == "Cannot register task 'task' as a task with that name already exists."
+    }
+
     void "maybeCreate creates new task"() {
         given:
         def options = singletonMap(Task.TASK_NAME, "task")
@@ -424,4 +567,6 @@ public class DefaultTaskContainerTest extends Specification {
     }
 
     interface CustomTask extends TaskInternal {}
+
+    interface OtherTask extends TaskInternal {}
 }
@@ -23,6 +23,8 @@ import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.api.internal.project.ProjectStateInternal
 import spock.lang.Specification
 
+import java.util.concurrent.CountDownLatch
+
 public class LifecycleProjectEvaluatorTest extends Specification {
     private project = Mock(ProjectInternal)
     private listener = Mock(ProjectEvaluationListener)
@@ -197,4 +199,66 @@ public class LifecycleProjectEvaluatorTest extends Specification {
             assertIsConfigurationFailure(it, failure)
         })
     }
+
+    void "waits for project that is being evaluated by another thread"() {
+        def events = Collections.synchronizedList([])
+        def started = new CountDownLatch(1)
+        def release = new CountDownLatch(1)
+        def state = new ProjectStateInternal()
+        def evaluator = new LifecycleProjectEvaluator({ p, s ->
+            started.countDown()
+            release.await()
+            events << "evaluated"
+        } as ProjectEvaluator, finalizer)
+
+        when:
+        def first = Thread.start { evaluator.evaluate(project, state) }
+        started.await()
+        def second = Thread.start {
+            evaluator.evaluate(project, state)
+            events << "returned"
+        }
+        Thread.sleep(100)
+        release.countDown()
+        first.join()
+        second.join()
+
+        then:
+        events == ["evaluated", "returned"]
+        state.executed
+    }
+
+    void "does not wait for project that is being evaluated by a thread that is waiting for the current thread"() {
+        def projectA = Mock(ProjectInternal)
+        def projectB = Mock(ProjectInternal)
+        def stateA = new ProjectStateInternal()
+        def stateB = new ProjectStateInternal()
+        def bothStarted = new CountDownLatch(2)
+        def evaluator
+        evaluator = new LifecycleProjectEvaluator({ p, s ->
+            bothStarted.countDown()
+            bothStarted.await()
+            if (p == projectA) {
+                evaluator.evaluate(projectB, stateB)
+            } else {
+                evaluator.evaluate(projectA, stateA)
+            }
+        } as ProjectEvaluator, finalizer)
+
+        given:
+        projectA.getProjectEvaluationBroadcaster() >> listener
+        projectB.getProjectEvaluationBroadcaster() >> listener
+
+        when:
+        def first = Thread.start { evaluator.evaluate(projectA, stateA) }
+        def second = Thread.start { evaluator.evaluate(projectB, stateB) }
+        first.join(5000)
+        second.join(5000)
+
+        then:
+        !first.alive
+        !second.alive
+        stateA.executed
+        stateB.executed
+    }
 }
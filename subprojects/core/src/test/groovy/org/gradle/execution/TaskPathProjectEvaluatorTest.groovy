@@ -19,6 +19,7 @@ package org.gradle.execution
 import org.gradle.api.BuildCancelledException
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import spock.lang.Specification
 
 class TaskPathProjectEvaluatorTest extends Specification {
@@ -60,4 +61,57 @@ class TaskPathProjectEvaluatorTest extends Specification {
         1 * child1.evaluate()
         0 * child2._
     }
+
+    def "configures projects of hierarchy concurrently once their parent has been configured"() {
+        def evaluated = Collections.synchronizedList([])
+        def grandchild1 = project("grandchild1", evaluated)
+        def grandchild2 = project("grandchild2", evaluated)
+        def child1 = project("child1", evaluated, grandchild1, grandchild2)
+        def child2 = project("child2", evaluated)
+        def root = project("root", evaluated, child1, child2)
+        def evaluator = new TaskPathProjectEvaluator(cancellationToken, new DefaultExecutorFactory())
+
+        when:
+        evaluator.configureHierarchy(root)
+
+        then:
+        evaluated as Set == ["root", "child1", "child2", "grandchild1", "grandchild2"] as Set
+        evaluated.size() == 5
+        evaluated.indexOf("root") < evaluated.indexOf("child1")
+        evaluated.indexOf("root") < evaluated.indexOf("child2")
+        evaluated.indexOf("child1") < evaluated.indexOf("grandchild1")
+        evaluated.indexOf("child1") < evaluated.indexOf("grandchild2")
+    }
+
+    def "does not configure child projects of a project whose configuration fails when configuring concurrently"() {
+        def failure = new RuntimeException("broken")
+        def evaluated = Collections.synchronizedList([])
+        def grandchild = project("grandchild", evaluated)
+        def child = Stub(ProjectInternal) {
+            evaluate() >> { throw failure }
+            getChildProjects() >> [grandchild: grandchild]
+        }
+        def root = project("root", evaluated, child)
+        def evaluator = new TaskPathProjectEvaluator(cancellationToken, new DefaultExecutorFactory())
+
+        when:
+        evaluator.configureHierarchy(root)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        evaluated == ["root"]
+    }
+
+    private ProjectInternal project(String name, List<String> evaluated, ProjectInternal... children) {
+        def project = Stub(ProjectInternal)
+        project.evaluate() >> {
+            evaluated << name
+            project
+        }
+        def childProjects = [:]
+        children.eachWithIndex { child, i -> childProjects["child${i}".toString()] = child }
+        project.childProjects >> childProjects
+        return project
+    }
 }
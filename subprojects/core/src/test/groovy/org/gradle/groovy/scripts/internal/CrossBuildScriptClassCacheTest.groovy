@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.groovy.scripts.internal
+
+import org.codehaus.groovy.classgen.Verifier
+import org.gradle.groovy.scripts.Script
+import org.gradle.groovy.scripts.ScriptSource
+import org.gradle.groovy.scripts.TestScript
+import org.gradle.groovy.scripts.Transformer
+import org.gradle.internal.resource.Resource
+import spock.lang.Specification
+
+class CrossBuildScriptClassCacheTest extends Specification {
+    final cache = new CrossBuildScriptClassCache()
+    final ScriptClassCompiler compiler = Mock()
+    final verifier = Mock(Verifier)
+    final classLoader = new URLClassLoader(new URL[0])
+    final transformer = Stub(Transformer) {
+        getId() >> "id"
+    }
+
+    def "reuses class when script content and classloader are unchanged"() {
+        def script1 = scriptSource("content")
+        def script2 = scriptSource("content")
+
+        when:
+        def c1 = cache.getOrCompile(script1, classLoader, transformer, Script, verifier, compiler)
+        def c2 = cache.getOrCompile(script2, classLoader, transformer, Script, verifier, compiler)
+
+        then:
+        c1 == TestScript
+        c2 == TestScript
+        1 * compiler.compile(script1, classLoader, transformer, Script, verifier) >> TestScript
+        0 * compiler._
+    }
+
+    def "compiles script again when its content has changed"() {
+        def script1 = scriptSource("content")
+        def script2 = scriptSource("changed")
+
+        when:
+        cache.getOrCompile(script1, classLoader, transformer, Script, verifier, compiler)
+        cache.getOrCompile(script2, classLoader, transformer, Script, verifier, compiler)
+
+        then:
+        1 * compiler.compile(script1, classLoader, transformer, Script, verifier) >> TestScript
+        1 * compiler.compile(script2, classLoader, transformer, Script, verifier) >> TestScript
+    }
+
+    def "compiles script again for a different classloader"() {
+        def script = scriptSource("content")
+        def otherClassLoader = new URLClassLoader(new URL[0])
+
+        when:
+        cache.getOrCompile(script, classLoader, transformer, Script, verifier, compiler)
+        cache.getOrCompile(script, otherClassLoader, transformer, Script, verifier, compiler)
+
+        then:
+        1 * compiler.compile(script, classLoader, transformer, Script, verifier) >> TestScript
+        1 * compiler.compile(script, otherClassLoader, transformer, Script, verifier) >> TestScript
+    }
+
+    def "reuses class that is not otherwise referenced after garbage collection"() {
+        def script = scriptSource("content")
+
+        when:
+        cache.getOrCompile(script, classLoader, transformer, Script, verifier, compiler)
+        System.gc()
+        def c = cache.getOrCompile(script, classLoader, transformer, Script, verifier, compiler)
+
+        then:
+        1 * compiler.compile(script, classLoader, transformer, Script, verifier) >> { new GroovyClassLoader(classLoader).parseClass("class GeneratedScript extends ${TestScript.name} {}") }
+        0 * compiler._
+        c.name == "GeneratedScript"
+    }
+
+    def scriptSource(String text) {
+        ScriptSource script = Stub()
+        script.className >> "script"
+        script.resource >> Stub(Resource) {
+            getText() >> text
+        }
+        script
+    }
+}
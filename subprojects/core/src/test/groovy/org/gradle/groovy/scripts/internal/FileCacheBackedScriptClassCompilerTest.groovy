@@ -16,122 +16,241 @@
 package org.gradle.groovy.scripts.internal
 
 import org.codehaus.groovy.classgen.Verifier
-import org.gradle.api.Action
-import org.gradle.internal.resource.Resource
 import org.gradle.cache.CacheBuilder
 import org.gradle.cache.CacheRepository
 import org.gradle.cache.CacheValidator
 import org.gradle.cache.PersistentCache
+import org.gradle.cache.PersistentIndexedCache
 import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.resource.Resource
 import org.gradle.logging.ProgressLogger
 import org.gradle.logging.ProgressLoggerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.TimeUnit
+
 class FileCacheBackedScriptClassCompilerTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
     final ScriptCompilationHandler scriptCompilationHandler = Mock()
     final CacheRepository cacheRepository = Mock()
     final CacheBuilder cacheBuilder = Mock()
     final CacheValidator validator = Mock()
     final PersistentCache cache = Mock()
+    final PersistentIndexedCache<String, String> index = Mock()
     final ScriptSource source = Mock()
+    final Resource resource = Mock()
     final ClassLoader classLoader = Mock()
     final Transformer transformer = Mock()
-    final File cacheDir = new File("base-dir")
-    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, Stub(ProgressLoggerFactory))
+    final ProgressLoggerFactory progressLoggerFactory = Mock()
+    final ProgressLogger progressLogger = Mock()
+    final String hash = HashUtil.createCompactMD5('this is the script')
+    final FileCacheBackedScriptClassCompiler compiler = new FileCacheBackedScriptClassCompiler(cacheRepository, validator, scriptCompilationHandler, progressLoggerFactory)
     private Verifier verifier = new Verifier()
+    File cacheDir
+    File scriptDir
+    int textReads
 
     def setup() {
-        Resource resource = Mock()
+        cacheDir = tmpDir.createDir("base-dir")
+        scriptDir = new File(cacheDir, "ScriptClassName/Script/TransformerId")
         _ * source.resource >> resource
-        _ * resource.text >> 'this is the script'
+        _ * resource.text >> { textReads++; 'this is the script' }
         _ * source.className >> 'ScriptClassName'
-        _ * source.fileName >> 'ScriptFileName'
+        _ * source.displayName >> 'the script'
         _ * transformer.id >> 'TransformerId'
+        _ * cacheRepository.cache("scripts") >> cacheBuilder
+        _ * cacheBuilder.withDisplayName(!null) >> cacheBuilder
+        _ * cacheBuilder.withLockOptions(!null) >> cacheBuilder
+        _ * cacheBuilder.open() >> cache
         _ * cache.baseDir >> cacheDir
-        _ * validator.isValid() >> true
+        _ * cache.createCache({ it.cacheName == "scriptClasses" }) >> index
+        _ * cache.useCache(!null, _ as Factory) >> { args -> args[1].create() }
+        _ * progressLoggerFactory.newOperation(FileCacheBackedScriptClassCompiler) >> progressLogger
+        _ * progressLogger.start(_, _) >> progressLogger
     }
 
-    def "loads classes from cache directory"() {
+    def "loads classes from cache directory when script content is unchanged"() {
+        given:
+        validator.isValid() >> true
+        index.get("ScriptClassName/Script/TransformerId") >> "$hash-1".toString()
+
+        when:
+        def result = compiler.compile(source, classLoader, transformer, Script, verifier)
+
+        then:
+        result == Script
+        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(scriptDir, "$hash-1"), Script) >> Script
+        0 * scriptCompilationHandler._
+        0 * index.put(_, _)
+    }
+
+    def "compiles classes to new cache directory when script content has changed"() {
+        given:
+        validator.isValid() >> true
+        index.get("ScriptClassName/Script/TransformerId") >> "some-other-hash-1"
+        File classesDir = null
+
         when:
         def result = compiler.compile(source, classLoader, transformer, Script, verifier)
 
         then:
         result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        1 * cacheBuilder.withProperties(!null) >> { args ->
-            assert args[0].get('source.filename') == 'ScriptFileName'
-            assert args[0].containsKey('source.hash')
-            return cacheBuilder
+        1 * scriptCompilationHandler.compileToDir(source, classLoader, { it.parentFile == scriptDir && it.name.startsWith("$hash-") }, transformer, Script, verifier) >> { args ->
+            classesDir = args[2]
+            classesDir.mkdirs()
+            new File(classesDir, "ScriptClassName.class").text = "classes"
         }
-        1 * cacheBuilder.withInitializer(!null) >> cacheBuilder
-        1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
-        1 * cacheBuilder.withValidator(!null) >> cacheBuilder
-        1 * cacheBuilder.open() >> cache
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
+        1 * index.put("ScriptClassName/Script/TransformerId", { it == classesDir.name })
+        1 * progressLogger.completed()
+
+        then:
+        1 * scriptCompilationHandler.loadFromDir(source, classLoader, { it == classesDir }, Script) >> Script
         0 * scriptCompilationHandler._
+
+        and:
+        new File(classesDir, "ScriptClassName.class").text == "classes"
+        scriptDir.list() as List == [classesDir.name]
     }
 
-    def "passes CacheValidator to cacheBuilder"() {
-        setup:
-        cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        cacheBuilder.withProperties(!null) >> cacheBuilder
-        cacheBuilder.withInitializer(!null) >> cacheBuilder
-        cacheBuilder.withDisplayName(!null) >> cacheBuilder
-        cacheBuilder.open() >> cache
-        scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
+    def "recompiles each script once when cache is invalid"() {
+        given:
+        validator.isValid() >> false
+        def entries = ["ScriptClassName/Script/TransformerId": "$hash-1".toString()]
+        index.get(_) >> { String key -> entries[key] }
+        File classesDir = null
 
         when:
         compiler.compile(source, classLoader, transformer, Script, verifier)
+        compiler.compile(source, Mock(ClassLoader), transformer, Script, verifier)
 
         then:
-        1 * cacheBuilder.withValidator(validator) >> cacheBuilder
+        1 * scriptCompilationHandler.compileToDir(source, classLoader, _, transformer, Script, verifier) >> { args -> classesDir = args[2]; classesDir.mkdirs() }
+        1 * index.put("ScriptClassName/Script/TransformerId", _) >> { String key, String value -> entries[key] = value }
+        2 * scriptCompilationHandler.loadFromDir(source, _, { it == classesDir }, Script) >> Script
+        entries["ScriptClassName/Script/TransformerId"] == classesDir.name
+    }
 
+    def "keeps classes that have been superseded by a recompilation"() {
+        given:
+        def supersededDir = new File(scriptDir, "$hash-1")
+        supersededDir.mkdirs()
+        new File(supersededDir, "ScriptClassName.class").text = "classes"
+        supersededDir.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30))
+        validator.isValid() >> false
+        index.get("ScriptClassName/Script/TransformerId") >> supersededDir.name
+        scriptCompilationHandler.loadFromDir(*_) >> Script
 
+        when:
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+
+        then:
+        1 * scriptCompilationHandler.compileToDir(*_) >> { args -> args[2].mkdirs() }
+
+        and:
+        new File(supersededDir, "ScriptClassName.class").text == "classes"
+        supersededDir.lastModified() > System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1)
     }
 
-    def "compiles classes to cache directory when cache is invalid"() {
-        def initializer
+    def "deletes directories that were superseded a while ago when classes are recompiled"() {
+        given:
+        def expiredDir = new File(scriptDir, "old-hash-1")
+        def retainedDir = new File(scriptDir, "old-hash-2")
+        [expiredDir, retainedDir]*.mkdirs()
+        expiredDir.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(FileCacheBackedScriptClassCompiler.RETAIN_SUPERSEDED_DAYS + 1))
+        retainedDir.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(FileCacheBackedScriptClassCompiler.RETAIN_SUPERSEDED_DAYS - 1))
+        validator.isValid() >> true
+        index.get("ScriptClassName/Script/TransformerId") >> "old-hash-3"
+        scriptCompilationHandler.loadFromDir(*_) >> Script
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+
+        then:
+        1 * scriptCompilationHandler.compileToDir(*_) >> { args -> args[2].mkdirs() }
+
+        and:
+        !expiredDir.exists()
+        retainedDir.directory
+        scriptDir.list().length == 2
+    }
+
+    def "uses classes compiled by another process in the meantime"() {
+        given:
+        validator.isValid() >> true
+        index.get("ScriptClassName/Script/TransformerId") >>> [null, "$hash-other".toString()]
+        File compileDir = null
 
         when:
         def result = compiler.compile(source, classLoader, transformer, Script, verifier)
 
         then:
         result == Script
-        1 * cacheRepository.cache("scripts/ScriptClassName/Script/TransformerId") >> cacheBuilder
-        1 * cacheBuilder.withProperties(!null) >> cacheBuilder
-        1 * cacheBuilder.withDisplayName(!null) >> cacheBuilder
-        1 * cacheBuilder.withValidator(!null) >> cacheBuilder
-        1 * cacheBuilder.withInitializer(!null) >> {args -> initializer = args[0]; return cacheBuilder}
-        1 * cacheBuilder.open() >> {initializer.execute(cache); return cache}
-        1 * scriptCompilationHandler.compileToDir(source, classLoader, new File(cacheDir, "classes"), transformer, Script, verifier)
-        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(cacheDir, "classes"), Script) >> Script
-        0 * scriptCompilationHandler._
+        1 * scriptCompilationHandler.compileToDir(*_) >> { args -> compileDir = args[2]; compileDir.mkdirs() }
+        0 * index.put(_, _)
+        1 * scriptCompilationHandler.loadFromDir(source, classLoader, new File(scriptDir, "$hash-other"), Script) >> Script
+
+        and:
+        !compileDir.exists()
     }
 
-    def "reports compilation progress even in case of a failure"() {
-        def factory = Mock(ProgressLoggerFactory)
-        def delegate = Mock(Action)
-        def cache = Mock(PersistentCache)
-        def logger = Mock(ProgressLogger)
+    def "hashes script content once"() {
+        given:
+        validator.isValid() >> true
+        index.get(_) >> "$hash-1".toString()
+        scriptCompilationHandler.loadFromDir(*_) >> Script
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+        compiler.compile(source, classLoader, Stub(Transformer), Script, verifier)
 
-        def initializer = new FileCacheBackedScriptClassCompiler.ProgressReportingInitializer(factory, delegate)
+        then:
+        textReads == 1
+    }
+
+    def "opens a single cache for all scripts"() {
+        given:
+        validator.isValid() >> true
+        index.get(_) >> "$hash-1".toString()
+        scriptCompilationHandler.loadFromDir(*_) >> Script
+
+        when:
+        compiler.compile(source, classLoader, transformer, Script, verifier)
+        compiler.compile(source, classLoader, Stub(Transformer), Script, verifier)
+        compiler.close()
+
+        then:
+        1 * cacheBuilder.open() >> cache
+        1 * cache.close()
+    }
+
+    def "reports compilation progress even in case of a failure"() {
+        given:
+        validator.isValid() >> true
+        index.get(_) >> null
 
         when:
-        initializer.execute(cache)
+        compiler.compile(source, classLoader, transformer, Script, verifier)
 
         then:
         def ex = thrown(RuntimeException)
         ex.message == "Boo!"
 
-        1 * factory.newOperation(FileCacheBackedScriptClassCompiler) >> logger
-        1 * logger.start("Compile script into cache", "Compiling script into cache") >> logger
+        1 * progressLogger.start("Compile script into cache", "Compiling script into cache") >> progressLogger
 
         then:
-        1 * delegate.execute(cache) >> { throw new RuntimeException("Boo!")} //stress it a bit with a failure
+        1 * scriptCompilationHandler.compileToDir(*_) >> { args -> args[2].mkdirs(); throw new RuntimeException("Boo!") }
 
         then:
-        1 * logger.completed()
+        1 * progressLogger.completed()
+        0 * index.put(_, _)
+
+        and:
+        scriptDir.list() as List == []
     }
 }
@@ -19,6 +19,7 @@ package org.gradle.internal.service.scopes
 import org.gradle.StartParameter
 import org.gradle.api.internal.*
 import org.gradle.api.internal.artifacts.DependencyManagementServices
+import org.gradle.api.internal.cache.PersistentGeneratedBytecodeCache
 import org.gradle.api.internal.classpath.DefaultModuleRegistry
 import org.gradle.api.internal.classpath.ModuleRegistry
 import org.gradle.api.internal.classpath.PluginModuleRegistry
@@ -35,6 +36,7 @@ import org.gradle.configuration.DefaultScriptPluginFactory
 import org.gradle.configuration.ScriptPluginFactory
 import org.gradle.groovy.scripts.DefaultScriptCompilerFactory
 import org.gradle.groovy.scripts.ScriptCompilerFactory
+import org.gradle.groovy.scripts.internal.CrossBuildScriptClassCache
 import org.gradle.initialization.*
 import org.gradle.internal.Factory
 import org.gradle.internal.classloader.ClassLoaderFactory
@@ -87,6 +89,7 @@ public class BuildScopeServicesTest extends Specification {
         parent.get(PluginRequestApplicator) >> Mock(PluginRequestApplicator)
         parent.get(BuildCancellationToken) >> Mock(BuildCancellationToken)
         parent.get(ClassLoaderCacheFactory) >> Stub(ClassLoaderCacheFactory)
+        parent.get(CrossBuildScriptClassCache) >> new CrossBuildScriptClassCache()
         parent.get(ModelRuleSourceDetector) >> Mock(ModelRuleSourceDetector)
     }
 
@@ -234,12 +237,18 @@ public class BuildScopeServicesTest extends Specification {
     def providesAProjectFactory() {
         setup:
         expectParentServiceLocated(Instantiator)
-        expectParentServiceLocated(ClassGenerator)
         expect:
         assertThat(registry.get(IProjectFactory), instanceOf(ProjectFactory))
         assertThat(registry.get(IProjectFactory), sameInstance(registry.get(IProjectFactory)))
     }
 
+    def providesAClassGeneratorThatReusesPreviouslyGeneratedClasses() {
+        expect:
+        assertThat(registry.get(ClassGenerator), instanceOf(AsmBackedClassGenerator))
+        assertThat(registry.get(ClassGenerator), sameInstance(registry.get(ClassGenerator)))
+        assertThat(registry.get(GeneratedBytecodeCache), instanceOf(PersistentGeneratedBytecodeCache))
+    }
+
     def providesABuildConfigurer() {
         expect:
         assertThat(registry.get(BuildConfigurer), instanceOf(DefaultBuildConfigurer))
@@ -15,14 +15,20 @@
  */
 package org.gradle.logging.internal
 
+import org.gradle.internal.TimeProvider
+import org.gradle.internal.TrueTimeProvider
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
 import spock.lang.Subject
 
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
 class ConsoleBackedProgressRendererTest extends OutputSpecification {
     def listener = Mock(OutputEventListener)
     def console = Mock(Console)
     def statusBar = Mock(Label)
     def statusBarFormatter = new DefaultStatusBarFormatter(Mock(ConsoleMetaData))
+    def consoleLock = new Object()
 
     @Subject renderer = new ConsoleBackedProgressRenderer(listener, console, statusBarFormatter)
 
@@ -217,4 +223,100 @@ class ConsoleBackedProgressRendererTest extends OutputSpecification {
         def e = thrown(RuntimeException)
         e.message.contains('unstarted operation')
     }
+
+    def coalescesStatusBarUpdatesMadeDuringUpdatePeriod() {
+        def timeProvider = Stub(TimeProvider) {
+            getCurrentTime() >> 1000
+        }
+        def updated = new CountDownLatch(1)
+        def throttled = new ConsoleBackedProgressRenderer(listener, console, statusBarFormatter, 100, timeProvider, consoleLock)
+
+        when:
+        throttled.onOutput(start(status: 'first'))
+        throttled.onOutput(progress('second'))
+        throttled.onOutput(progress('third'))
+        updated.await(20, TimeUnit.SECONDS)
+
+        then:
+        1 * statusBar.setText('> first')
+        1 * statusBar.setText('> third') >> { updated.countDown() }
+        0 * statusBar._
+    }
+
+    def updatesStatusBarStraightAwayWhenNoOperationsAreInProgress() {
+        def timeProvider = Stub(TimeProvider) {
+            getCurrentTime() >> 1000
+        }
+        def throttled = new ConsoleBackedProgressRenderer(listener, console, statusBarFormatter, 100, timeProvider, consoleLock)
+
+        when:
+        throttled.onOutput(start(status: 'status'))
+        throttled.onOutput(complete('complete'))
+
+        then:
+        1 * statusBar.setText('> status')
+        1 * statusBar.setText('')
+        0 * statusBar._
+    }
+
+    def numberOfStatusBarUpdatesDoesNotScaleWithNumberOfProgressEvents() {
+        def events = [start(status: 'build')]
+        1000.times { task ->
+            events << start(status: "task $task")
+            5.times { events << progress("step $it") }
+            events << complete('done')
+        }
+        events << complete('done')
+        def throttled = new ConsoleBackedProgressRenderer(listener, console, statusBarFormatter, 100, new TrueTimeProvider(), consoleLock)
+        def updates = []
+
+        when:
+        long startTime = System.nanoTime()
+        events.each { throttled.onOutput(it) }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)
+
+        then:
+        _ * statusBar.setText(_) >> { String text -> updates << text }
+        updates.size() <= elapsedMillis / 100 + 2
+        updates.last() == ''
+    }
+
+    def rendersDeferredUpdateWhileHoldingConsoleLock() {
+        def timeProvider = Stub(TimeProvider) {
+            getCurrentTime() >> 1000
+        }
+        def updated = new CountDownLatch(1)
+        def holdsLock = null
+        def throttled = new ConsoleBackedProgressRenderer(listener, console, statusBarFormatter, 100, timeProvider, consoleLock)
+
+        when:
+        throttled.onOutput(start(status: 'first'))
+        throttled.onOutput(progress('second'))
+        updated.await(20, TimeUnit.SECONDS)
+
+        then:
+        1 * statusBar.setText('> first')
+        1 * statusBar.setText('> second') >> {
+            holdsLock = Thread.holdsLock(consoleLock)
+            updated.countDown()
+        }
+        holdsLock
+    }
+
+    def discardsDeferredUpdateWhenStopped() {
+        def timeProvider = Stub(TimeProvider) {
+            getCurrentTime() >> 1000
+        }
+        def throttled = new ConsoleBackedProgressRenderer(listener, console, statusBarFormatter, 100, timeProvider, consoleLock)
+
+        when:
+        throttled.onOutput(start(status: 'first'))
+        throttled.onOutput(progress('second'))
+        throttled.stop()
+        Thread.sleep(300)
+
+        then:
+        1 * statusBar.setText('> first')
+        0 * statusBar._
+    }
 }
@@ -294,6 +294,80 @@ class OutputEventRendererTest extends OutputSpecification {
         outputs.stdOut.readLines() == ['info']
         outputs.stdErr == ''
     }
+
+    def rendersEventsFromEachThreadInOrderWhenRenderingAsynchronously() {
+        def listener = new TestListener()
+
+        when:
+        renderer.addStandardOutputListener(listener)
+        renderer.startAsyncRendering()
+        def threads = (1..4).collect { thread ->
+            Thread.start {
+                100.times { renderer.onOutput(event("$thread-$it", LogLevel.INFO)) }
+            }
+        }
+        threads*.join()
+        renderer.flush()
+
+        then:
+        def lines = listener.value.readLines()
+        lines.size() == 400
+        (1..4).each { thread ->
+            assert lines.findAll { it.startsWith("$thread-") } == (0..99).collect { "$thread-$it" as String }
+        }
+
+        cleanup:
+        renderer.stopAsyncRendering()
+    }
+
+    def rendersErrorEventBeforeReturningWhenRenderingAsynchronously() {
+        when:
+        renderer.attachSystemOutAndErr()
+        renderer.startAsyncRendering()
+        renderer.onOutput(event('info', LogLevel.INFO))
+        renderer.onOutput(event('error', LogLevel.ERROR))
+
+        then:
+        outputs.stdOut.readLines() == ['info']
+        outputs.stdErr.readLines() == ['error']
+
+        cleanup:
+        renderer.stopAsyncRendering()
+    }
+
+    def rendersQueuedEventsBeforeListenerIsRemoved() {
+        def listener = new TestListener()
+
+        when:
+        renderer.addStandardOutputListener(listener)
+        renderer.startAsyncRendering()
+        10.times { renderer.onOutput(event("message $it", LogLevel.INFO)) }
+        renderer.removeStandardOutputListener(listener)
+        renderer.onOutput(event('ignored', LogLevel.INFO))
+        renderer.stopAsyncRendering()
+
+        then:
+        listener.value.readLines() == (0..9).collect { "message $it" as String }
+    }
+
+    def rethrowsRenderingFailureOnFlush() {
+        def failure = new RuntimeException("broken")
+        OutputEventListener listener = Mock()
+
+        when:
+        renderer.addOutputEventListener(listener)
+        renderer.startAsyncRendering()
+        renderer.onOutput(event('message', LogLevel.INFO))
+        renderer.flush()
+
+        then:
+        1 * listener.onOutput(_) >> { throw failure }
+        def e = thrown(RuntimeException)
+        e == failure
+
+        cleanup:
+        renderer.stopAsyncRendering()
+    }
 }
 
 class TestListener implements StandardOutputListener {
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal
+
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.id.LongIdGenerator
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import static org.gradle.test.fixtures.ConcurrentTestUtil.poll
+
+@Timeout(60)
+class WorkerProcessPoolTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final WorkerProcessPool pool = new WorkerProcessPool(1, TestFiles.resolver(), new LongIdGenerator(), new DefaultExecutorFactory())
+
+    def cleanup() {
+        pool.stop()
+    }
+
+    def "hands out a process started ahead of time for the same command"() {
+        expect:
+        pool.acquire("worker", command("1")) == null
+
+        when:
+        def command = command("12")
+        WorkerProcessPool.PooledProcess process = null
+        poll {
+            process = pool.acquire("worker", command)
+            assert process != null
+        }
+        def handle = process.connect(command.standardInput, command.standardOutput, command.errorOutput)
+
+        then:
+        handle.waitForFinish().exitValue == 12
+    }
+
+    def "process takes on the configuration of the worker"() {
+        def output = new ByteArrayOutputStream()
+        def errorOutput = new ByteArrayOutputStream()
+        def command = command("0")
+        pool.acquire("worker", command)
+
+        when:
+        WorkerProcessPool.PooledProcess process = null
+        poll {
+            process = pool.acquire("worker", command)
+            assert process != null
+        }
+        def handle = process.connect(command.standardInput, output, errorOutput)
+        handle.waitForFinish()
+
+        then:
+        process.displayName == "worker ${process.id}"
+        handle.toString() == process.displayName
+        output.toString().trim() == "args: '${process.displayName}'"
+        errorOutput.toString().trim() == "error output"
+    }
+
+    def "redirects error output of process when the worker does"() {
+        def output = new ByteArrayOutputStream()
+        def command = command("0")
+        command.redirectErrorStream()
+        pool.acquire("worker", command)
+
+        when:
+        WorkerProcessPool.PooledProcess process = null
+        poll {
+            process = pool.acquire("worker", command)
+            assert process != null
+        }
+        process.connect(command.standardInput, output, new ByteArrayOutputStream()).waitForFinish()
+
+        then:
+        output.toString().contains("error output")
+    }
+
+    def "does not hand out a process started for a different command"() {
+        given:
+        pool.acquire("worker", command("1"))
+        poll {
+            assert pool.acquire("worker", command("1")) != null
+        }
+
+        expect:
+        pool.acquire("worker", command("1", "-Dsome.prop=value")) == null
+        pool.acquire("other worker", command("1")) == null
+        pool.acquire("worker", command("1").redirectErrorStream()) == null
+        pool.acquire("worker", command("1").setIgnoreExitValue(true)) == null
+    }
+
+    def "does not hand out processes once stopped"() {
+        given:
+        pool.acquire("worker", command("1"))
+
+        when:
+        pool.stop()
+
+        then:
+        pool.acquire("worker", command("1")) == null
+    }
+
+    private JavaExecHandleBuilder command(String input, String... jvmArgs) {
+        def builder = new JavaExecHandleBuilder(TestFiles.resolver())
+        builder.workingDir = tmpDir.testDirectory
+        builder.main = ExitApp.name
+        builder.classpath(System.getProperty("java.class.path").split(File.pathSeparator))
+        builder.jvmArgs(jvmArgs)
+        builder.standardInput = new ByteArrayInputStream("$input\n".bytes)
+        return builder
+    }
+
+    public static class ExitApp {
+        public static void main(String[] args) {
+            System.out.println("args: " + args.join(" "))
+            System.err.println("error output")
+            System.exit(Integer.parseInt(new BufferedReader(new InputStreamReader(System.in)).readLine()))
+        }
+    }
+}
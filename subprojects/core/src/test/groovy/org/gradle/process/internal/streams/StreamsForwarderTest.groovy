@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.streams
+
+import spock.lang.Specification
+import spock.lang.Timeout
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+@Timeout(60)
+class StreamsForwarderTest extends Specification {
+    def "forwards the output of many processes running concurrently"() {
+        def processes = (1..20).collect { new TestProcess() }
+        def outputs = processes.collect { new ByteArrayOutputStream() }
+        def errors = processes.collect { new ByteArrayOutputStream() }
+        def forwarders = processes.indices.collect { new StreamsForwarder(outputs[it], errors[it], new ByteArrayInputStream(new byte[0]), true) }
+
+        when:
+        processes.indices.each {
+            forwarders[it].connectStreams(processes[it], "process $it")
+            forwarders[it].start()
+        }
+        def writers = processes.indices.collect { index ->
+            Thread.start {
+                100.times {
+                    processes[index].stdout.write("out $index $it\n".bytes)
+                    processes[index].stderr.write("err $index $it\n".bytes)
+                }
+                processes[index].exit()
+            }
+        }
+        writers*.join()
+        forwarders*.stop()
+
+        then:
+        processes.indices.each { index ->
+            assert outputs[index].toString() == (0..<100).collect { "out $index $it\n" }.join('')
+            assert errors[index].toString() == (0..<100).collect { "err $index $it\n" }.join('')
+        }
+    }
+
+    def "a consumer that blocks does not hold up the output of other processes"() {
+        def release = new CountDownLatch(1)
+        def blockedWrite = new CountDownLatch(1)
+        def blockingOutput = new OutputStream() {
+            @Override
+            void write(int b) {
+                write([b] as byte[], 0, 1)
+            }
+
+            @Override
+            void write(byte[] b, int off, int len) {
+                blockedWrite.countDown()
+                release.await()
+            }
+        }
+        def slowProcess = new TestProcess()
+        def slowForwarder = new StreamsForwarder(blockingOutput, new ByteArrayOutputStream(), new ByteArrayInputStream(new byte[0]), true)
+        def process = new TestProcess()
+        def output = new ByteArrayOutputStream()
+        def forwarder = new StreamsForwarder(output, new ByteArrayOutputStream(), new ByteArrayInputStream(new byte[0]), true)
+
+        when:
+        slowForwarder.connectStreams(slowProcess, "slow process")
+        slowForwarder.start()
+        forwarder.connectStreams(process, "process")
+        forwarder.start()
+        slowProcess.stdout.write("blocked\n".bytes)
+        blockedWrite.await(20, TimeUnit.SECONDS)
+        process.stdout.write("forwarded\n".bytes)
+        process.exit()
+        forwarder.stop()
+
+        then:
+        output.toString() == "forwarded\n"
+
+        cleanup:
+        release.countDown()
+        slowProcess.exit()
+        slowForwarder.stop()
+    }
+
+    private static class TestProcess extends Process {
+        final PipedOutputStream stdout = new PipedOutputStream()
+        final PipedOutputStream stderr = new PipedOutputStream()
+        final PipedInputStream stdoutReader = new PipedInputStream(stdout)
+        final PipedInputStream stderrReader = new PipedInputStream(stderr)
+        final ByteArrayOutputStream stdin = new ByteArrayOutputStream()
+
+        void exit() {
+            stdout.close()
+            stderr.close()
+        }
+
+        @Override
+        OutputStream getOutputStream() {
+            return stdin
+        }
+
+        @Override
+        InputStream getInputStream() {
+            return stdoutReader
+        }
+
+        @Override
+        InputStream getErrorStream() {
+            return stderrReader
+        }
+
+        @Override
+        int waitFor() {
+            return 0
+        }
+
+        @Override
+        int exitValue() {
+            return 0
+        }
+
+        @Override
+        void destroy() {
+        }
+    }
+}
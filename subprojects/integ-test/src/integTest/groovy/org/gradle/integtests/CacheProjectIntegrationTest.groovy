@@ -20,6 +20,7 @@ import org.gradle.api.internal.artifacts.ivyservice.CacheLayout
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.UriScriptSource
 import org.gradle.integtests.fixtures.AbstractIntegrationTest
+import org.gradle.internal.hash.HashUtil
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.server.http.MavenHttpRepository
 import org.gradle.test.fixtures.server.http.HttpServer
@@ -38,8 +39,8 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
     TestFile projectDir
     TestFile userHomeDir
     TestFile buildFile
-    TestFile propertiesFile
-    TestFile classFile
+    TestFile scriptCacheDir
+    String scriptClassName
     TestFile artifactsCache
 
     MavenHttpRepository repo
@@ -55,8 +56,8 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
         userHomeDir = executer.gradleUserHomeDir
         buildFile = projectDir.file('build.gradle')
         ScriptSource source = new UriScriptSource("build file", buildFile)
-        propertiesFile = userHomeDir.file("caches/$version/scripts/$source.className/ProjectScript/no_buildscript/cache.properties")
-        classFile = userHomeDir.file("caches/$version/scripts/$source.className/ProjectScript/no_buildscript/classes/${source.className}.class")
+        scriptClassName = source.className
+        scriptCacheDir = userHomeDir.file("caches/$version/scripts/$scriptClassName/ProjectScript/no_buildscript")
         artifactsCache = projectDir.file(".gradle/$version/taskArtifacts/taskArtifacts.bin")
 
         repo = new MavenHttpRepository(server, mavenRepo)
@@ -81,8 +82,13 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
         classFile.assertHasChangedSince(classFileSnapshot)
         classFileSnapshot = classFile.snapshot()
 
+        TestFile previousClassFile = classFile
         testBuild("newTask", "I am new", "--recompile-scripts")
         classFile.assertHasChangedSince(classFileSnapshot)
+
+        // Classes that may still be in use by another build are not replaced in place
+        assert classFile != previousClassFile
+        previousClassFile.assertIsFile()
     }
 
     @Test
@@ -128,6 +134,15 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
         assert dependenciesCache.isDirectory() && dependenciesCache.listFiles().length > 0
     }
 
+    private TestFile getClassFile() {
+        // Each compilation of the script writes its classes to a new directory whose name starts with the hash of the script content
+        String hash = HashUtil.createCompactMD5(buildFile.text)
+        List<TestFile> classFiles = scriptCacheDir.listFiles().findAll { it.directory && it.name.startsWith("$hash-") }.collect { new TestFile(it, "${scriptClassName}.class") }
+        classFiles = classFiles.findAll { it.file }
+        assert !classFiles.empty
+        return classFiles.max { it.lastModified() }
+    }
+
     private TestFile findDependencyCacheDir() {
         def resolverArtifactCache = new TestFile(userHomeDir.file("caches/${CacheLayout.ROOT.getKey()}/${CacheLayout.FILE_STORE.getKey()}"))
         return resolverArtifactCache.file("commons-io/commons-io/")
@@ -137,7 +152,6 @@ public class CacheProjectIntegrationTest extends AbstractIntegrationTest {
         executer.inDirectory(projectDir).withTasks(taskName).withArguments(args).run()
         assertEquals(expected, projectDir.file(TEST_FILE).text)
         classFile.assertIsFile()
-        propertiesFile.assertIsFile()
         artifactsCache.assertIsFile()
     }
 
@@ -17,7 +17,6 @@
 package org.gradle.api.internal.tasks.compile.incremental;
 
 import org.gradle.api.Action;
-import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarChangeProcessor;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
@@ -28,18 +27,16 @@ import org.gradle.api.tasks.incremental.InputFileDetails;
 public class RecompilationSpecProvider {
 
     private final SourceToNameConverter sourceToNameConverter;
-    private final FileOperations fileOperations;
 
-    public RecompilationSpecProvider(SourceToNameConverter sourceToNameConverter, FileOperations fileOperations) {
+    public RecompilationSpecProvider(SourceToNameConverter sourceToNameConverter) {
         this.sourceToNameConverter = sourceToNameConverter;
-        this.fileOperations = fileOperations;
     }
 
     public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot) {
         //creating an action that will be executed against all changes
         RecompilationSpec spec = new RecompilationSpec();
         JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(previousCompilation, sourceToNameConverter);
-        JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(fileOperations, jarClasspathSnapshot, previousCompilation);
+        JarChangeProcessor jarChangeProcessor = new JarChangeProcessor(jarClasspathSnapshot, previousCompilation);
         InputChangeAction action = new InputChangeAction(spec, javaChangeProcessor, jarChangeProcessor);
 
         //go!
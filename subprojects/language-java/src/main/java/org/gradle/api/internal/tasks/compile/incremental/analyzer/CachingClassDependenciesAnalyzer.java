@@ -41,4 +41,12 @@ public class CachingClassDependenciesAnalyzer implements ClassDependenciesAnalyz
             }
         });
     }
+
+    public ClassAnalysis getClassAnalysis(final String className, final byte[] classHash, final byte[] classBytes) {
+        return cache.get(classHash, new Factory<ClassAnalysis>() {
+            public ClassAnalysis create() {
+                return analyzer.getClassAnalysis(className, classHash, classBytes);
+            }
+        });
+    }
 }
@@ -20,4 +20,11 @@ import java.io.File;
 
 public interface ClassDependenciesAnalyzer {
     ClassAnalysis getClassAnalysis(String className, File classFile);
+
+    /**
+     * Analyzes a class that has already been read into memory, e.g. an entry of a jar file.
+     *
+     * @param classHash the hash of the class bytes, as calculated by the caller
+     */
+    ClassAnalysis getClassAnalysis(String className, byte[] classHash, byte[] classBytes);
 }
@@ -30,8 +30,11 @@ import java.util.Set;
 public class DefaultClassDependenciesAnalyzer implements ClassDependenciesAnalyzer {
 
     public ClassAnalysis getClassAnalysis(String className, InputStream input) throws IOException {
+        return analyze(className, new ClassReader(input));
+    }
+
+    private ClassAnalysis analyze(String className, ClassReader reader) {
         ClassRelevancyFilter filter = new ClassRelevancyFilter(className);
-        ClassReader reader = new ClassReader(input);
         ClassDependenciesVisitor visitor = new ClassDependenciesVisitor();
         reader.accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
 
@@ -74,4 +77,8 @@ public class DefaultClassDependenciesAnalyzer implements ClassDependenciesAnalyz
             GFileUtils.closeInputStream(input);
         }
     }
+
+    public ClassAnalysis getClassAnalysis(String className, byte[] classHash, byte[] classBytes) {
+        return analyze(className, new ClassReader(classBytes));
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import java.util.*;
+
+/**
+ * Integer based view of the class dependents graph. Class names are interned as they are discovered and the graph
+ * is walked over their ids, so that no strings need to be hashed during the walk. The transitive dependents are memoized per class.
+ */
+class ClassDependentsIndex {
+
+    private static final int[] DEPENDENCY_TO_ALL = new int[0];
+
+    private final ClassSetAnalysisData data;
+    private final List<String> names = new ArrayList<String>();
+    private final Map<String, Integer> ids = new HashMap<String, Integer>();
+    private final List<int[]> dependents = new ArrayList<int[]>();
+    private final Map<Integer, Set<String>> transitiveDependents = new HashMap<Integer, Set<String>>();
+
+    ClassDependentsIndex(ClassSetAnalysisData data) {
+        this.data = data;
+    }
+
+    /**
+     * Returns the transitive dependents of the given class, excluding the inner classes and the class itself.
+     * Returns null when a dependency to all is reached, as the dependents of such a class are not known.
+     */
+    Set<String> getTransitiveDependents(String className) {
+        int id = idOf(className);
+        if (transitiveDependents.containsKey(id)) {
+            return transitiveDependents.get(id);
+        }
+        Set<String> result = collectTransitiveDependents(id);
+        transitiveDependents.put(id, result);
+        return result;
+    }
+
+    private Set<String> collectTransitiveDependents(int root) {
+        Set<String> result = new HashSet<String>();
+        BitSet visited = new BitSet();
+        int[] stack = new int[16];
+        int size = 0;
+        int[] rootDependents = dependentsOf(root);
+        if (rootDependents == DEPENDENCY_TO_ALL) {
+            return null;
+        }
+        for (int dependent : rootDependents) {
+            if (!visited.get(dependent)) {
+                visited.set(dependent);
+                stack = push(stack, size++, dependent);
+            }
+        }
+        while (size > 0) {
+            int current = stack[--size];
+            String name = names.get(current);
+            if (!name.contains("$")) { //filter out the inner classes
+                result.add(name);
+            }
+            int[] currentDependents = dependentsOf(current);
+            if (currentDependents == DEPENDENCY_TO_ALL) {
+                return null;
+            }
+            for (int dependent : currentDependents) {
+                if (!visited.get(dependent)) {
+                    visited.set(dependent);
+                    stack = push(stack, size++, dependent);
+                }
+            }
+        }
+        result.remove(names.get(root));
+        return Collections.unmodifiableSet(result);
+    }
+
+    private static int[] push(int[] stack, int index, int value) {
+        int[] target = stack;
+        if (index == stack.length) {
+            target = new int[stack.length * 2];
+            System.arraycopy(stack, 0, target, 0, stack.length);
+        }
+        target[index] = value;
+        return target;
+    }
+
+    private int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            id = names.size();
+            ids.put(name, id);
+            names.add(name);
+            dependents.add(null);
+        }
+        return id;
+    }
+
+    private int[] dependentsOf(int id) {
+        int[] result = dependents.get(id);
+        if (result == null) {
+            DependentsSet dependentsSet = data.getDependents(names.get(id));
+            if (dependentsSet == null) {
+                result = new int[0];
+            } else if (dependentsSet instanceof DependencyToAll) {
+                //a dependency to all does not carry dependent classes information
+                result = DEPENDENCY_TO_ALL;
+            } else {
+                Set<String> classes = dependentsSet.getDependentClasses();
+                result = new int[classes.size()];
+                int i = 0;
+                for (String dependent : classes) {
+                    result[i++] = idOf(dependent);
+                }
+            }
+            dependents.set(id, result);
+        }
+        return result;
+    }
+}
@@ -16,7 +16,6 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps;
 
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
@@ -24,6 +23,7 @@ import java.util.Set;
 public class ClassSetAnalysis {
 
     private final ClassSetAnalysisData data;
+    private ClassDependentsIndex index;
 
     public ClassSetAnalysis(ClassSetAnalysisData data) {
         this.data = data;
@@ -49,10 +49,18 @@ public class ClassSetAnalysis {
         if (deps.isDependencyToAll()) {
             return new DependencyToAll();
         }
-        Set<String> result = new HashSet<String>();
-        recurseDependents(new HashSet<String>(), result, deps.getDependentClasses());
-        result.remove(className);
-        return new DefaultDependentsSet(result);
+        Set<String> dependents = getIndex().getTransitiveDependents(className);
+        if (dependents == null) {
+            return new DependencyToAll();
+        }
+        return new DefaultDependentsSet(dependents);
+    }
+
+    private ClassDependentsIndex getIndex() {
+        if (index == null) {
+            index = new ClassDependentsIndex(data);
+        }
+        return index;
     }
 
     public boolean isDependencyToAll(String className) {
@@ -60,19 +68,6 @@ public class ClassSetAnalysis {
         return deps != null && deps.isDependencyToAll();
     }
 
-    private void recurseDependents(Set<String> visited, Set<String> result, Set<String> dependentClasses) {
-        for (String d : dependentClasses) {
-            if (!visited.add(d)) {
-                continue;
-            }
-            if (!d.contains("$")) { //filter out the inner classes
-                result.add(d);
-            }
-            DependentsSet currentDependents = data.getDependents(d);
-            recurseDependents(visited, result, currentDependents.getDependentClasses());
-        }
-    }
-
     public ClassSetAnalysisData getData() {
         return data;
     }
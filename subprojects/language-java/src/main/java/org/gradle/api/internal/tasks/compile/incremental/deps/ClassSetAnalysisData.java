@@ -18,13 +18,9 @@ package org.gradle.api.internal.tasks.compile.incremental.deps;
 
 import org.gradle.messaging.serialize.Decoder;
 import org.gradle.messaging.serialize.Encoder;
-import org.gradle.messaging.serialize.MapSerializer;
-import org.gradle.messaging.serialize.SetSerializer;
 
-import java.util.Map;
-import java.util.Set;
-
-import static org.gradle.messaging.serialize.BaseSerializerFactory.STRING_SERIALIZER;
+import java.io.IOException;
+import java.util.*;
 
 public class ClassSetAnalysisData {
 
@@ -38,46 +34,82 @@ public class ClassSetAnalysisData {
         return dependents.get(className);
     }
 
+    /**
+     * Writes the class names once into a table and refers to them by their index afterwards,
+     * as most class names occur many times as dependents of other classes.
+     */
     public static class Serializer implements org.gradle.messaging.serialize.Serializer<ClassSetAnalysisData> {
 
-        private final MapSerializer<String, DependentsSet> serializer = new MapSerializer<String, DependentsSet>(
-                STRING_SERIALIZER, new DependentsSetSerializer());
-
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            //we only support one kind of data
-            return new ClassSetAnalysisData(serializer.read(decoder));
+            int nameCount = decoder.readSmallInt();
+            String[] names = new String[nameCount];
+            for (int i = 0; i < nameCount; i++) {
+                names[i] = decoder.readString();
+            }
+            int classCount = decoder.readSmallInt();
+            Map<String, DependentsSet> dependents = new HashMap<String, DependentsSet>(classCount * 2);
+            for (int i = 0; i < classCount; i++) {
+                String className = names[decoder.readSmallInt()];
+                dependents.put(className, readDependentsSet(decoder, names));
+            }
+            return new ClassSetAnalysisData(dependents);
         }
 
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            //we only support one kind of data
-            serializer.write(encoder, value.dependents);
+            Map<String, Integer> ids = new LinkedHashMap<String, Integer>();
+            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
+                intern(ids, entry.getKey());
+                if (entry.getValue() instanceof DefaultDependentsSet) {
+                    for (String dependent : entry.getValue().getDependentClasses()) {
+                        intern(ids, dependent);
+                    }
+                }
+            }
+            encoder.writeSmallInt(ids.size());
+            for (String name : ids.keySet()) {
+                encoder.writeString(name);
+            }
+            encoder.writeSmallInt(value.dependents.size());
+            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
+                encoder.writeSmallInt(ids.get(entry.getKey()));
+                writeDependentsSet(encoder, ids, entry.getValue());
+            }
         }
 
-        private static class DependentsSetSerializer implements org.gradle.messaging.serialize.Serializer<DependentsSet> {
-
-            private SetSerializer<String> setSerializer = new SetSerializer<String>(STRING_SERIALIZER, false);
+        private static void intern(Map<String, Integer> ids, String name) {
+            if (!ids.containsKey(name)) {
+                ids.put(name, ids.size());
+            }
+        }
 
-            public DependentsSet read(Decoder decoder) throws Exception {
-                int control = decoder.readSmallInt();
-                if (control == 0) {
-                    return new DependencyToAll();
-                }
-                if (control != 1 && control != 2) {
-                    throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + control);
-                }
-                Set<String> classes = setSerializer.read(decoder);
-                return new DefaultDependentsSet(control == 1, classes);
+        private static DependentsSet readDependentsSet(Decoder decoder, String[] names) throws IOException {
+            int control = decoder.readSmallInt();
+            if (control == 0) {
+                return new DependencyToAll();
+            }
+            if (control != 1 && control != 2) {
+                throw new IllegalArgumentException("Unable to read the data. Unexpected control value: " + control);
             }
+            int count = decoder.readSmallInt();
+            List<String> classes = new ArrayList<String>(count);
+            for (int i = 0; i < count; i++) {
+                classes.add(names[decoder.readSmallInt()]);
+            }
+            return new DefaultDependentsSet(control == 1, classes);
+        }
 
-            public void write(Encoder encoder, DependentsSet value) throws Exception {
-                if (value instanceof DependencyToAll) {
-                    encoder.writeSmallInt(0);
-                } else if (value instanceof DefaultDependentsSet) {
-                    encoder.writeSmallInt(value.isDependencyToAll() ? 1 : 2);
-                    setSerializer.write(encoder, value.getDependentClasses());
-                } else {
-                    throw new IllegalArgumentException("Don't know how to serialize value of type: " + value.getClass() + ", value: " + value);
+        private static void writeDependentsSet(Encoder encoder, Map<String, Integer> ids, DependentsSet value) throws IOException {
+            if (value instanceof DependencyToAll) {
+                encoder.writeSmallInt(0);
+            } else if (value instanceof DefaultDependentsSet) {
+                encoder.writeSmallInt(value.isDependencyToAll() ? 1 : 2);
+                Set<String> classes = value.getDependentClasses();
+                encoder.writeSmallInt(classes.size());
+                for (String dependent : classes) {
+                    encoder.writeSmallInt(ids.get(dependent));
                 }
+            } else {
+                throw new IllegalArgumentException("Don't know how to serialize value of type: " + value.getClass() + ", value: " + value);
             }
         }
     }
@@ -15,15 +15,22 @@
  */
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
-import org.gradle.api.file.FileTree;
-import org.gradle.api.file.FileVisitDetails;
-import org.gradle.api.file.FileVisitor;
+import com.google.common.io.ByteStreams;
+import org.gradle.api.UncheckedIOException;
 import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAccumulator;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 class DefaultJarSnapshotter {
 
@@ -36,23 +43,42 @@ class DefaultJarSnapshotter {
     }
 
     public JarSnapshot createSnapshot(byte[] hash, JarArchive jarArchive) {
-        return createSnapshot(hash, jarArchive.contents, new ClassFilesAnalyzer(analyzer));
-    }
-
-    JarSnapshot createSnapshot(byte[] hash, FileTree classes, final ClassFilesAnalyzer analyzer) {
-        final Map<String, byte[]> hashes = new HashMap<String, byte[]>();
-        classes.visit(new FileVisitor() {
-            public void visitDir(FileVisitDetails dirDetails) {
+        Map<String, byte[]> hashes = new HashMap<String, byte[]>();
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator("");
+        File jarFile = jarArchive.file;
+        if (jarFile.exists()) {
+            try {
+                visitClasses(jarFile, hashes, accumulator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not create snapshot of jar file %s.", jarFile), e);
             }
+        }
+        return new JarSnapshot(new JarSnapshotData(hash, hashes, new ClassSetAnalysisData(accumulator.getDependentsMap())));
+    }
 
-            public void visitFile(FileVisitDetails fileDetails) {
-                analyzer.visitFile(fileDetails);
-                String className = fileDetails.getPath().replaceAll("/", ".").replaceAll("\\.class$", "");
-                byte[] classHash = hasher.hash(fileDetails.getFile());
+    //reads the entries in place, so that no class file needs to be extracted to disk
+    private void visitClasses(File jarFile, Map<String, byte[]> hashes, ClassDependentsAccumulator accumulator) throws IOException {
+        ZipInputStream zip = new ZipInputStream(new BufferedInputStream(new FileInputStream(jarFile)));
+        try {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String path = entry.getName();
+                if (entry.isDirectory() || !path.endsWith(".class")) {
+                    continue;
+                }
+                String className = toClassName(path);
+                byte[] classBytes = ByteStreams.toByteArray(zip);
+                byte[] classHash = hasher.hash(classBytes);
+                ClassAnalysis analysis = analyzer.getClassAnalysis(className, classHash, classBytes);
+                accumulator.addClass(className, analysis.isDependencyToAll(), analysis.getClassDependencies());
                 hashes.put(className, classHash);
             }
-        });
+        } finally {
+            zip.close();
+        }
+    }
 
-        return new JarSnapshot(new JarSnapshotData(hash, hashes, analyzer.getAnalysis()));
+    static String toClassName(String entryPath) {
+        return entryPath.substring(0, entryPath.length() - ".class".length()).replace('/', '.');
     }
-}
\ No newline at end of file
+}
@@ -16,28 +16,41 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
 import java.io.File;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final ExecutorFactory executorFactory;
 
-    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, ExecutorFactory executorFactory) {
         this.jarSnapshotter = jarSnapshotter;
+        this.executorFactory = executorFactory;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
+        Map<File, JarArchive> distinctJars = new LinkedHashMap<File, JarArchive>();
+        for (JarArchive jar : jarArchives) {
+            if (!distinctJars.containsKey(jar.file)) {
+                distinctJars.put(jar.file, jar);
+            }
+        }
+        Map<File, JarSnapshot> snapshots = createJarSnapshots(distinctJars.values());
+
         Map<File, JarSnapshot> jarSnapshots = new HashMap<File, JarSnapshot>();
         Map<File, byte[]> jarHashes = new HashMap<File, byte[]>();
         Set<String> allClasses = new HashSet<String>();
         Set<String> duplicateClasses = new HashSet<String>();
 
+        //iterate over the whole classpath, so that the classes of a jar that is on the classpath more than once are still reported as duplicates
         for (JarArchive jar : jarArchives) {
-            JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
+            JarSnapshot snapshot = snapshots.get(jar.file);
             jarSnapshots.put(jar.file, snapshot);
             jarHashes.put(jar.file, snapshot.getHash());
             for (String c : snapshot.getClasses()) {
@@ -49,4 +62,34 @@ public class JarClasspathSnapshotFactory {
         JarClasspathSnapshotData jarClasspathSnapshotData = new JarClasspathSnapshotData(jarHashes, duplicateClasses);
         return new JarClasspathSnapshot(jarSnapshots, jarClasspathSnapshotData);
     }
+
+    private Map<File, JarSnapshot> createJarSnapshots(Collection<JarArchive> jars) {
+        final Map<File, JarSnapshot> snapshots = new ConcurrentHashMap<File, JarSnapshot>();
+        int workerCount = Math.min(jars.size(), Runtime.getRuntime().availableProcessors());
+        if (workerCount <= 1) {
+            for (JarArchive jar : jars) {
+                snapshots.put(jar.file, jarSnapshotter.createSnapshot(jar));
+            }
+            return snapshots;
+        }
+
+        final Queue<JarArchive> queue = new ConcurrentLinkedQueue<JarArchive>(jars);
+        StoppableExecutor executor = executorFactory.create("Jar snapshotter");
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        JarArchive jar;
+                        while ((jar = queue.poll()) != null) {
+                            snapshots.put(jar.file, jarSnapshotter.createSnapshot(jar));
+                        }
+                    }
+                });
+            }
+        } finally {
+            //waits for the workers and rethrows the first failure
+            executor.stop();
+        }
+        return snapshots;
+    }
 }
@@ -26,6 +26,7 @@ import java.util.Set;
 public class JarSnapshot {
 
     private final JarSnapshotData data;
+    private ClassSetAnalysis analysis;
 
     public JarSnapshot(JarSnapshotData data) {
         this.data = data;
@@ -83,7 +84,11 @@ public class JarSnapshot {
     }
 
     public ClassSetAnalysis getAnalysis() {
-        return new ClassSetAnalysis(data.data);
+        //reused so that the transitive dependents are only calculated once per class
+        if (analysis == null) {
+            analysis = new ClassSetAnalysis(data.data);
+        }
+        return analysis;
     }
 
     public Set<String> getClasses() {
@@ -47,4 +47,18 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
 
         read.dependents["D"] instanceof DependencyToAll
     }
+
+    def "serializes dependents that are not part of the analysis"() {
+        def data = new ClassSetAnalysisData(["A": dependents("B", "Unknown"), "B": dependents("A")])
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.dependents.keySet() == ["A", "B"] as Set
+        read.dependents["A"].dependentClasses == ["B", "Unknown"] as Set
+        read.dependents["B"].dependentClasses == ["A"] as Set
+    }
 }
@@ -55,6 +55,19 @@ class ClassSetAnalysisTest extends Specification {
         !deps.dependencyToAll
     }
 
+    def "is a dependency to all when a transitive dependent is a dependency to all"() {
+        def a = analysis([
+                "A": dependents("B"),
+                "B": new DependencyToAll(),
+                "C": dependents("A")
+        ])
+
+        expect:
+        a.getRelevantDependents("A").dependencyToAll
+        a.getRelevantDependents("C").dependencyToAll
+        a.getRelevantDependents(["C"]).dependencyToAll
+    }
+
     def "recurses nested dependencies"() {
         def a = analysis([
                 "Foo": dependents("Bar"),
@@ -176,4 +189,33 @@ class ClassSetAnalysisTest extends Specification {
         a.isDependencyToAll("C")
         !a.isDependencyToAll("Unknown")
     }
+
+    def "handles dependents that are not part of the analysis"() {
+        def a = analysis([
+                "A": dependents("B"), "B": dependents("Unknown")
+        ])
+        expect:
+        a.getRelevantDependents("A").dependentClasses == ["B", "Unknown"] as Set
+    }
+
+    def "reuses transitive dependents of a class"() {
+        def data = Mock(ClassSetAnalysisData)
+        def a = new ClassSetAnalysis(data)
+
+        when:
+        def first = a.getRelevantDependents("A")
+        def second = a.getRelevantDependents("A")
+        def third = a.getRelevantDependents("B")
+
+        then:
+        3 * data.getDependents("A") >> dependents("B")
+        2 * data.getDependents("B") >> dependents("C")
+        1 * data.getDependents("C") >> dependents()
+        0 * data._
+
+        and:
+        first.dependentClasses == ["B", "C"] as Set
+        second.dependentClasses == ["B", "C"] as Set
+        third.dependentClasses == ["C"] as Set
+    }
 }
@@ -18,12 +18,9 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
-import org.gradle.api.internal.file.collections.DirectoryFileTree
-import org.gradle.api.internal.file.collections.FileTreeAdapter
 import org.gradle.api.internal.hash.Hasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer
-import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -33,33 +30,48 @@ class DefaultJarSnapshotterTest extends Specification {
 
     @Rule TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
     def hasher = Mock(Hasher)
+    def analyzer = Mock(ClassDependenciesAnalyzer)
 
-    @Subject snapshotter = new DefaultJarSnapshotter(hasher, Mock(ClassDependenciesAnalyzer))
+    @Subject snapshotter = new DefaultJarSnapshotter(hasher, analyzer)
 
-    def "creates snapshot for an empty jar"() {
+    def "creates snapshot for a missing jar"() {
         expect:
-        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(new File("a.jar"), new FileTreeAdapter(new DirectoryFileTree(new File("missing")))))
+        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(new File("missing.jar")))
         snapshot.hashes.isEmpty()
         snapshot.analysis
     }
 
-    def "creates snapshot of a jar with classes"() {
-        def f1 = temp.createFile("foo/Foo.class")
-        def f2 = temp.createFile("foo/com/Foo2.class")
-        def analyzer = Mock(ClassFilesAnalyzer)
+    def "creates snapshot of a jar with classes without extracting it"() {
+        temp.file("foo/Foo.class").text = "foo"
+        temp.file("foo/com/Foo2.class").text = "foo2"
+        temp.file("foo/com/readme.txt").text = "not a class"
+        def jar = temp.file("foo.jar")
+        temp.file("foo").zipTo(jar)
 
         when:
-        def snapshot = snapshotter.createSnapshot(new byte[0], new FileTreeAdapter(new DirectoryFileTree(temp.file("foo"))), analyzer)
+        def snapshot = snapshotter.createSnapshot(new byte[0], new JarArchive(jar))
 
         then:
-        2 * analyzer.visitFile(_)
-        1 * hasher.hash(f1)
-        1 * hasher.hash(f2)
-        1 * analyzer.getAnalysis() >> Stub(ClassSetAnalysisData)
+        1 * hasher.hash("foo".bytes) >> [1] as byte[]
+        1 * hasher.hash("foo2".bytes) >> [2] as byte[]
+        1 * analyzer.getClassAnalysis("Foo", [1] as byte[], "foo".bytes) >> new ClassAnalysis([] as Set, false)
+        1 * analyzer.getClassAnalysis("com.Foo2", [2] as byte[], "foo2".bytes) >> new ClassAnalysis(["Foo"] as Set, false)
         0 * _._
 
         and:
         snapshot.hashes.keySet() == ["Foo", "com.Foo2"] as Set
-        snapshot.analysis
+        snapshot.hashes["com.Foo2"] == [2] as byte[]
+        snapshot.analysis.getRelevantDependents("Foo").dependentClasses == ["com.Foo2"] as Set
+    }
+
+    def "converts jar entry path to class name"() {
+        expect:
+        DefaultJarSnapshotter.toClassName(path) == className
+
+        where:
+        path                    | className
+        "Foo.class"             | "Foo"
+        "org/foo/Foo.class"     | "org.foo.Foo"
+        "org/foo/Foo\$Bar.class" | "org.foo.Foo\$Bar"
     }
 }
@@ -16,17 +16,22 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
-import org.gradle.api.file.FileTree
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import spock.lang.Specification
 import spock.lang.Subject
 
 class JarClasspathSnapshotFactoryTest extends Specification {
 
     def snapshotter = Mock(JarSnapshotter)
-    @Subject factory = new JarClasspathSnapshotFactory(snapshotter)
+    def executorFactory = new DefaultExecutorFactory()
+    @Subject factory = new JarClasspathSnapshotFactory(snapshotter, executorFactory)
+
+    def cleanup() {
+        executorFactory.stop()
+    }
 
     def "creates classpath snapshot with correct duplicate classes"() {
-        def jar1 = Stub(JarArchive); def jar2 = Stub(JarArchive); def jar3 = Stub(JarArchive)
+        def jar1 = new JarArchive(new File("f1")); def jar2 = new JarArchive(new File("f2")); def jar3 = new JarArchive(new File("f3"))
 
         def sn1 = Stub(JarSnapshot) { getClasses() >> ["A", "B", "C"] }
         def sn2 = Stub(JarSnapshot) { getClasses() >> ["C", "D"] }
@@ -45,8 +50,8 @@ class JarClasspathSnapshotFactoryTest extends Specification {
     }
 
     def "creates classpath snapshot with correct hashes"() {
-        def jar1 = new JarArchive(new File("f1"), Stub(FileTree))
-        def jar2 = new JarArchive(new File("f2"), Stub(FileTree))
+        def jar1 = new JarArchive(new File("f1"))
+        def jar2 = new JarArchive(new File("f2"))
 
         def sn1 = Stub(JarSnapshot) { getHash() >> new byte[1] }
         def sn2 = Stub(JarSnapshot) { getHash() >> new byte[2] }
@@ -62,4 +67,40 @@ class JarClasspathSnapshotFactoryTest extends Specification {
         s.data.jarHashes[new File("f1")] == new byte[1]
         s.data.jarHashes[new File("f2")] == new byte[2]
     }
+
+    def "snapshots each distinct jar once and reports the classes of a repeated jar as duplicates"() {
+        def jar1 = new JarArchive(new File("f1"))
+        def jar2 = new JarArchive(new File("f2"))
+        def jar1Again = new JarArchive(new File("f1"))
+
+        def sn1 = Stub(JarSnapshot) { getClasses() >> ["A"] }
+        def sn2 = Stub(JarSnapshot) { getClasses() >> ["B"] }
+
+        when:
+        def s = factory.createSnapshot([jar1, jar2, jar1Again])
+
+        then:
+        1 * snapshotter.createSnapshot(jar1) >> sn1
+        1 * snapshotter.createSnapshot(jar2) >> sn2
+        0 * _
+
+        s.getSnapshot(jar1Again) == sn1
+        s.data.duplicateClasses == ["A"] as Set
+    }
+
+    def "propagates failure to snapshot a jar"() {
+        def jar1 = new JarArchive(new File("f1"))
+        def jar2 = new JarArchive(new File("f2"))
+        def failure = new RuntimeException("broken")
+
+        snapshotter.createSnapshot(jar1) >> { throw failure }
+        snapshotter.createSnapshot(jar2) >> Stub(JarSnapshot)
+
+        when:
+        factory.createSnapshot([jar1, jar2])
+
+        then:
+        def e = thrown(RuntimeException)
+        e == failure
+    }
 }
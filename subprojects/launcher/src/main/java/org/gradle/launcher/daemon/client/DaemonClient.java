@@ -185,6 +185,10 @@ public class DaemonClient implements BuildActionExecuter<BuildActionParameters>
                     return handleDaemonDisappearance(build, diagnostics, cancellationToken);
                 } else if (object instanceof OutputEvent) {
                     outputEventListener.onOutput((OutputEvent) object);
+                } else if (object instanceof OutputEventBatch) {
+                    for (OutputEvent event : ((OutputEventBatch) object).getEvents()) {
+                        outputEventListener.onOutput(event);
+                    }
                 } else {
                     return object;
                 }
@@ -19,17 +19,24 @@ import org.gradle.api.internal.specs.ExplainingSpec;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.context.DaemonInstanceDetails;
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
+import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
 import org.gradle.launcher.daemon.registry.DaemonInfo;
 import org.gradle.launcher.daemon.registry.DaemonRegistry;
 import org.gradle.messaging.remote.internal.ConnectException;
 import org.gradle.messaging.remote.internal.OutgoingConnector;
 import org.gradle.messaging.remote.internal.RemoteConnection;
+import org.gradle.util.Clock;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Provides the mechanics of connecting to a daemon, starting one via a given runnable if no suitable daemons are already available.
@@ -40,12 +47,14 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private final DaemonRegistry daemonRegistry;
     protected final OutgoingConnector connector;
     private final DaemonStarter daemonStarter;
+    private final ExecutorFactory executorFactory;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
 
-    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter) {
+    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, ExecutorFactory executorFactory) {
         this.daemonRegistry = daemonRegistry;
         this.connector = connector;
         this.daemonStarter = daemonStarter;
+        this.executorFactory = executorFactory;
     }
 
     public void setConnectTimeout(long connectTimeout) {
@@ -74,15 +83,17 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
+        Clock clock = new Clock();
         DaemonClientConnection connection = findConnection(daemonRegistry.getIdle(), constraint);
-        if (connection != null) {
-            return connection;
+        if (connection == null) {
+            connection = startDaemon(constraint);
         }
-
-        return startDaemon(constraint);
+        LOGGER.info("Connected to daemon {} in {}.", connection.getDaemon(), clock.getTime());
+        return connection;
     }
 
     private DaemonClientConnection findConnection(List<DaemonInfo> daemons, ExplainingSpec<DaemonContext> constraint) {
+        List<DaemonInfo> candidates = new ArrayList<DaemonInfo>();
         for (DaemonInfo daemon : daemons) {
             if (!constraint.isSatisfiedBy(daemon.getContext())) {
                 LOGGER.debug("Found daemon {} however its context does not match the desired criteria.\n"
@@ -90,14 +101,56 @@ public class DefaultDaemonConnector implements DaemonConnector {
                         + "  Looking for a different daemon...", daemon);
                 continue;
             }
+            candidates.add(daemon);
+        }
 
-            try {
-                return connectToDaemon(daemon, new CleanupOnStaleAddress(daemon, true));
-            } catch (ConnectException e) {
-                LOGGER.debug("Cannot connect to daemon {} due to {}. Trying a different daemon...", daemon, e);
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (candidates.size() == 1) {
+            return maybeConnectToCandidate(candidates.get(0));
+        }
+        return connectToFirstAvailable(candidates);
+    }
+
+    /**
+     * Attempts to connect to all of the given daemons at the same time, and uses the first connection to be established. Any other connections are
+     * closed as they are established. Attempts that are still in progress when this method returns, such as those that are cleaning up a stale
+     * address, complete in the background.
+     *
+     * <p>An attempt that fails with an unexpected exception is rethrown when no connection could be established, and logged otherwise.</p>
+     */
+    private DaemonClientConnection connectToFirstAvailable(List<DaemonInfo> candidates) {
+        final ConnectAttempts attempts = new ConnectAttempts(candidates.size());
+        StoppableExecutor executor = executorFactory.create("Connect to daemon");
+        try {
+            for (final DaemonInfo daemon : candidates) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        DaemonClientConnection connection;
+                        try {
+                            connection = maybeConnectToCandidate(daemon);
+                        } catch (Throwable t) {
+                            attempts.failed(daemon, t);
+                            return;
+                        }
+                        attempts.completed(connection);
+                    }
+                });
             }
+            return attempts.awaitFirstConnection();
+        } finally {
+            executor.requestStop();
+        }
+    }
+
+    private DaemonClientConnection maybeConnectToCandidate(DaemonInfo daemon) {
+        try {
+            return connectToDaemon(daemon, new CleanupOnStaleAddress(daemon, true));
+        } catch (ConnectException e) {
+            LOGGER.debug("Cannot connect to daemon {} due to {}. Trying a different daemon...", daemon, e);
+            return null;
         }
-        return null;
     }
 
     public DaemonClientConnection startDaemon(ExplainingSpec<DaemonContext> constraint) {
@@ -142,7 +195,7 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private DaemonClientConnection connectToDaemon(DaemonInstanceDetails daemon, DaemonClientConnection.StaleAddressDetector staleAddressDetector) throws ConnectException {
         RemoteConnection<Object> connection;
         try {
-            connection = connector.connect(daemon.getAddress()).create(getClass().getClassLoader());
+            connection = connector.connect(daemon.getAddress()).create(new DaemonMessageSerializer(getClass().getClassLoader()));
         } catch (ConnectException e) {
             staleAddressDetector.maybeStaleAddress(e);
             throw e;
@@ -150,6 +203,73 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return new DaemonClientConnection(connection, daemon, staleAddressDetector);
     }
 
+    private static class ConnectAttempts {
+        private final Object lock = new Object();
+        private final Map<DaemonInfo, Throwable> failures = new LinkedHashMap<DaemonInfo, Throwable>();
+        private int pending;
+        private DaemonClientConnection connection;
+        private boolean finished;
+
+        ConnectAttempts(int pending) {
+            this.pending = pending;
+        }
+
+        void completed(DaemonClientConnection result) {
+            boolean used = false;
+            synchronized (lock) {
+                pending--;
+                if (result != null && connection == null) {
+                    connection = result;
+                    used = true;
+                }
+                lock.notifyAll();
+            }
+            if (result != null && !used) {
+                result.stop();
+            }
+        }
+
+        void failed(DaemonInfo daemon, Throwable failure) {
+            synchronized (lock) {
+                pending--;
+                if (!finished) {
+                    failures.put(daemon, failure);
+                    lock.notifyAll();
+                    return;
+                }
+            }
+            logFailure(daemon, failure);
+        }
+
+        DaemonClientConnection awaitFirstConnection() {
+            Map<DaemonInfo, Throwable> failures;
+            DaemonClientConnection connection;
+            synchronized (lock) {
+                while (this.connection == null && pending > 0) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+                finished = true;
+                failures = new LinkedHashMap<DaemonInfo, Throwable>(this.failures);
+                connection = this.connection;
+            }
+            if (connection == null && !failures.isEmpty()) {
+                throw UncheckedException.throwAsUncheckedException(failures.values().iterator().next());
+            }
+            for (Map.Entry<DaemonInfo, Throwable> entry : failures.entrySet()) {
+                logFailure(entry.getKey(), entry.getValue());
+            }
+            return connection;
+        }
+
+        private static void logFailure(DaemonInfo daemon, Throwable failure) {
+            LOGGER.warn(String.format("Could not connect to daemon %s.", daemon), failure);
+        }
+    }
+
     private class CleanupOnStaleAddress implements DaemonClientConnection.StaleAddressDetector {
         private final DaemonInstanceDetails daemon;
         private final boolean exposeAsStale;
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.protocol;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.logging.StyledTextOutput;
+import org.gradle.logging.internal.*;
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.internal.Message;
+import org.gradle.messaging.remote.internal.MessageSerializer;
+import org.gradle.messaging.serialize.*;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Serializes the messages exchanged between the daemon client and the daemon. The output events, which make up most of the traffic, are written
+ * in a compact binary form. Other messages are sent only a few times per build and use Java serialization.
+ */
+public class DaemonMessageSerializer implements MessageSerializer<Object> {
+    private static final byte JAVA_SERIALIZED = 0;
+    private static final byte REGISTERED_TYPE = 1;
+    private static final byte OUTPUT_EVENT_BATCH = 2;
+
+    private final ClassLoader classLoader;
+    private final Set<Class<?>> registeredTypes = new HashSet<Class<?>>();
+    private final Serializer<Object> registeredTypesSerializer;
+
+    public DaemonMessageSerializer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        DefaultSerializerRegistry<Object> registry = new DefaultSerializerRegistry<Object>();
+        register(registry, LogEvent.class, new LogEventSerializer());
+        register(registry, StyledTextOutputEvent.class, new StyledTextOutputEventSerializer());
+        register(registry, ProgressStartEvent.class, new ProgressStartEventSerializer());
+        register(registry, ProgressEvent.class, new ProgressEventSerializer());
+        register(registry, ProgressCompleteEvent.class, new ProgressCompleteEventSerializer());
+        register(registry, LogLevelChangeEvent.class, new LogLevelChangeEventSerializer());
+        registeredTypesSerializer = registry.build();
+    }
+
+    private <T> void register(DefaultSerializerRegistry<Object> registry, Class<T> type, Serializer<T> serializer) {
+        registry.register(type, serializer);
+        registeredTypes.add(type);
+    }
+
+    public ObjectReader<Object> newReader(InputStream inputStream, Address localAddress, Address remoteAddress) {
+        final Decoder decoder = new KryoBackedDecoder(inputStream);
+        return new ObjectReader<Object>() {
+            public Object read() throws Exception {
+                byte kind = decoder.readByte();
+                if (kind == OUTPUT_EVENT_BATCH) {
+                    int count = decoder.readSmallInt();
+                    List<OutputEvent> events = new ArrayList<OutputEvent>(count);
+                    for (int i = 0; i < count; i++) {
+                        events.add((OutputEvent) readValue(decoder.readByte(), decoder));
+                    }
+                    return new OutputEventBatch(events);
+                }
+                return readValue(kind, decoder);
+            }
+        };
+    }
+
+    public ObjectWriter<Object> newWriter(OutputStream outputStream) {
+        final KryoBackedEncoder encoder = new KryoBackedEncoder(outputStream);
+        return new ObjectWriter<Object>() {
+            public void write(Object value) throws Exception {
+                if (value instanceof OutputEventBatch) {
+                    List<OutputEvent> events = ((OutputEventBatch) value).getEvents();
+                    encoder.writeByte(OUTPUT_EVENT_BATCH);
+                    encoder.writeSmallInt(events.size());
+                    for (OutputEvent event : events) {
+                        writeValue(event, encoder);
+                    }
+                } else {
+                    writeValue(value, encoder);
+                }
+                encoder.flush();
+            }
+        };
+    }
+
+    private Object readValue(byte kind, Decoder decoder) throws Exception {
+        switch (kind) {
+            case REGISTERED_TYPE:
+                return registeredTypesSerializer.read(decoder);
+            case JAVA_SERIALIZED:
+                return Message.receive(decoder.getInputStream(), classLoader);
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected message kind %d found.", kind));
+        }
+    }
+
+    private void writeValue(Object value, Encoder encoder) throws Exception {
+        if (registeredTypes.contains(value.getClass())) {
+            encoder.writeByte(REGISTERED_TYPE);
+            registeredTypesSerializer.write(encoder, value);
+        } else {
+            encoder.writeByte(JAVA_SERIALIZED);
+            Message.send(value, encoder.getOutputStream());
+        }
+    }
+
+    private static LogLevel readLogLevel(Decoder decoder) throws Exception {
+        int ordinal = decoder.readSmallInt();
+        return ordinal == 0 ? null : LogLevel.values()[ordinal - 1];
+    }
+
+    private static void writeLogLevel(Encoder encoder, LogLevel logLevel) throws Exception {
+        encoder.writeSmallInt(logLevel == null ? 0 : logLevel.ordinal() + 1);
+    }
+
+    private static Long readNullableLong(Decoder decoder) throws Exception {
+        return decoder.readBoolean() ? decoder.readSmallLong() : null;
+    }
+
+    private static void writeNullableLong(Encoder encoder, Long value) throws Exception {
+        encoder.writeBoolean(value != null);
+        if (value != null) {
+            encoder.writeSmallLong(value);
+        }
+    }
+
+    private class LogEventSerializer implements Serializer<LogEvent> {
+        public LogEvent read(Decoder decoder) throws Exception {
+            long timestamp = decoder.readLong();
+            String category = decoder.readNullableString();
+            LogLevel logLevel = readLogLevel(decoder);
+            String message = decoder.readNullableString();
+            Throwable throwable = decoder.readBoolean() ? (Throwable) Message.receive(decoder.getInputStream(), classLoader) : null;
+            return new LogEvent(timestamp, category, logLevel, message, throwable);
+        }
+
+        public void write(Encoder encoder, LogEvent value) throws Exception {
+            encoder.writeLong(value.getTimestamp());
+            encoder.writeNullableString(value.getCategory());
+            writeLogLevel(encoder, value.getLogLevel());
+            encoder.writeNullableString(value.getMessage());
+            encoder.writeBoolean(value.getThrowable() != null);
+            if (value.getThrowable() != null) {
+                Message.send(value.getThrowable(), encoder.getOutputStream());
+            }
+        }
+    }
+
+    private static class StyledTextOutputEventSerializer implements Serializer<StyledTextOutputEvent> {
+        public StyledTextOutputEvent read(Decoder decoder) throws Exception {
+            long timestamp = decoder.readLong();
+            String category = decoder.readNullableString();
+            LogLevel logLevel = readLogLevel(decoder);
+            int count = decoder.readSmallInt();
+            List<StyledTextOutputEvent.Span> spans = new ArrayList<StyledTextOutputEvent.Span>(count);
+            for (int i = 0; i < count; i++) {
+                StyledTextOutput.Style style = StyledTextOutput.Style.values()[decoder.readSmallInt()];
+                spans.add(new StyledTextOutputEvent.Span(style, decoder.readNullableString()));
+            }
+            return new StyledTextOutputEvent(timestamp, category, logLevel, spans);
+        }
+
+        public void write(Encoder encoder, StyledTextOutputEvent value) throws Exception {
+            encoder.writeLong(value.getTimestamp());
+            encoder.writeNullableString(value.getCategory());
+            writeLogLevel(encoder, value.getLogLevel());
+            encoder.writeSmallInt(value.getSpans().size());
+            for (StyledTextOutputEvent.Span span : value.getSpans()) {
+                encoder.writeSmallInt(span.getStyle().ordinal());
+                encoder.writeNullableString(span.getText());
+            }
+        }
+    }
+
+    private static class ProgressStartEventSerializer implements Serializer<ProgressStartEvent> {
+        public ProgressStartEvent read(Decoder decoder) throws Exception {
+            long operationId = decoder.readSmallLong();
+            Long parentOperationId = readNullableLong(decoder);
+            long timestamp = decoder.readLong();
+            String category = decoder.readNullableString();
+            String description = decoder.readNullableString();
+            String shortDescription = decoder.readNullableString();
+            String loggingHeader = decoder.readNullableString();
+            String status = decoder.readNullableString();
+            return new ProgressStartEvent(operationId, parentOperationId, timestamp, category, description, shortDescription, loggingHeader, status);
+        }
+
+        public void write(Encoder encoder, ProgressStartEvent value) throws Exception {
+            encoder.writeSmallLong(value.getOperationId());
+            writeNullableLong(encoder, value.getParentOperationId());
+            encoder.writeLong(value.getTimestamp());
+            encoder.writeNullableString(value.getCategory());
+            encoder.writeNullableString(value.getDescription());
+            encoder.writeNullableString(value.getShortDescription());
+            encoder.writeNullableString(value.getLoggingHeader());
+            encoder.writeNullableString(value.getStatus());
+        }
+    }
+
+    private static class ProgressEventSerializer implements Serializer<ProgressEvent> {
+        public ProgressEvent read(Decoder decoder) throws Exception {
+            long operationId = decoder.readSmallLong();
+            long timestamp = decoder.readLong();
+            String category = decoder.readNullableString();
+            String status = decoder.readNullableString();
+            return new ProgressEvent(operationId, timestamp, category, status);
+        }
+
+        public void write(Encoder encoder, ProgressEvent value) throws Exception {
+            encoder.writeSmallLong(value.getOperationId());
+            encoder.writeLong(value.getTimestamp());
+            encoder.writeNullableString(value.getCategory());
+            encoder.writeNullableString(value.getStatus());
+        }
+    }
+
+    private static class ProgressCompleteEventSerializer implements Serializer<ProgressCompleteEvent> {
+        public ProgressCompleteEvent read(Decoder decoder) throws Exception {
+            long operationId = decoder.readSmallLong();
+            long timestamp = decoder.readLong();
+            String category = decoder.readNullableString();
+            String description = decoder.readNullableString();
+            String status = decoder.readNullableString();
+            return new ProgressCompleteEvent(operationId, timestamp, category, description, status);
+        }
+
+        public void write(Encoder encoder, ProgressCompleteEvent value) throws Exception {
+            encoder.writeSmallLong(value.getOperationId());
+            encoder.writeLong(value.getTimestamp());
+            encoder.writeNullableString(value.getCategory());
+            encoder.writeNullableString(value.getDescription());
+            encoder.writeNullableString(value.getStatus());
+        }
+    }
+
+    private static class LogLevelChangeEventSerializer implements Serializer<LogLevelChangeEvent> {
+        public LogLevelChangeEvent read(Decoder decoder) throws Exception {
+            return new LogLevelChangeEvent(readLogLevel(decoder));
+        }
+
+        public void write(Encoder encoder, LogLevelChangeEvent value) throws Exception {
+            writeLogLevel(encoder, value.getNewLogLevel());
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.gradle.launcher.daemon.server;
 
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCacheFactory;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.initialization.GradleLauncherFactory;
@@ -79,8 +81,8 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new File(get(DaemonDir.class).getVersionedDir(), fileName);
     }
 
-    protected DaemonHealthServices createDaemonHealthServices() {
-        return new DefaultDaemonHealthServices();
+    protected DaemonHealthServices createDaemonHealthServices(InMemoryTaskArtifactCache taskArtifactCache, ClassLoaderCacheFactory classLoaderCacheFactory) {
+        return new DefaultDaemonHealthServices(taskArtifactCache, classLoaderCacheFactory);
     }
 
     protected Daemon createDaemon() {
@@ -19,6 +19,7 @@ import org.gradle.api.Action;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.launcher.daemon.protocol.DaemonMessageSerializer;
 import org.gradle.messaging.remote.Address;
 import org.gradle.messaging.remote.ConnectionAcceptor;
 import org.gradle.messaging.remote.internal.ConnectCompletion;
@@ -63,7 +64,7 @@ public class DaemonTcpServerConnector implements DaemonServerConnector {
 
             Action<ConnectCompletion> connectEvent = new Action<ConnectCompletion>() {
                 public void execute(ConnectCompletion completion) {
-                    handler.handle(new SynchronizedDispatchConnection<Object>(completion.create(getClass().getClassLoader())));
+                    handler.handle(new SynchronizedDispatchConnection<Object>(completion.create(new DaemonMessageSerializer(getClass().getClassLoader()))));
                 }
             };
 
@@ -29,7 +29,9 @@ import org.gradle.messaging.remote.internal.Connection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -45,6 +47,7 @@ public class DefaultDaemonConnection implements DaemonConnection {
     private final DisconnectQueue disconnectQueue;
     private final CancelQueue cancelQueue;
     private final ReceiveQueue receiveQueue;
+    private final OutputEventQueue outputEventQueue;
 
     public DefaultDaemonConnection(final Connection<Object> connection, ExecutorFactory executorFactory) {
         this.connection = connection;
@@ -52,6 +55,7 @@ public class DefaultDaemonConnection implements DaemonConnection {
         disconnectQueue = new DisconnectQueue();
         cancelQueue = new CancelQueue(executorFactory);
         receiveQueue = new ReceiveQueue();
+        outputEventQueue = new OutputEventQueue(connection, executorFactory);
         executor = executorFactory.create("Handler for " + connection.toString());
         executor.execute(new Runnable() {
             public void run() {
@@ -109,28 +113,32 @@ public class DefaultDaemonConnection implements DaemonConnection {
     }
 
     public void daemonUnavailable(DaemonUnavailable unavailable) {
+        outputEventQueue.flush();
         connection.dispatch(unavailable);
     }
 
     public void buildStarted(BuildStarted buildStarted) {
+        outputEventQueue.flush();
         connection.dispatch(buildStarted);
     }
 
     public void logEvent(OutputEvent logEvent) {
-        connection.dispatch(logEvent);
+        outputEventQueue.add(logEvent);
     }
 
     public void completed(Result result) {
+        outputEventQueue.flush();
         connection.dispatch(result);
     }
 
     public void stop() {
+        // 0. Send any queued output events. Blocks until they have been sent or the client has gone away.
         // 1. Stop handling disconnects. Blocks until the handler has finished.
         // 2. Stop the connection. This means that the thread receiving from the connection will receive a null and finish up.
         // 3. Stop receiving incoming messages. Blocks until the receive thread has finished. This will notify the stdin and receive queues to signal end of input.
         // 4. Stop the receive queue, to unblock any threads blocked in receive().
         // 5. Stop handling stdin. Blocks until the handler has finished. Discards any queued input.
-        CompositeStoppable.stoppable(disconnectQueue, connection, executor, receiveQueue, stdinQueue, cancelQueue).stop();
+        CompositeStoppable.stoppable(outputEventQueue, disconnectQueue, connection, executor, receiveQueue, stdinQueue, cancelQueue).stop();
     }
 
     private static abstract class CommandQueue<C extends Command, H> implements Stoppable {
@@ -387,6 +395,136 @@ public class DefaultDaemonConnection implements DaemonConnection {
         }
     }
 
+    /**
+     * Sends output events to the client from a dedicated thread. Events that are queued while a message is being sent are sent together as
+     * a single {@link OutputEventBatch}, so that the number of writes to the connection drops as the rate of events goes up, while a single
+     * event is still sent straight away.
+     */
+    private static class OutputEventQueue implements Stoppable {
+        private static final int MAX_QUEUED_EVENTS = 10000;
+        private final Lock lock = new ReentrantLock();
+        private final Condition condition = lock.newCondition();
+        private final LinkedList<OutputEvent> queue = new LinkedList<OutputEvent>();
+        private final Connection<Object> connection;
+        private final ExecutorFactory executorFactory;
+        private StoppableExecutor executor;
+        private boolean sending;
+        private boolean stopped;
+        private boolean failed;
+
+        private OutputEventQueue(Connection<Object> connection, ExecutorFactory executorFactory) {
+            this.connection = connection;
+            this.executorFactory = executorFactory;
+        }
+
+        public void add(OutputEvent event) {
+            lock.lock();
+            try {
+                while (queue.size() >= MAX_QUEUED_EVENTS && !failed && !stopped) {
+                    await();
+                }
+                if (failed || stopped) {
+                    // The client has gone away, so no point sending it any more output
+                    return;
+                }
+                queue.add(event);
+                if (executor == null) {
+                    executor = executorFactory.create("Output event sender");
+                    executor.execute(new Runnable() {
+                        public void run() {
+                            sendEvents();
+                        }
+                    });
+                }
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Blocks until all queued events have been sent.
+         */
+        public void flush() {
+            lock.lock();
+            try {
+                while ((sending || !queue.isEmpty()) && !failed) {
+                    await();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void stop() {
+            StoppableExecutor executor;
+            lock.lock();
+            try {
+                stopped = true;
+                condition.signalAll();
+                executor = this.executor;
+            } finally {
+                lock.unlock();
+            }
+            if (executor != null) {
+                executor.stop();
+            }
+        }
+
+        private void sendEvents() {
+            while (true) {
+                List<OutputEvent> events;
+                lock.lock();
+                try {
+                    while (queue.isEmpty() && !stopped) {
+                        await();
+                    }
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+                    events = new ArrayList<OutputEvent>(queue);
+                    queue.clear();
+                    sending = true;
+                    condition.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+
+                boolean sent = false;
+                try {
+                    connection.dispatch(events.size() == 1 ? events.get(0) : new OutputEventBatch(events));
+                    sent = true;
+                } catch (Exception e) {
+                    LOGGER.debug("Could not send output events to client.", e);
+                } finally {
+                    lock.lock();
+                    try {
+                        sending = false;
+                        if (!sent) {
+                            failed = true;
+                            queue.clear();
+                        }
+                        condition.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+                if (!sent) {
+                    return;
+                }
+            }
+        }
+
+        // Called under lock
+        private void await() {
+            try {
+                condition.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
     private static class ReceiveQueue implements Stoppable {
         private static final Object END = new Object();
         private final BlockingQueue<Object> queue = new LinkedBlockingQueue<Object>();
@@ -17,6 +17,7 @@
 package org.gradle.launcher.daemon.server;
 
 import org.gradle.internal.concurrent.Synchronizer;
+import org.gradle.launcher.daemon.protocol.OutputEventBatch;
 import org.gradle.logging.internal.OutputEvent;
 import org.gradle.messaging.remote.internal.Connection;
 import org.slf4j.Logger;
@@ -41,7 +42,7 @@ public class SynchronizedDispatchConnection<T> implements Connection<T> {
     }
 
     public void dispatch(final T message) {
-        if (!(message instanceof OutputEvent)) {
+        if (!(message instanceof OutputEvent) && !(message instanceof OutputEventBatch)) {
             LOGGER.debug("thread {}: dispatching {}", Thread.currentThread().getId(), message.getClass());
         }
         sync.synchronize(new Runnable() {
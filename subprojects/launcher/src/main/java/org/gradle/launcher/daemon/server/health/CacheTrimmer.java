@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.health;
+
+import org.gradle.api.internal.changedetection.state.InMemoryTaskArtifactCache;
+import org.gradle.api.internal.initialization.loadercache.ClassLoaderCacheFactory;
+
+/**
+ * Discards the in-memory caches that the daemon keeps across builds, so that the memory they retain can be reclaimed.
+ */
+class CacheTrimmer {
+
+    private final InMemoryTaskArtifactCache taskArtifactCache;
+    private final ClassLoaderCacheFactory classLoaderCacheFactory;
+
+    CacheTrimmer(InMemoryTaskArtifactCache taskArtifactCache, ClassLoaderCacheFactory classLoaderCacheFactory) {
+        this.taskArtifactCache = taskArtifactCache;
+        this.classLoaderCacheFactory = classLoaderCacheFactory;
+    }
+
+    void trimCaches() {
+        taskArtifactCache.clear();
+        classLoaderCacheFactory.clearSharedCache();
+    }
+}
@@ -28,11 +28,13 @@ class DaemonHealthTracker implements DaemonCommandAction {
     private final DaemonStats stats;
     private final DaemonStatus status;
     private final HealthLogger logger;
+    private final CacheTrimmer cacheTrimmer;
 
-    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger) {
+    DaemonHealthTracker(DaemonStats stats, DaemonStatus status, HealthLogger logger, CacheTrimmer cacheTrimmer) {
         this.stats = stats;
         this.status = status;
         this.logger = logger;
+        this.cacheTrimmer = cacheTrimmer;
     }
 
     public void execute(DaemonCommandExecution execution) {
@@ -49,8 +51,19 @@ class DaemonHealthTracker implements DaemonCommandAction {
             stats.buildFinished();
         }
 
-        if(status.isDaemonTired(stats)) {
+        if (status.isDaemonTired(stats)) {
+            if (status.isTenuredExhausted(stats)) {
+                LOG.lifecycle("The daemon will stop at the end of this build as its tenured generation stays nearly full after garbage collection [tenured after gc: {}%, previously: {}%].",
+                        stats.getTenuredUsed(), stats.getPreviousTenuredUsed());
+            } else {
+                LOG.lifecycle("The daemon will stop at the end of this build as it is running low on memory [performance: {}%, memory: {}%].",
+                        stats.getCurrentPerformance(), stats.getMemoryUsed());
+            }
             execution.getDaemonStateControl().requestStop();
+        } else if (status.isUnderMemoryPressure(stats)) {
+            LOG.lifecycle("Trimming the in-memory caches of the daemon as it is running low on memory [tenured after gc: {}%, gc during build: {}%].",
+                    stats.getTenuredUsed(), stats.getLastBuildCollectionTime());
+            cacheTrimmer.trimCaches();
         }
     }
 }
@@ -33,6 +33,12 @@ class DaemonStats {
     private long currentBuildStart;
     private long allBuildsTime;
     private int currentPerformance;
+    private long currentBuildCollectionTimeStart;
+    private int lastBuildCollectionTime;
+    private int tenuredUsed = -1;
+    private int previousTenuredUsed = -1;
+    private long tenuredCollectionCount;
+    private boolean tenuredUsedUpdated;
 
     DaemonStats() {
         this(new Clock(), new TrueTimeProvider(), new MemoryInfo());
@@ -50,19 +56,40 @@ class DaemonStats {
     void buildStarted() {
         ++buildCount;
         currentBuildStart = timeProvider.getCurrentTime();
+        currentBuildCollectionTimeStart = memory.getCollectionTime();
     }
 
     /**
      * Informs the stats that the build finished
      */
     void buildFinished() {
-        allBuildsTime += timeProvider.getCurrentTime() - currentBuildStart;
-        currentPerformance = performance(allBuildsTime, memory);
+        long buildTime = timeProvider.getCurrentTime() - currentBuildStart;
+        allBuildsTime += buildTime;
+        long collectionTime = memory.getCollectionTime();
+        currentPerformance = performance(allBuildsTime, collectionTime);
+        lastBuildCollectionTime = NumberUtil.percentOf(Math.max(0, collectionTime - currentBuildCollectionTimeStart), Math.max(buildTime, 0));
+        long collectionCount = memory.getTenuredCollectionCount();
+        tenuredUsedUpdated = collectionCount > tenuredCollectionCount;
+        if (tenuredUsedUpdated) {
+            //only take a new reading when the tenured generation was collected since the last one, otherwise it would be the same reading again
+            tenuredCollectionCount = collectionCount;
+            previousTenuredUsed = tenuredUsed;
+            tenuredUsed = tenuredUsed(memory);
+        }
+    }
+
+    private static int tenuredUsed(MemoryInfo memoryInfo) {
+        long used = memoryInfo.getTenuredUsedAfterCollection();
+        long max = memoryInfo.getTenuredMax();
+        if (used < 0 || max <= 0) {
+            return -1;
+        }
+        return NumberUtil.percentOf(used, max);
     }
 
-    private static int performance(long totalTime, MemoryInfo memoryInfo) {
+    private static int performance(long totalTime, long collectionTime) {
         //TODO SF consider not showing (or show '-') when getCollectionTime() returns 0
-        return 100 - NumberUtil.percentOf(memoryInfo.getCollectionTime(), totalTime);
+        return 100 - NumberUtil.percentOf(collectionTime, totalTime);
     }
 
     /**
@@ -72,15 +99,49 @@ class DaemonStats {
         return currentPerformance;
     }
 
+    /**
+     * 0-100, the percentage of the last build's time spent in gc
+     */
+    int getLastBuildCollectionTime() {
+        return lastBuildCollectionTime;
+    }
+
+    /**
+     * 0-100, the percentage of the tenured generation still used after it was last collected, as of the end of the last build.
+     * -1 when this is not known.
+     * The reading only changes when the tenured generation has been collected since the previous reading.
+     */
+    int getTenuredUsed() {
+        return tenuredUsed;
+    }
+
+    /**
+     * Whether {@link #getTenuredUsed()} is a new reading taken at the end of the last build, rather than the reading of an earlier build.
+     */
+    boolean isTenuredUsedUpdated() {
+        return tenuredUsedUpdated;
+    }
+
+    /**
+     * Same as {@link #getTenuredUsed()}, as of the collection before the one that {@link #getTenuredUsed()} reports.
+     */
+    int getPreviousTenuredUsed() {
+        return previousTenuredUsed;
+    }
+
     /**
      * elegant description of daemon's health
      */
     String getHealthInfo() {
         if (buildCount == 1) {
             return format("Starting build in new daemon [memory: %s]", NumberUtil.formatBytes(memory.getMaxMemory()));
-        } else {
+        } else if (tenuredUsed < 0) {
             return format("Starting %s build in daemon [uptime: %s, performance: %s%%, memory: %s%% of %s]",
                     NumberUtil.ordinal(buildCount), totalTime.getTime(), currentPerformance, getMemoryUsed(), NumberUtil.formatBytes(memory.getMaxMemory()));
+        } else {
+            return format("Starting %s build in daemon [uptime: %s, performance: %s%%, memory: %s%% of %s, tenured after gc: %s%%, gc during last build: %s%%]",
+                    NumberUtil.ordinal(buildCount), totalTime.getTime(), currentPerformance, getMemoryUsed(), NumberUtil.formatBytes(memory.getMaxMemory()),
+                    tenuredUsed, lastBuildCollectionTime);
         }
     }
 
@@ -24,25 +24,56 @@ class DaemonStatus {
 
     static final String EXPIRE_AT_PROPERTY = "org.gradle.daemon.performance.expire-at";
     static final int DEFAULT_EXPIRE_AT = 80;
+    static final String TRIM_CACHES_AT_PROPERTY = "org.gradle.daemon.performance.trim-caches-at";
+    static final int DEFAULT_TRIM_CACHES_AT = 70;
+    static final int TENURED_EXHAUSTED = 90;
 
     boolean isDaemonTired(DaemonStats stats) {
-        String expireAt = System.getProperty(EXPIRE_AT_PROPERTY);
-        int threshold = parseValue(expireAt, DEFAULT_EXPIRE_AT);
+        int threshold = parseValue(EXPIRE_AT_PROPERTY, DEFAULT_EXPIRE_AT);
         return threshold != 0 //zero means the feature is off
-                && stats.getMemoryUsed() > 85 //the daemon is not tired if the memory is not sufficiently exhausted
+                && (isPerformanceDegraded(stats, threshold) || isTenuredFull(stats));
+    }
+
+    private static boolean isPerformanceDegraded(DaemonStats stats, int threshold) {
+        return stats.getMemoryUsed() > 85 //the daemon is not tired if the memory is not sufficiently exhausted
                 && stats.getCurrentPerformance() <= threshold; //performance below threshold
     }
 
-    private static int parseValue(String expireAt, int defaultValue) {
-        if (expireAt == null) {
+    /**
+     * Whether the daemon is tired because the tenured generation stays nearly full after it is collected.
+     */
+    boolean isTenuredExhausted(DaemonStats stats) {
+        int threshold = parseValue(EXPIRE_AT_PROPERTY, DEFAULT_EXPIRE_AT);
+        return threshold != 0 && isTenuredFull(stats);
+    }
+
+    private static boolean isTenuredFull(DaemonStats stats) {
+        //the tenured generation stayed nearly full after two collections in a row, even though the caches were trimmed after the first one
+        return stats.getTenuredUsed() >= TENURED_EXHAUSTED && stats.getPreviousTenuredUsed() >= TENURED_EXHAUSTED;
+    }
+
+    /**
+     * Whether the memory retained by the daemon between builds is high enough that in-memory caches should be trimmed. Only a new reading of the
+     * retained memory counts, so the caches are trimmed once for each reading rather than after every build until the tenured generation is collected again.
+     */
+    boolean isUnderMemoryPressure(DaemonStats stats) {
+        int threshold = parseValue(TRIM_CACHES_AT_PROPERTY, DEFAULT_TRIM_CACHES_AT);
+        return threshold != 0 //zero means the feature is off
+                && stats.isTenuredUsedUpdated()
+                && stats.getTenuredUsed() >= threshold;
+    }
+
+    private static int parseValue(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
             return defaultValue;
         }
         try {
-            return Integer.parseInt(expireAt);
+            return Integer.parseInt(value);
         } catch (Exception e) {
             throw new GradleException(format(
                     "System property '%s' has incorrect value: '%s'. The value needs to be integer.",
-                    EXPIRE_AT_PROPERTY, expireAt));
+                    property, value));
         }
     }
 }
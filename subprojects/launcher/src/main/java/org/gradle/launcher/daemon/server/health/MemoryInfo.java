@@ -18,13 +18,44 @@ package org.gradle.launcher.daemon.server.health;
 
 import java.lang.management.GarbageCollectorMXBean;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Arrays;
 
 class MemoryInfo {
 
     private final long totalMemory; //this does not change
+    private final MemoryPoolMXBean tenuredPool;
+    private final GarbageCollectorMXBean tenuredCollector;
 
     MemoryInfo() {
         totalMemory = Runtime.getRuntime().maxMemory();
+        tenuredPool = findTenuredPool();
+        tenuredCollector = tenuredPool == null ? null : findCollector(tenuredPool);
+    }
+
+    private static MemoryPoolMXBean findTenuredPool() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            //the name of the pool depends on the collector, e.g. 'PS Old Gen', 'CMS Old Gen', 'G1 Old Gen' or 'Tenured Gen'
+            if (pool.getType() == MemoryType.HEAP && (pool.getName().contains("Old Gen") || pool.getName().contains("Tenured"))) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    private static GarbageCollectorMXBean findCollector(MemoryPoolMXBean pool) {
+        //the young generation collector may manage the tenured pool as well, so pick the collector that manages the most pools,
+        //e.g. 'PS MarkSweep' rather than 'PS Scavenge'. On a tie, pick the later one, as the young generation collector is listed first
+        GarbageCollectorMXBean collector = null;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (Arrays.asList(gc.getMemoryPoolNames()).contains(pool.getName())
+                    && (collector == null || gc.getMemoryPoolNames().length >= collector.getMemoryPoolNames().length)) {
+                collector = gc;
+            }
+        }
+        return collector;
     }
 
     /**
@@ -58,4 +89,31 @@ class MemoryInfo {
         //querying runtime for each invocation
         return Runtime.getRuntime().totalMemory();
     }
+
+    /**
+     * Bytes used in the tenured generation just after it was last collected, that is, the memory retained by long living objects.
+     * Returns -1 when this is not known, e.g. when the collector does not have a tenured generation or it has not been collected yet.
+     */
+    long getTenuredUsedAfterCollection() {
+        MemoryUsage usage = tenuredPool == null ? null : tenuredPool.getCollectionUsage();
+        if (usage == null || getTenuredMax() <= 0 || (usage.getUsed() == 0 && usage.getCommitted() == 0)) {
+            return -1;
+        }
+        return usage.getUsed();
+    }
+
+    /**
+     * Number of times the tenured generation has been collected, or -1 when this is not known.
+     * {@link #getTenuredUsedAfterCollection()} only changes when this number advances.
+     */
+    long getTenuredCollectionCount() {
+        return tenuredCollector == null ? -1 : tenuredCollector.getCollectionCount();
+    }
+
+    /**
+     * Max bytes that the tenured generation can grow to, or -1 when this is not known.
+     */
+    long getTenuredMax() {
+        return tenuredPool == null ? -1 : tenuredPool.getUsage().getMax();
+    }
 }
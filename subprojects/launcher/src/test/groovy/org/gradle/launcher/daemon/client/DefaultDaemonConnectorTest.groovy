@@ -17,6 +17,7 @@ package org.gradle.launcher.daemon.client
 
 import org.gradle.api.internal.specs.ExplainingSpec
 import org.gradle.api.internal.specs.ExplainingSpecs
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.launcher.daemon.context.DaemonContext
 import org.gradle.launcher.daemon.context.DefaultDaemonContext
 import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo
@@ -28,15 +29,22 @@ import org.gradle.messaging.remote.internal.OutgoingConnector
 import org.gradle.messaging.remote.internal.RemoteConnection
 import spock.lang.Specification
 
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+
 class DefaultDaemonConnectorTest extends Specification {
 
     def javaHome = new File("tmp")
     def connectTimeoutSecs = 1
     def daemonCounter = 0
+    def executorFactory = new DefaultExecutorFactory()
+    def stoppedConnections = new CopyOnWriteArrayList()
+    def blockedConnections = [:]
 
     class OutgoingConnectorStub implements OutgoingConnector {
         ConnectCompletion connect(Address address) throws ConnectException {
-            def connection = [:] as RemoteConnection
+            blockedConnections[address.num]?.await()
+            def connection = [stop: { stoppedConnections << address.num }] as RemoteConnection
             // unsure why I can't add this as property in the map-mock above
             connection.metaClass.num = address.num
             return { connection } as ConnectCompletion
@@ -55,7 +63,8 @@ class DefaultDaemonConnectorTest extends Specification {
         def connector = Spy(DefaultDaemonConnector, constructorArgs: [
                 new EmbeddedDaemonRegistry(),
                 Spy(OutgoingConnectorStub),
-                { startBusyDaemon() } as DaemonStarter]
+                { startBusyDaemon() } as DaemonStarter,
+                executorFactory]
         )
         connector.connectTimeout = connectTimeoutSecs * 1000
         connector
@@ -189,4 +198,80 @@ class DefaultDaemonConnectorTest extends Specification {
 
         registry.all.empty
     }
-}
\ No newline at end of file
+
+    def "connect() uses the first connection established when several daemons match spec"() {
+        given:
+        def slowDaemonReleased = new CountDownLatch(1)
+        startIdleDaemon()
+        startIdleDaemon()
+        startIdleDaemon()
+
+        connector.connector.connect({ it.num == 0 }) >> { throw new ConnectException("Problem!", new RuntimeException("foo")) }
+        blockedConnections[1] = slowDaemonReleased
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+
+        then:
+        connection.connection.num == 2
+        stoppedConnections.empty
+
+        when:
+        slowDaemonReleased.countDown()
+        executorFactory.stop()
+
+        then:
+        stoppedConnections == [1]
+        registry.all*.address*.num as Set == [1, 2] as Set
+    }
+
+    def "connect() rethrows unexpected failure when no daemon that matches spec can be connected to"() {
+        given:
+        def failure = new RuntimeException("broken")
+        startIdleDaemon()
+        startIdleDaemon()
+
+        connector.connector.connect({ it.num == 0 }) >> { throw failure }
+        connector.connector.connect({ it.num == 1 }) >> { throw new ConnectException("Problem!", new RuntimeException("foo")) }
+
+        when:
+        connector.connect({ true } as ExplainingSpec)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        numAllDaemons == 1
+    }
+
+    def "connect() ignores unexpected failure when another daemon that matches spec can be connected to"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+
+        connector.connector.connect({ it.num == 0 }) >> { throw new RuntimeException("broken") }
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+        executorFactory.stop()
+
+        then:
+        connection.connection.num == 1
+        stoppedConnections.empty
+        numAllDaemons == 2
+    }
+
+    def "connect() starts a new daemon when no daemon that matches spec can be connected to"() {
+        given:
+        startIdleDaemon()
+        startIdleDaemon()
+
+        connector.connector.connect({ it.num < 2 }) >> { throw new ConnectException("Problem!", new RuntimeException("foo")) }
+
+        when:
+        def connection = connector.connect({ true } as ExplainingSpec)
+
+        then:
+        connection && connection.connection.num == 2
+        registry.all*.address*.num == [2]
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.protocol
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.logging.StyledTextOutput
+import org.gradle.logging.internal.*
+import spock.lang.Specification
+
+class DaemonMessageSerializerTest extends Specification {
+    final DaemonMessageSerializer serializer = new DaemonMessageSerializer(getClass().classLoader)
+
+    def "can serialize LogEvent"() {
+        def failure = new RuntimeException("broken")
+        def event = new LogEvent(1234, "category", LogLevel.WARN, "message", failure)
+
+        when:
+        def result = deserialize(serialize(event))
+
+        then:
+        result instanceof LogEvent
+        result.timestamp == 1234
+        result.category == "category"
+        result.logLevel == LogLevel.WARN
+        result.message == "message"
+        result.throwable.class == RuntimeException
+        result.throwable.message == "broken"
+    }
+
+    def "can serialize StyledTextOutputEvent"() {
+        def event = new StyledTextOutputEvent(1234, "category", LogLevel.LIFECYCLE, new StyledTextOutputEvent.Span(StyledTextOutput.Style.Failure, "fail"), new StyledTextOutputEvent.Span("été\n"))
+
+        when:
+        def result = deserialize(serialize(event))
+
+        then:
+        result instanceof StyledTextOutputEvent
+        result.timestamp == 1234
+        result.category == "category"
+        result.logLevel == LogLevel.LIFECYCLE
+        result.spans*.style == [StyledTextOutput.Style.Failure, StyledTextOutput.Style.Normal]
+        result.spans*.text == ["fail", "été\n"]
+    }
+
+    def "can serialize progress events"() {
+        def start = new ProgressStartEvent(12, null, 1234, "category", "description", "short", "header", "status")
+        def progress = new ProgressEvent(12, 1235, "category", "progress")
+        def complete = new ProgressCompleteEvent(12, 1236, "category", "description", "done")
+
+        when:
+        def result = deserializeMultiple(serialize(start, progress, complete), 3)
+
+        then:
+        result[0] instanceof ProgressStartEvent
+        result[0].operationId == 12
+        result[0].parentOperationId == null
+        result[0].timestamp == 1234
+        result[0].description == "description"
+        result[0].shortDescription == "short"
+        result[0].loggingHeader == "header"
+        result[0].status == "status"
+        result[1] instanceof ProgressEvent
+        result[1].operationId == 12
+        result[1].status == "progress"
+        result[2] instanceof ProgressCompleteEvent
+        result[2].operationId == 12
+        result[2].description == "description"
+        result[2].status == "done"
+    }
+
+    def "can serialize LogLevelChangeEvent"() {
+        when:
+        def result = deserialize(serialize(new LogLevelChangeEvent(LogLevel.DEBUG)))
+
+        then:
+        result instanceof LogLevelChangeEvent
+        result.newLogLevel == LogLevel.DEBUG
+    }
+
+    def "can serialize batch of output events"() {
+        def events = [new LogEvent(1, "a", LogLevel.INFO, "one", null), new ProgressEvent(2, 3, "b", "two"), new LogEvent(4, "c", null, null, null)]
+
+        when:
+        def result = deserialize(serialize(new OutputEventBatch(events)))
+
+        then:
+        result instanceof OutputEventBatch
+        result.events*.class == [LogEvent, ProgressEvent, LogEvent]
+        result.events[0].message == "one"
+        result.events[1].status == "two"
+        result.events[2].logLevel == null
+        result.events[2].message == null
+    }
+
+    def "uses java serialization for other messages"() {
+        def message = new Success("result")
+
+        when:
+        def result = deserializeMultiple(serialize(message, new LogLevelChangeEvent(LogLevel.INFO)), 2)
+
+        then:
+        result[0] instanceof Success
+        result[0].value == "result"
+        result[1] instanceof LogLevelChangeEvent
+    }
+
+    def "output events are smaller than when java serialized"() {
+        def event = new LogEvent(1234, "org.gradle.Category", LogLevel.LIFECYCLE, "some message", null)
+        def javaSerialized = new ByteArrayOutputStream()
+
+        when:
+        def serialized = serialize(event)
+        new ObjectOutputStream(javaSerialized).writeObject(event)
+
+        then:
+        serialized.length * 5 < javaSerialized.size()
+    }
+
+    def serialize(Object... messages) {
+        def outStr = new ByteArrayOutputStream()
+        def writer = serializer.newWriter(outStr)
+        messages.each {
+            writer.write(it)
+        }
+        return outStr.toByteArray()
+    }
+
+    def deserialize(byte[] data) {
+        return serializer.newReader(new ByteArrayInputStream(data), null, null).read()
+    }
+
+    def deserializeMultiple(byte[] data, int count) {
+        def reader = serializer.newReader(new ByteArrayInputStream(data), null, null)
+        def result = []
+        count.times {
+            result << reader.read()
+        }
+        return result
+    }
+}
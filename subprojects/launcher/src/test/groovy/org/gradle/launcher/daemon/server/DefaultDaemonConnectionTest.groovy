@@ -18,10 +18,14 @@ package org.gradle.launcher.daemon.server
 
 import org.gradle.launcher.daemon.protocol.CloseInput
 import org.gradle.launcher.daemon.protocol.ForwardInput
+import org.gradle.launcher.daemon.protocol.OutputEventBatch
+import org.gradle.launcher.daemon.protocol.Success
 import org.gradle.launcher.daemon.server.api.StdinHandler
+import org.gradle.logging.internal.OutputEvent
 import org.gradle.messaging.remote.internal.Connection
 import org.gradle.util.ConcurrentSpecification
 
+import java.util.concurrent.CopyOnWriteArrayList
 import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 
@@ -346,15 +350,55 @@ class DefaultDaemonConnectionTest extends ConcurrentSpecification {
         result == ["incoming1", "incoming2"]
     }
 
+    def "sends output events in order before the result"() {
+        def events = (1..1000).collect { Stub(OutputEvent) }
+        def result = new Success("result")
+
+        when:
+        events.each { daemonConnection.logEvent(it) }
+        daemonConnection.completed(result)
+
+        then:
+        connection.dispatched.last() == result
+        connection.dispatched.subList(0, connection.dispatched.size() - 1).collectMany { it instanceof OutputEventBatch ? it.events : [it] } == events
+    }
+
+    def "discards output events once the client cannot be sent to"() {
+        def event = Stub(OutputEvent)
+
+        given:
+        connection.dispatchFailure = new RuntimeException("broken")
+
+        when:
+        daemonConnection.logEvent(event)
+        daemonConnection.completed(new Success("result"))
+
+        then:
+        thrown(RuntimeException)
+
+        when:
+        daemonConnection.logEvent(event)
+        daemonConnection.stop()
+
+        then:
+        noExceptionThrown()
+    }
+
     static class TestConnection implements Connection<Object> {
         final Object lock = new Object()
         final Object endInput = new Object()
         final LinkedList<Object> receiveQueue = new LinkedList<Object>()
+        final List<Object> dispatched = new CopyOnWriteArrayList<Object>()
+        RuntimeException dispatchFailure
 
         void requestStop() {
         }
 
         void dispatch(Object message) {
+            if (dispatchFailure != null) {
+                throw dispatchFailure
+            }
+            dispatched << message
         }
 
         void queueIncoming(Object message) {
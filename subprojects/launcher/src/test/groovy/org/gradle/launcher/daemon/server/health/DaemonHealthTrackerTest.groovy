@@ -29,7 +29,8 @@ class DaemonHealthTrackerTest extends Specification {
     def stats = Mock(DaemonStats)
     def status = Mock(DaemonStatus)
     def logger = Mock(HealthLogger)
-    def tracker = new DaemonHealthTracker(stats, status, logger)
+    def cacheTrimmer = Mock(CacheTrimmer)
+    def tracker = new DaemonHealthTracker(stats, status, logger, cacheTrimmer)
 
     def "tracks start and complete events"() {
         when: tracker.execute(exec)
@@ -58,6 +59,32 @@ class DaemonHealthTrackerTest extends Specification {
         1 * control.requestStop()
     }
 
+    def "reports why the daemon stops when the tenured generation stays exhausted"() {
+        1 * status.isDaemonTired(stats) >> true
+        1 * status.isTenuredExhausted(stats) >> true
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * stats.getTenuredUsed() >> 95
+        1 * stats.getPreviousTenuredUsed() >> 92
+        0 * stats.getCurrentPerformance()
+        1 * control.requestStop()
+    }
+
+    def "reports why the daemon stops when performance goes down"() {
+        1 * status.isDaemonTired(stats) >> true
+        1 * status.isTenuredExhausted(stats) >> false
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * stats.getCurrentPerformance() >> 50
+        1 * stats.getMemoryUsed() >> 90
+        0 * stats.getTenuredUsed()
+        1 * control.requestStop()
+    }
+
     def "does not stop after the build when performance is acceptable"() {
         1 * status.isDaemonTired(stats) >> false
 
@@ -66,4 +93,25 @@ class DaemonHealthTrackerTest extends Specification {
         then:
         0 * control.requestStop()
     }
+
+    def "trims caches after the build when under memory pressure"() {
+        1 * status.isDaemonTired(stats) >> false
+        1 * status.isUnderMemoryPressure(stats) >> true
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * cacheTrimmer.trimCaches()
+        0 * control.requestStop()
+    }
+
+    def "does not trim caches when the daemon stops after the build"() {
+        1 * status.isDaemonTired(stats) >> true
+
+        when: tracker.execute(exec)
+
+        then:
+        1 * control.requestStop()
+        0 * cacheTrimmer.trimCaches()
+    }
 }
@@ -58,4 +58,75 @@ class DaemonStatsTest extends Specification {
         then:
         stats.healthInfo == String.format("Starting 2nd build in daemon [uptime: 3 mins, performance: 98%%, memory: 50%% of %.1f MB]", 10.0)
     }
+
+    def "tracks tenured generation usage and gc time of the last build"() {
+        clock.getTime() >> "3 mins"
+        time.getCurrentTime() >>> [0, 1000, 2000, 3000]
+
+        memory.getCollectionTime() >>> [0, 10, 10, 110]
+        memory.getCommittedMemory() >> 5000000
+        memory.getMaxMemory() >> 10000000
+        memory.getTenuredMax() >> 1000
+        memory.getTenuredUsedAfterCollection() >>> [500, 800]
+        memory.getTenuredCollectionCount() >>> [1, 2]
+
+        def stats = new DaemonStats(clock, time, memory)
+
+        when:
+        stats.buildStarted()
+        stats.buildFinished()
+        stats.buildStarted()
+        stats.buildFinished()
+
+        then:
+        stats.tenuredUsed == 80
+        stats.previousTenuredUsed == 50
+        stats.lastBuildCollectionTime == 10
+        stats.healthInfo == String.format("Starting 2nd build in daemon [uptime: 3 mins, performance: 95%%, memory: 50%% of %.1f MB, tenured after gc: 80%%, gc during last build: 10%%]", 10.0)
+    }
+
+    def "takes a new tenured generation reading only when the tenured generation was collected"() {
+        time.getCurrentTime() >> 0
+        memory.getTenuredMax() >> 1000
+        memory.getTenuredUsedAfterCollection() >>> [950, 950, 600]
+        memory.getTenuredCollectionCount() >>> [1, 1, 2]
+
+        def stats = new DaemonStats(clock, time, memory)
+
+        when:
+        stats.buildStarted()
+        stats.buildFinished()
+        stats.buildStarted()
+        stats.buildFinished()
+
+        then:
+        stats.tenuredUsed == 95
+        stats.previousTenuredUsed == -1
+        !stats.tenuredUsedUpdated
+
+        when:
+        stats.buildStarted()
+        stats.buildFinished()
+
+        then:
+        stats.tenuredUsed == 60
+        stats.previousTenuredUsed == 95
+        stats.tenuredUsedUpdated
+    }
+
+    def "does not take a tenured generation reading when the collections are not known"() {
+        time.getCurrentTime() >> 0
+        memory.getTenuredMax() >> 1000
+        memory.getTenuredUsedAfterCollection() >> 950
+        memory.getTenuredCollectionCount() >> -1
+
+        def stats = new DaemonStats(clock, time, memory)
+
+        when:
+        stats.buildStarted()
+        stats.buildFinished()
+
+        then:
+        stats.tenuredUsed == -1
+    }
 }
@@ -23,6 +23,7 @@ import spock.lang.Specification
 import spock.lang.Subject
 
 import static org.gradle.launcher.daemon.server.health.DaemonStatus.EXPIRE_AT_PROPERTY
+import static org.gradle.launcher.daemon.server.health.DaemonStatus.TRIM_CACHES_AT_PROPERTY
 
 class DaemonStatusTest extends Specification {
 
@@ -60,4 +61,63 @@ class DaemonStatusTest extends Specification {
         100       | 100  | 60    | false
         75        | 80   | 0     | false
     }
+
+    def "knows when daemon is tired because tenured generation stays exhausted"() {
+        stats.getCurrentPerformance() >> 100
+        stats.getTenuredUsed() >> tenured
+        stats.getPreviousTenuredUsed() >> previousTenured
+
+        expect:
+        status.isDaemonTired(stats) == tired
+        status.isTenuredExhausted(stats) == tired
+
+        where:
+        tenured | previousTenured | tired
+        95      | 92              | true
+        90      | 90              | true
+        95      | 60              | false
+        60      | 95              | false
+        -1      | -1              | false
+    }
+
+    def "tenured generation is not exhausted when the feature is off"() {
+        System.setProperty(EXPIRE_AT_PROPERTY, "0")
+        stats.getTenuredUsed() >> 95
+        stats.getPreviousTenuredUsed() >> 95
+
+        expect:
+        !status.isTenuredExhausted(stats)
+        !status.isDaemonTired(stats)
+    }
+
+    def "daemon tired because of performance is not tired because of the tenured generation"() {
+        stats.getCurrentPerformance() >> 50
+        stats.getMemoryUsed() >> 90
+        stats.getTenuredUsed() >> -1
+        stats.getPreviousTenuredUsed() >> -1
+
+        expect:
+        status.isDaemonTired(stats)
+        !status.isTenuredExhausted(stats)
+    }
+
+    def "knows when daemon is under memory pressure"() {
+        if (threshold != null) {
+            System.setProperty(TRIM_CACHES_AT_PROPERTY, threshold.toString())
+        }
+        stats.getTenuredUsed() >> tenured
+        stats.isTenuredUsedUpdated() >> updated
+
+        expect:
+        status.isUnderMemoryPressure(stats) == pressure
+
+        where:
+        threshold | tenured | updated | pressure
+        null      | 70      | true    | true
+        null      | 70      | false   | false
+        null      | 69      | true    | false
+        null      | -1      | true    | false
+        50        | 60      | true    | true
+        0         | 100     | true    | false
+    }
 }
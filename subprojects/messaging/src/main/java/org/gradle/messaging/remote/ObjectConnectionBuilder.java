@@ -46,8 +46,9 @@ public interface ObjectConnectionBuilder {
     void useParameterSerializer(StatefulSerializer<Object[]> serializer);
 
     /**
-     * Use Java serialization for the parameters of incoming and outgoing method calls, with the specified ClassLoader used to deserialize incoming
-     * method parameters.
+     * Use the default serialization for the parameters of incoming and outgoing method calls, with the specified ClassLoader used to deserialize
+     * incoming method parameters. Parameters of common types, such as strings and numbers, are written in a compact form and all other parameters
+     * are written using Java serialization.
      *
      * <p>This method is generally not required as the ClassLoader is inferred from the incoming and outgoing types.</p>
      *
@@ -18,6 +18,8 @@ package org.gradle.messaging.remote.internal;
 
 import org.gradle.api.Nullable;
 
+import java.util.List;
+
 /**
  * <p>A messaging end-point with some remote, or otherwise unreliable, peer.</p>
  *
@@ -31,6 +33,13 @@ public interface RemoteConnection<T> extends Connection<T> {
      */
     void dispatch(T message) throws MessageIOException;
 
+    /**
+     * Dispatches the given messages, sending them to the peer together rather than one at a time.
+     *
+     * @throws MessageIOException On failure to dispatch the messages to the peer.
+     */
+    void dispatchBatch(List<? extends T> messages) throws MessageIOException;
+
     /**
      * {@inheritDoc}
      * @throws MessageIOException On failure to receive the message from the peer.
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.hub;
+
+import org.gradle.messaging.remote.internal.Message;
+import org.gradle.messaging.serialize.*;
+import org.gradle.messaging.serialize.kryo.StatefulSerializer;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Serializes the parameters of method invocations. Parameters of common types, such as strings and numbers, and of the types that a serializer
+ * has been registered for are written in a compact binary form. Parameters of any other type are written using Java serialization.
+ */
+public class DefaultMethodArgsSerializer implements StatefulSerializer<Object[]> {
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte FILE = 5;
+    private static final byte BYTE_ARRAY = 6;
+    private static final byte REGISTERED_TYPE = 7;
+    private static final byte JAVA_SERIALIZED = 8;
+
+    private final ClassLoader classLoader;
+    private final DefaultSerializerRegistry<Object> registry = new DefaultSerializerRegistry<Object>();
+    private final Set<Class<?>> registeredTypes = new HashSet<Class<?>>();
+
+    public DefaultMethodArgsSerializer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Uses the given serializer for parameters of the given type. Must be called before any readers or writers are created.
+     */
+    public <T> void register(Class<T> type, Serializer<T> serializer) {
+        registry.register(type, serializer);
+        registeredTypes.add(type);
+    }
+
+    public ObjectReader<Object[]> newReader(final Decoder decoder) {
+        final Serializer<Object> registeredTypesSerializer = registry.build();
+        return new ObjectReader<Object[]>() {
+            public Object[] read() throws Exception {
+                int count = decoder.readSmallInt();
+                Object[] params = new Object[count];
+                for (int i = 0; i < params.length; i++) {
+                    params[i] = readParam(decoder, registeredTypesSerializer);
+                }
+                return params;
+            }
+        };
+    }
+
+    public ObjectWriter<Object[]> newWriter(final Encoder encoder) {
+        final Serializer<Object> registeredTypesSerializer = registry.build();
+        return new ObjectWriter<Object[]>() {
+            public void write(Object[] value) throws Exception {
+                encoder.writeSmallInt(value.length);
+                for (Object param : value) {
+                    writeParam(encoder, registeredTypesSerializer, param);
+                }
+            }
+        };
+    }
+
+    private Object readParam(Decoder decoder, Serializer<Object> registeredTypesSerializer) throws Exception {
+        byte tag = decoder.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING:
+                return decoder.readString();
+            case INTEGER:
+                return decoder.readInt();
+            case LONG:
+                return decoder.readLong();
+            case BOOLEAN:
+                return decoder.readBoolean();
+            case FILE:
+                return new File(decoder.readString());
+            case BYTE_ARRAY:
+                return decoder.readBinary();
+            case REGISTERED_TYPE:
+                return registeredTypesSerializer.read(decoder);
+            case JAVA_SERIALIZED:
+                return Message.receive(decoder.getInputStream(), classLoader);
+            default:
+                throw new IllegalArgumentException(String.format("Unexpected parameter tag %d found.", tag));
+        }
+    }
+
+    private void writeParam(Encoder encoder, Serializer<Object> registeredTypesSerializer, Object param) throws Exception {
+        if (param == null) {
+            encoder.writeByte(NULL);
+            return;
+        }
+        Class<?> type = param.getClass();
+        if (type == String.class) {
+            encoder.writeByte(STRING);
+            encoder.writeString((String) param);
+        } else if (type == Integer.class) {
+            encoder.writeByte(INTEGER);
+            encoder.writeInt((Integer) param);
+        } else if (type == Long.class) {
+            encoder.writeByte(LONG);
+            encoder.writeLong((Long) param);
+        } else if (type == Boolean.class) {
+            encoder.writeByte(BOOLEAN);
+            encoder.writeBoolean((Boolean) param);
+        } else if (type == File.class) {
+            encoder.writeByte(FILE);
+            encoder.writeString(((File) param).getPath());
+        } else if (type == byte[].class) {
+            encoder.writeByte(BYTE_ARRAY);
+            encoder.writeBinary((byte[]) param);
+        } else if (registeredTypes.contains(type)) {
+            encoder.writeByte(REGISTERED_TYPE);
+            registeredTypesSerializer.write(encoder, param);
+        } else {
+            encoder.writeByte(JAVA_SERIALIZED);
+            Message.send(param, encoder.getOutputStream());
+        }
+    }
+}
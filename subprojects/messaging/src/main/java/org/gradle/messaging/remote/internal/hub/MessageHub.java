@@ -22,6 +22,7 @@ import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.messaging.dispatch.Dispatch;
 import org.gradle.messaging.remote.internal.Connection;
+import org.gradle.messaging.remote.internal.RemoteConnection;
 import org.gradle.messaging.remote.internal.hub.protocol.*;
 import org.gradle.messaging.remote.internal.hub.queue.EndPointQueue;
 
@@ -279,13 +280,19 @@ public class MessageHub implements AsyncStoppable {
                         } finally {
                             lock.unlock();
                         }
-                        for (Object message : messages) {
-                            InterHubMessage channelMessage = (InterHubMessage) message;
-                            connection.dispatch(channelMessage);
-                            if (message instanceof EndOfStream) {
-                                return;
+                        int count = messages.size();
+                        boolean endOfStream = false;
+                        for (int i = 0; i < messages.size(); i++) {
+                            if (messages.get(i) instanceof EndOfStream) {
+                                count = i + 1;
+                                endOfStream = true;
+                                break;
                             }
                         }
+                        dispatch(messages.subList(0, count));
+                        if (endOfStream) {
+                            return;
+                        }
                         messages.clear();
                     }
                 } finally {
@@ -300,6 +307,17 @@ public class MessageHub implements AsyncStoppable {
                 errorHandler.execute(t);
             }
         }
+
+        private void dispatch(List<InterHubMessage> messages) {
+            if (messages.size() > 1 && connection instanceof RemoteConnection) {
+                // Send everything that has been queued at once, rather than flushing each message separately
+                ((RemoteConnection<InterHubMessage>) connection).dispatchBatch(messages);
+                return;
+            }
+            for (InterHubMessage message : messages) {
+                connection.dispatch(message);
+            }
+        }
     }
 
     private class ChannelDispatch<T> implements Dispatch<T> {
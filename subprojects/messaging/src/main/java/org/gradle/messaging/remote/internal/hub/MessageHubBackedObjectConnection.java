@@ -28,7 +28,6 @@ import org.gradle.messaging.remote.internal.ConnectCompletion;
 import org.gradle.messaging.remote.internal.Connection;
 import org.gradle.messaging.remote.internal.MessageSerializer;
 import org.gradle.messaging.remote.internal.hub.protocol.InterHubMessage;
-import org.gradle.messaging.serialize.kryo.JavaSerializer;
 import org.gradle.messaging.serialize.kryo.StatefulSerializer;
 import org.gradle.messaging.serialize.kryo.TypeSafeSerializer;
 import org.slf4j.Logger;
@@ -81,7 +80,7 @@ public class MessageHubBackedObjectConnection implements ObjectConnection {
 
         StatefulSerializer<Object[]> paramSerializer = this.paramSerializer;
         if (paramSerializer == null) {
-            paramSerializer = new JavaSerializer<Object[]>(methodParamClassLoader);
+            paramSerializer = new DefaultMethodArgsSerializer(methodParamClassLoader);
         }
 
         MessageSerializer<InterHubMessage> serializer = new InterHubMessageSerializer(
@@ -90,6 +90,13 @@ public class MethodInvocationSerializer implements StatefulSerializer<MethodInvo
         static {
             PRIMITIVE_TYPES = new HashMap<String, Class<?>>();
             PRIMITIVE_TYPES.put(Integer.TYPE.getName(), Integer.TYPE);
+            PRIMITIVE_TYPES.put(Long.TYPE.getName(), Long.TYPE);
+            PRIMITIVE_TYPES.put(Boolean.TYPE.getName(), Boolean.TYPE);
+            PRIMITIVE_TYPES.put(Short.TYPE.getName(), Short.TYPE);
+            PRIMITIVE_TYPES.put(Byte.TYPE.getName(), Byte.TYPE);
+            PRIMITIVE_TYPES.put(Character.TYPE.getName(), Character.TYPE);
+            PRIMITIVE_TYPES.put(Float.TYPE.getName(), Float.TYPE);
+            PRIMITIVE_TYPES.put(Double.TYPE.getName(), Double.TYPE);
         }
 
         private final Decoder decoder;
@@ -35,6 +35,7 @@ import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.List;
 
 public class SocketConnection<T> implements RemoteConnection<T> {
     private final SocketChannel socket;
@@ -107,6 +108,21 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
     }
 
+    public void dispatchBatch(List<? extends T> messages) throws MessageIOException {
+        for (T message : messages) {
+            try {
+                objectWriter.write(message);
+            } catch (Exception e) {
+                throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, remoteAddress), e);
+            }
+        }
+        try {
+            outstr.flush();
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not write messages to '%s'.", remoteAddress), e);
+        }
+    }
+
     public void requestStop() {
         CompositeStoppable.stoppable(instr).stop();
     }
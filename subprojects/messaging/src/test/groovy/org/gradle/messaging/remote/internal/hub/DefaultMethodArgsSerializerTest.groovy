@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal.hub
+
+import org.gradle.messaging.serialize.Decoder
+import org.gradle.messaging.serialize.Encoder
+import org.gradle.messaging.serialize.Serializer
+import org.gradle.messaging.serialize.kryo.JavaSerializer
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder
+import org.gradle.messaging.serialize.kryo.StatefulSerializer
+import spock.lang.Specification
+
+class DefaultMethodArgsSerializerTest extends Specification {
+    final serializer = new DefaultMethodArgsSerializer(getClass().classLoader)
+
+    def "serializes parameters of common types"() {
+        def params = [null, "string", 12, 123456789012L, true, new File("some/file"), [1, 2, 3] as byte[]] as Object[]
+
+        when:
+        def result = deserialize(serialize(serializer, params))
+
+        then:
+        result.length == params.length
+        result[0] == null
+        result[1] == "string"
+        result[2] == 12
+        result[3] == 123456789012L
+        result[4] == true
+        result[5] == new File("some/file")
+        result[6] == [1, 2, 3] as byte[]
+    }
+
+    def "uses Java serialization for parameters of other types"() {
+        def params = [[a: "b"], new BigDecimal("12.3"), new IOException("broken")] as Object[]
+
+        when:
+        def result = deserialize(serialize(serializer, params))
+
+        then:
+        result[0] == [a: "b"]
+        result[1] == new BigDecimal("12.3")
+        result[2] instanceof IOException
+        result[2].message == "broken"
+    }
+
+    def "uses registered serializer for parameters of registered type"() {
+        Serializer<BigDecimal> bigDecimalSerializer = Mock()
+
+        given:
+        serializer.register(BigDecimal, bigDecimalSerializer)
+
+        when:
+        def result = deserialize(serialize(serializer, [new BigDecimal("12.3"), "string"] as Object[]))
+
+        then:
+        1 * bigDecimalSerializer.write(_, new BigDecimal("12.3")) >> { Encoder encoder, BigDecimal value -> encoder.writeString(value.toString()) }
+        1 * bigDecimalSerializer.read(_) >> { Decoder decoder -> new BigDecimal(decoder.readString()) }
+        result == [new BigDecimal("12.3"), "string"] as Object[]
+    }
+
+    def "writes common types in fewer bytes than Java serialization"() {
+        def params = ["org.gradle.Category", 12345678L, 3, "some output"] as Object[]
+
+        expect:
+        serialize(serializer, params).length * 3 < serialize(new JavaSerializer<Object[]>(getClass().classLoader), params).length
+    }
+
+    def serialize(StatefulSerializer<Object[]> serializer, Object[] params) {
+        def outStr = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outStr)
+        serializer.newWriter(encoder).write(params)
+        encoder.flush()
+        return outStr.toByteArray()
+    }
+
+    def deserialize(byte[] data) {
+        return serializer.newReader(new KryoBackedDecoder(new ByteArrayInputStream(data))).read()
+    }
+}
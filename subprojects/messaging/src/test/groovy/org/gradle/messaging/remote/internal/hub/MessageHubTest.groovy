@@ -19,6 +19,7 @@ package org.gradle.messaging.remote.internal.hub
 import org.gradle.api.Action
 import org.gradle.messaging.dispatch.Dispatch
 import org.gradle.messaging.remote.internal.Connection
+import org.gradle.messaging.remote.internal.RemoteConnection
 import org.gradle.messaging.remote.internal.hub.protocol.ChannelIdentifier
 import org.gradle.messaging.remote.internal.hub.protocol.ChannelMessage
 import org.gradle.messaging.remote.internal.hub.protocol.EndOfStream
@@ -163,6 +164,22 @@ class MessageHubTest extends ConcurrentSpec {
         0 * _._
     }
 
+    def "dispatches queued outgoing messages to a remote connection as a batch"() {
+        def connection = new MockRemoteConnection()
+
+        when:
+        hub.getOutgoing("channel1", String).dispatch("message1")
+        hub.getOutgoing("channel1", String).dispatch("message2")
+        hub.getOutgoing("channel2", Long).dispatch(12)
+        hub.addConnection(connection)
+        hub.stop()
+
+        then:
+        connection.batches.size() >= 1
+        connection.batches[0].subList(0, 3)*.payload == ["message1", "message2", 12]
+        connection.batches.flatten().size() + connection.dispatched.size() == 4
+    }
+
     def "each outgoing message is dispatched in order to connection"() {
         def messages = new CopyOnWriteArrayList()
         Dispatch<InterHubMessage> outgoing = Mock()
@@ -652,6 +669,40 @@ class MessageHubTest extends ConcurrentSpec {
         }
     }
 
+    private static class MockRemoteConnection implements RemoteConnection<InterHubMessage> {
+        final List<InterHubMessage> dispatched = new CopyOnWriteArrayList<>()
+        final List<List<InterHubMessage>> batches = new CopyOnWriteArrayList<>()
+        private final BlockingQueue<InterHubMessage> incoming = new LinkedBlockingQueue<>()
+
+        void dispatch(InterHubMessage message) {
+            dispatched << message
+            endOnEndOfStream([message])
+        }
+
+        void dispatchBatch(List<? extends InterHubMessage> messages) {
+            batches << new ArrayList<InterHubMessage>(messages)
+            endOnEndOfStream(messages)
+        }
+
+        private void endOnEndOfStream(List<? extends InterHubMessage> messages) {
+            if (messages.any { it instanceof EndOfStream }) {
+                incoming.put(new EndOfStream())
+            }
+        }
+
+        InterHubMessage receive() {
+            def message = incoming.take()
+            return message instanceof EndOfStream ? null : message
+        }
+
+        void requestStop() {
+            throw new UnsupportedOperationException()
+        }
+
+        void stop() {
+        }
+    }
+
     private static class TestConnection implements Connection<InterHubMessage> {
         private final BlockingQueue<InterHubMessage> incoming = new LinkedBlockingQueue<>()
         private final BlockingQueue<InterHubMessage> outgoing = new LinkedBlockingQueue<>()
@@ -95,4 +95,26 @@ class KryoBackedCodecTest extends AbstractCodecTest {
         instr.available() == 0
         decoder.readPosition == 4108
     }
+
+    def "write position does not overflow once more than 2GB have been written"() {
+        def encoder = new KryoBackedEncoder(new OutputStream() {
+            @Override
+            void write(int b) {
+            }
+
+            @Override
+            void write(byte[] b, int off, int len) {
+            }
+        })
+        def bytes = new byte[1024 * 1024]
+
+        when:
+        2049.times {
+            encoder.writeBytes(bytes, 0, bytes.length)
+        }
+        encoder.writeBoolean(true)
+
+        then:
+        encoder.writePosition == 2049L * 1024 * 1024 + 1
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import static org.gradle.performance.measure.Duration.millis
+
+class DslAccessPerformanceTest extends AbstractCrossVersionPerformanceTest {
+    def "access properties of project, conventions, extensions and tasks from build script"() {
+        given:
+        runner.testId = "build script accessing dynamic properties 20000 times"
+        runner.testProject = "withDslAccess"
+        runner.tasksToRun = ['help']
+        runner.maxExecutionTimeRegression = millis(500)
+        runner.targetVersions = ['last']
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance
+
+import spock.lang.Unroll
+
+import static org.gradle.performance.measure.Duration.millis
+
+class ManyTasksPerformanceTest extends AbstractCrossVersionPerformanceTest {
+    @Unroll("create 20000 annotated tasks - daemon: #useDaemon")
+    def "create many tasks with annotated inputs and outputs"() {
+        given:
+        runner.testId = "create 20000 annotated tasks${useDaemon ? ' (daemon)' : ''}"
+        runner.testProject = "withManyTasks"
+        runner.useDaemon = useDaemon
+        runner.tasksToRun = ['help']
+        runner.maxExecutionTimeRegression = millis(1000)
+        runner.targetVersions = ['last']
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        useDaemon << [false, true]
+    }
+}
@@ -35,4 +35,35 @@ class ParallelBuildPerformanceTest extends AbstractCrossBuildPerformanceTest {
         result.assertEveryBuildSucceeds()
     }
 
+    def "parallel test logging"() {
+        given:
+        runner.testId = "parallel test logging"
+        runner.buildSpecifications = [
+                BuildSpecification.forProject("multiVerboseJUnit").displayName("synchronous rendering").tasksToRun("cleanTest", "test").args("--parallel-threads=4").build(),
+                BuildSpecification.forProject("multiVerboseJUnit").displayName("asynchronous rendering").tasksToRun("cleanTest", "test").args("--parallel-threads=4")
+                        .gradleOpts("-Dorg.gradle.logging.async=true").build()
+        ]
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertEveryBuildSucceeds()
+    }
+
+    def "parallel configuration"() {
+        given:
+        runner.testId = "parallel configuration"
+        runner.buildSpecifications = [
+                BuildSpecification.forProject("manyProjects").displayName("serial configuration").tasksToRun("help").build(),
+                BuildSpecification.forProject("manyProjects").displayName("parallel configuration").tasksToRun("help")
+                        .gradleOpts("-Dorg.gradle.configure.parallel=true").build()
+        ]
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertEveryBuildSucceeds()
+    }
 }
@@ -29,74 +29,84 @@ import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Base class for test framework detectors. Test class files may be processed concurrently.
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
 
     private List<File> testClassDirectories;
-    private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final LibraryClassIndex libraryClassIndex;
+    private final ConcurrentMap<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
     private final List<String> knownTestCaseClassNames;
+    private final Object publishLock = new Object();
 
     private File testClassesDirectory;
     private FileCollection testClasspath;
 
-    protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
-        assert classFileExtractionManager != null;
-        this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+    protected AbstractTestFrameworkDetector(LibraryClassIndex libraryClassIndex) {
+        assert libraryClassIndex != null;
+        this.libraryClassIndex = libraryClassIndex;
+        this.superClasses = new ConcurrentHashMap<String, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
     protected abstract T createClassVisitor();
 
-    protected File getSuperTestClassFile(String superClassName) {
+    /**
+     * Reads the super class from the test class directories or, when not found there, from the library jars.
+     *
+     * @return The visitor of the super class, or null when the super class file cannot be found.
+     */
+    protected TestClassVisitor superClassVisitor(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
-
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
+        for (File testClassDirectory : testClassDirectories) {
             final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
             if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
+                return classVisitor(superTestClassFileCandidate);
             }
         }
 
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else { // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
+        // super test class file not in test class directories
+        byte[] superClassBytes = libraryClassIndex.getLibraryClassBytes(superClassName);
+        if (superClassBytes == null) {
+            return null;
         }
+        return classVisitor(superClassName, superClassBytes);
     }
 
-    private void prepareClasspath() {
+    private synchronized void prepareClasspath() {
         if (testClassDirectories != null) {
             return;
         }
 
-        testClassDirectories = new ArrayList<File>();
+        List<File> directories = new ArrayList<File>();
 
         if (testClassesDirectory != null) {
-            testClassDirectories.add(testClassesDirectory);
+            directories.add(testClassesDirectory);
         }
         if (testClasspath != null) {
             for (File file : testClasspath) {
                 if (file.isDirectory()) {
-                    testClassDirectories.add(file);
+                    directories.add(file);
                 } else if (file.isFile() && file.getName().endsWith(".jar")) {
-                    classFileExtractionManager.addLibraryJar(file);
+                    libraryClassIndex.addLibraryJar(file);
                 }
             }
         }
+        testClassDirectories = directories;
     }
 
     public void setTestClassesDirectory(File testClassesDirectory) {
@@ -124,26 +134,44 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         return classVisitor;
     }
 
-    public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+    private TestClassVisitor classVisitor(String className, byte[] classBytes) {
+        final TestClassVisitor classVisitor = createClassVisitor();
+
+        try {
+            final ClassReader classReader = new ClassReader(classBytes);
+            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class " + className, e);
+        }
+
+        return classVisitor;
     }
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
+    public boolean processTestClass(File testClassFile) {
+        return processTestClass(classVisitor(testClassFile), false);
+    }
 
-    protected boolean processSuperClass(File testClassFile) {
-        boolean isTest = false;
+    protected abstract boolean processTestClass(TestClassVisitor classVisitor, boolean superClass);
 
-        Boolean isSuperTest = superClasses.get(testClassFile);
+    /**
+     * Processes the super class with the given name. The result is remembered, as super classes are typically shared by many test classes.
+     *
+     * @return Whether the super class is a test, or null when the super class file cannot be found.
+     */
+    protected Boolean processSuperClass(String superClassName) {
+        Boolean isSuperTest = superClasses.get(superClassName);
 
         if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+            final TestClassVisitor classVisitor = superClassVisitor(superClassName);
+            if (classVisitor == null) {
+                return null;
+            }
+            isSuperTest = processTestClass(classVisitor, true);
 
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
+            superClasses.put(superClassName, isSuperTest);
         }
 
-        return isTest;
+        return isSuperTest;
     }
 
     /**
@@ -153,7 +181,10 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
         if (isTest && !classVisitor.isAbstract() && !superClass) {
             String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
-            testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+            // the test class processor is not thread safe
+            synchronized (publishLock) {
+                testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
+            }
         }
     }
 
@@ -22,23 +22,36 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 
 import java.io.File;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>The detection scan parses the candidate class files concurrently. Detected test classes are passed to the
+ * test class processor as soon as they are found, so tests can start executing while the detection is still running.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
+    private static final File END_OF_CLASS_FILES = new File("");
+
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
-                                   TestClassProcessor testClassProcessor) {
+                                   TestClassProcessor testClassProcessor, ExecutorFactory executorFactory) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
     }
 
     public void run() {
@@ -51,11 +64,37 @@ public class DefaultTestClassScanner implements Runnable {
 
     private void detectionScan() {
         testFrameworkDetector.startDetection(testClassProcessor);
-        candidateClassFiles.visit(new ClassFileVisitor() {
-            public void visitClassFile(FileVisitDetails fileDetails) {
-                testFrameworkDetector.processTestClass(fileDetails.getFile());
+        int detectorCount = Runtime.getRuntime().availableProcessors();
+        final BlockingQueue<File> classFiles = new ArrayBlockingQueue<File>(detectorCount * 64);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+        StoppableExecutor executor = executorFactory.create("Test class detection");
+        try {
+            for (int i = 0; i < detectorCount; i++) {
+                executor.execute(new ClassFileDetector(classFiles, failure));
             }
-        });
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    put(classFiles, fileDetails.getFile());
+                }
+            });
+        } finally {
+            for (int i = 0; i < detectorCount; i++) {
+                put(classFiles, END_OF_CLASS_FILES);
+            }
+            executor.stop();
+        }
+        if (failure.get() != null) {
+            throw UncheckedException.throwAsUncheckedException(failure.get());
+        }
+    }
+
+    private static void put(BlockingQueue<File> classFiles, File classFile) {
+        try {
+            classFiles.put(classFile);
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
     }
 
     private void filenameScan() {
@@ -79,4 +118,35 @@ public class DefaultTestClassScanner implements Runnable {
 
         public abstract void visitClassFile(FileVisitDetails fileDetails);
     }
+
+    /**
+     * Passes class files to the detector until the end marker is reached. Keeps draining the queue after a failure, so that the scanning thread never blocks.
+     */
+    private class ClassFileDetector implements Runnable {
+        private final BlockingQueue<File> classFiles;
+        private final AtomicReference<Throwable> failure;
+
+        public ClassFileDetector(BlockingQueue<File> classFiles, AtomicReference<Throwable> failure) {
+            this.classFiles = classFiles;
+            this.failure = failure;
+        }
+
+        public void run() {
+            try {
+                File classFile;
+                while ((classFile = classFiles.take()) != END_OF_CLASS_FILES) {
+                    if (failure.get() != null) {
+                        continue;
+                    }
+                    try {
+                        testFrameworkDetector.processTestClass(classFile);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.api.GradleException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of the class files contained in library jar files. The class files are read straight from the jar files, without extracting them.
+ * A jar file is only scanned when a class is looked up in it, and only the packages it contains are kept, not its classes. All jars must be
+ * added before classes are read, after that the index can be used concurrently.
+ */
+public class LibraryClassIndex {
+    private final List<LibraryJar> libraryJars = new ArrayList<LibraryJar>();
+
+    /**
+     * Adds the jar file to the index. A class that is also contained in a previously added jar file is read from that jar file.
+     *
+     * @param libraryJar Jar file to add to the index.
+     */
+    public void addLibraryJar(File libraryJar) {
+        libraryJars.add(new LibraryJar(libraryJar));
+    }
+
+    /**
+     * Reads the class file of the given class from the first library jar that contains it.
+     *
+     * @param className Internal name of the class, e.g. {@code org/gradle/Foo}.
+     * @return The content of the class file, or null when no library jar contains the class.
+     */
+    public byte[] getLibraryClassBytes(String className) {
+        int packageEnd = className.lastIndexOf('/');
+        String packageName = packageEnd < 0 ? "" : className.substring(0, packageEnd);
+        String entryName = className + ".class";
+        for (LibraryJar libraryJar : libraryJars) {
+            if (libraryJar.containsPackage(packageName)) {
+                byte[] classBytes = libraryJar.read(entryName);
+                if (classBytes != null) {
+                    return classBytes;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class LibraryJar {
+        private final File jarFile;
+        private Set<String> packages;
+
+        LibraryJar(File jarFile) {
+            this.jarFile = jarFile;
+        }
+
+        synchronized boolean containsPackage(String packageName) {
+            if (packages == null) {
+                packages = listPackages();
+            }
+            return packages.contains(packageName);
+        }
+
+        private Set<String> listPackages() {
+            try {
+                ZipFile zipFile = new ZipFile(jarFile);
+                try {
+                    Set<String> packages = new HashSet<String>();
+                    Enumeration<? extends ZipEntry> entries = zipFile.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry entry = entries.nextElement();
+                        String entryName = entry.getName();
+                        if (!entry.isDirectory() && entryName.endsWith(".class")) {
+                            int packageEnd = entryName.lastIndexOf('/');
+                            packages.add(packageEnd < 0 ? "" : entryName.substring(0, packageEnd));
+                        }
+                    }
+                    return packages;
+                } finally {
+                    zipFile.close();
+                }
+            } catch (IOException e) {
+                throw new GradleException("failed to scan jar file for classes (" + jarFile.getAbsolutePath() + ")", e);
+            }
+        }
+
+        byte[] read(String entryName) {
+            try {
+                ZipFile zipFile = new ZipFile(jarFile);
+                try {
+                    ZipEntry entry = zipFile.getEntry(entryName);
+                    if (entry == null) {
+                        return null;
+                    }
+                    InputStream inputStream = zipFile.getInputStream(entry);
+                    try {
+                        return ByteStreams.toByteArray(inputStream);
+                    } finally {
+                        inputStream.close();
+                    }
+                } finally {
+                    zipFile.close();
+                }
+            } catch (IOException e) {
+                throw new GradleException("failed to read class file " + entryName + " from jar (" + jarFile + ")", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.report;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
+import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GUtil;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks a hash of the results each class page of a report was rendered from, so that pages of classes whose results have
+ * not changed since the previous report do not need to be rendered again.
+ */
+class ClassPageHashes {
+    static final String HASHES_FILE_NAME = ".class-page-hashes.properties";
+
+    private final File reportDir;
+    private final File hashesFile;
+    private final Properties previousHashes;
+    private final Map<String, String> currentHashes = new ConcurrentHashMap<String, String>();
+
+    ClassPageHashes(File reportDir) {
+        this.reportDir = reportDir;
+        this.hashesFile = new File(reportDir, HASHES_FILE_NAME);
+        this.previousHashes = hashesFile.isFile() ? GUtil.loadProperties(hashesFile) : new Properties();
+        // the pages are about to be rewritten, so the previous hashes must not survive a report that fails half way
+        GFileUtils.deleteQuietly(hashesFile);
+    }
+
+    /**
+     * Returns true when the given page was previously rendered from results with the given hash and is still present.
+     */
+    boolean isUpToDate(String page, String hash) {
+        return hash.equals(previousHashes.getProperty(page)) && new File(reportDir, page).isFile();
+    }
+
+    void rendered(String page, String hash) {
+        currentHashes.put(page, hash);
+    }
+
+    void store() {
+        Properties properties = new Properties();
+        properties.putAll(currentHashes);
+        GUtil.saveProperties(properties, hashesFile);
+    }
+
+    /**
+     * Calculates the hash of everything the page of the given class is rendered from, including the output of the class.
+     *
+     * <p>The durations are included as they are shown on the page, so the formatted values are used rather than the raw ones. When a test class is run again,
+     * its durations almost always change and its page is rendered again, as the page would otherwise show the durations of an earlier run. Pages are skipped when
+     * the results of a class are reported again without having been run again, for example when a {@code TestReport} aggregates the results of test tasks that
+     * were up-to-date, or when only some of the test classes were executed.</p>
+     */
+    static String hash(ClassTestResults classResults, TestResultsProvider resultsProvider) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        try {
+            Writer writer = new OutputStreamWriter(new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, digest), "UTF-8");
+            write(writer, GradleVersion.current().getVersion());
+            write(writer, classResults.getName());
+            write(writer, classResults.getFormattedDuration());
+            for (TestResult test : classResults.getTestResults()) {
+                write(writer, test.getName());
+                write(writer, test.getFormattedDuration());
+                write(writer, test.getResultType().name());
+                for (TestFailure failure : test.getFailures()) {
+                    write(writer, failure.getMessage());
+                    write(writer, failure.getStackTrace());
+                }
+            }
+            for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+                write(writer, destination.name());
+                if (resultsProvider.hasOutput(classResults.getId(), destination)) {
+                    resultsProvider.writeAllOutput(classResults.getId(), destination, writer);
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new HashValue(digest.digest()).asHexString();
+    }
+
+    private static void write(Writer writer, String value) throws IOException {
+        if (value != null) {
+            writer.write(value);
+        }
+        writer.write(0);
+    }
+}
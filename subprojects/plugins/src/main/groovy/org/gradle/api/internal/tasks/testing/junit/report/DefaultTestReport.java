@@ -23,6 +23,8 @@ import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.reporting.HtmlReportBuilder;
 import org.gradle.reporting.HtmlReportRenderer;
 import org.gradle.reporting.ReportRenderer;
@@ -30,12 +32,20 @@ import org.gradle.util.Clock;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
 public class DefaultTestReport implements TestReporter {
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
+    private final ExecutorFactory executorFactory;
+
+    public DefaultTestReport(ExecutorFactory executorFactory) {
+        this.executorFactory = executorFactory;
+    }
 
     public void generateReport(TestResultsProvider resultsProvider, File reportDir) {
         LOG.info("Generating HTML test report...");
@@ -68,26 +78,70 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
+    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, final File reportDir) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
-                public void render(AllTestResults model, HtmlReportBuilder output) throws IOException {
-                    PackagePageRenderer packagePageRenderer = new PackagePageRenderer();
-                    ClassPageRenderer classPageRenderer = new ClassPageRenderer(resultsProvider);
-
+                public void render(AllTestResults model, final HtmlReportBuilder output) throws IOException {
                     output.renderHtmlPage("index.html", model, new OverviewPageRenderer());
-                    for (PackageTestResults packageResults : model.getPackages()) {
-                        output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, packagePageRenderer);
-                        for (ClassTestResults classResults : packageResults.getClasses()) {
-                            output.renderHtmlPage(classResults.getBaseUrl(), classResults, classPageRenderer);
+
+                    final ClassPageHashes classPageHashes = new ClassPageHashes(reportDir);
+                    List<Runnable> pages = new ArrayList<Runnable>();
+                    // the page renderers hold the model of the page being rendered, so each page gets its own renderer
+                    for (final PackageTestResults packageResults : model.getPackages()) {
+                        pages.add(new Runnable() {
+                            public void run() {
+                                output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer());
+                            }
+                        });
+                        for (final ClassTestResults classResults : packageResults.getClasses()) {
+                            pages.add(new Runnable() {
+                                public void run() {
+                                    String page = classResults.getBaseUrl();
+                                    String hash = ClassPageHashes.hash(classResults, resultsProvider);
+                                    if (!classPageHashes.isUpToDate(page, hash)) {
+                                        output.renderHtmlPage(page, classResults, new ClassPageRenderer(resultsProvider));
+                                    }
+                                    classPageHashes.rendered(page, hash);
+                                }
+                            });
                         }
                     }
+                    renderPages(pages);
+                    classPageHashes.store();
                 }
             }, reportDir);
         } catch (Exception e) {
             throw new GradleException(String.format("Could not generate test report to '%s'.", reportDir), e);
         }
     }
+
+    private void renderPages(List<Runnable> pages) {
+        int workerCount = Math.min(pages.size(), Runtime.getRuntime().availableProcessors());
+        if (workerCount <= 1) {
+            for (Runnable page : pages) {
+                page.run();
+            }
+            return;
+        }
+
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>(pages);
+        StoppableExecutor executor = executorFactory.create("Test report renderer");
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        Runnable page;
+                        while ((page = queue.poll()) != null) {
+                            page.run();
+                        }
+                    }
+                });
+            }
+        } finally {
+            //waits for the workers and rethrows the first failure
+            executor.stop();
+        }
+    }
 }
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.UncheckedIOException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only file that is memory mapped in chunks of a fixed size, so that files larger than a single mapping can be read.
+ * Chunks are mapped on first use. The returned buffers must be accessed using absolute positions or through a duplicate, as they
+ * are shared between threads.
+ */
+class MappedFile implements Closeable {
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long length;
+    private final int chunkSize;
+    private final MappedByteBuffer[] chunks;
+
+    MappedFile(File file, int chunkSize) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.length = channel.size();
+        this.chunkSize = chunkSize;
+        this.chunks = new MappedByteBuffer[(int) ((length + chunkSize - 1) / chunkSize)];
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the chunk that starts at the given index multiplied by the chunk size.
+     */
+    synchronized ByteBuffer chunk(int index) {
+        MappedByteBuffer chunk = chunks[index];
+        if (chunk == null) {
+            long start = (long) index * chunkSize;
+            try {
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(chunkSize, length - start));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            chunks[index] = chunk;
+        }
+        return chunk;
+    }
+
+    public synchronized void close() throws IOException {
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != null) {
+                unmap(chunks[i]);
+                chunks[i] = null;
+            }
+        }
+        file.close();
+    }
+
+    // Releases the mapping straight away where the JVM allows it, as some platforms do not allow a mapped file to be deleted
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // not supported, the mapping is released once the buffer is garbage collected
+        }
+    }
+}
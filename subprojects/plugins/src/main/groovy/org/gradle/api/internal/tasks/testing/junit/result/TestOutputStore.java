@@ -16,28 +16,52 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
-import com.esotericsoftware.kryo.io.Input;
-import com.esotericsoftware.kryo.io.Output;
-import com.google.common.collect.ImmutableMap;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestOutputEvent;
-import org.gradle.internal.io.RandomAccessFileInputStream;
 import org.gradle.internal.UncheckedException;
-import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
 import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
+/**
+ * Stores the output of tests in a data file, along with an index file that holds the region of the data file that contains the output of each test class and test case.
+ *
+ * <p>The index file contains a header with the number of classes, followed by a record for each class ordered by class id, followed by a record for each test case
+ * ordered by class and then test case id. A class record holds the class id, the stdout and stderr regions of the class, the index of its first test case record and
+ * the number of test case records. A test case record holds the test case id and the stdout and stderr regions of the test case. Regions are stored as the start
+ * position of the first event and the start position of the last event, or -1 when there are no events.</p>
+ *
+ * <p>The reader memory maps both files, so the output of a test class or test case is decoded straight from the mapped data file into the target writer without a
+ * copy of the data on the heap.</p>
+ */
 public class TestOutputStore {
 
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+    private static final int HEADER_SIZE = 4;
+    private static final int CLASS_RECORD_SIZE = 48;
+    private static final int TEST_RECORD_SIZE = 40;
+
     private final File resultsDir;
+    private final int chunkSize;
     private final Charset messageStorageCharset;
 
     public TestOutputStore(File resultsDir) {
+        this(resultsDir, DEFAULT_CHUNK_SIZE);
+    }
+
+    TestOutputStore(File resultsDir, int chunkSize) {
         this.resultsDir = resultsDir;
+        this.chunkSize = chunkSize;
         this.messageStorageCharset = Charset.forName("UTF-8");
     }
 
@@ -58,9 +82,13 @@ public class TestOutputStore {
             stop = -1;
         }
 
-        private Region(long start, long stop) {
-            this.start = start;
-            this.stop = stop;
+        void include(Region region) {
+            if (region.start >= 0 && (start < 0 || region.start < start)) {
+                start = region.start;
+            }
+            if (region.stop > stop) {
+                stop = region.stop;
+            }
         }
     }
 
@@ -124,7 +152,7 @@ public class TestOutputStore {
 
             Region streamRegion = isStdout ? region.stdOutRegion : region.stdErrRegion;
 
-            int total = output.getWritePosition();
+            long total = output.getWritePosition();
             if (streamRegion.start < 0) {
                 streamRegion.start = total;
             }
@@ -132,93 +160,70 @@ public class TestOutputStore {
         }
 
         private void writeIndex() {
-            Output indexOutput;
+            SortedMap<Long, SortedMap<Long, TestCaseRegion>> sortedIndex = new TreeMap<Long, SortedMap<Long, TestCaseRegion>>();
+            for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
+                sortedIndex.put(classEntry.getKey(), new TreeMap<Long, TestCaseRegion>(classEntry.getValue()));
+            }
+
+            DataOutputStream indexOutput;
             try {
-                indexOutput = new Output(new FileOutputStream(getIndexFile()));
+                indexOutput = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getIndexFile())));
             } catch (FileNotFoundException e) {
                 throw new UncheckedIOException(e);
             }
 
-
             try {
-                indexOutput.writeInt(index.size(), true);
-
-                for (Map.Entry<Long, Map<Long, TestCaseRegion>> classEntry : index.entrySet()) {
-                    Long classId = classEntry.getKey();
-                    Map<Long, TestCaseRegion> regions = classEntry.getValue();
-
-                    indexOutput.writeLong(classId, true);
-                    indexOutput.writeInt(regions.size(), true);
-
-                    for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
-                        long id = testCaseEntry.getKey();
-                        TestCaseRegion region = testCaseEntry.getValue();
-                        indexOutput.writeLong(id, true);
-                        indexOutput.writeLong(region.stdOutRegion.start);
-                        indexOutput.writeLong(region.stdOutRegion.stop);
-                        indexOutput.writeLong(region.stdErrRegion.start);
-                        indexOutput.writeLong(region.stdErrRegion.stop);
+                try {
+                    indexOutput.writeInt(sortedIndex.size());
+
+                    int firstTestRecord = 0;
+                    for (Map.Entry<Long, SortedMap<Long, TestCaseRegion>> classEntry : sortedIndex.entrySet()) {
+                        Map<Long, TestCaseRegion> regions = classEntry.getValue();
+                        Region stdOutRegion = new Region();
+                        Region stdErrRegion = new Region();
+                        for (TestCaseRegion region : regions.values()) {
+                            stdOutRegion.include(region.stdOutRegion);
+                            stdErrRegion.include(region.stdErrRegion);
+                        }
+
+                        indexOutput.writeLong(classEntry.getKey());
+                        writeRegion(indexOutput, stdOutRegion);
+                        writeRegion(indexOutput, stdErrRegion);
+                        indexOutput.writeInt(firstTestRecord);
+                        indexOutput.writeInt(regions.size());
+                        firstTestRecord += regions.size();
+                    }
+
+                    for (SortedMap<Long, TestCaseRegion> regions : sortedIndex.values()) {
+                        for (Map.Entry<Long, TestCaseRegion> testCaseEntry : regions.entrySet()) {
+                            indexOutput.writeLong(testCaseEntry.getKey());
+                            writeRegion(indexOutput, testCaseEntry.getValue().stdOutRegion);
+                            writeRegion(indexOutput, testCaseEntry.getValue().stdErrRegion);
+                        }
                     }
+                } finally {
+                    indexOutput.close();
                 }
-            } finally {
-                indexOutput.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
-    }
-
-    public Writer writer() {
-        return new Writer();
-    }
-
-    private static class Index {
-        final ImmutableMap<Long, Index> children;
-        final Region stdOut;
-        final Region stdErr;
-
-        private Index(Region stdOut, Region stdErr) {
-            this.children = ImmutableMap.of();
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
-        }
 
-        private Index(ImmutableMap<Long, Index> children, Region stdOut, Region stdErr) {
-            this.children = children;
-            this.stdOut = stdOut;
-            this.stdErr = stdErr;
+        private void writeRegion(DataOutputStream indexOutput, Region region) throws IOException {
+            indexOutput.writeLong(region.start);
+            indexOutput.writeLong(region.stop);
         }
     }
 
-    private static class IndexBuilder {
-        final Region stdOut = new Region();
-        final Region stdErr = new Region();
-
-        private final ImmutableMap.Builder<Long, Index> children = ImmutableMap.builder();
-
-        void add(long key, Index index) {
-            if (stdOut.start < 0) {
-                stdOut.start = index.stdOut.start;
-            }
-            if (stdErr.start < 0) {
-                stdErr.start = index.stdErr.start;
-            }
-            if (index.stdOut.stop > stdOut.stop) {
-                stdOut.stop = index.stdOut.stop;
-            }
-            if (index.stdErr.stop > stdErr.stop) {
-                stdErr.stop = index.stdErr.stop;
-            }
-
-            children.put(key, index);
-        }
-
-        Index build() {
-            return new Index(children.build(), stdOut, stdErr);
-        }
+    public Writer writer() {
+        return new Writer();
     }
 
     public class Reader implements Closeable {
-        private final Index index;
-        private final RandomAccessFile dataFile;
+        private final MappedFile indexFile;
+        private final MappedFile dataFile;
+        private final ByteBuffer index;
+        private final int classCount;
 
         public Reader() {
             File indexFile = getIndexFile();
@@ -229,41 +234,12 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' exists but the index file '%s' does not", outputsFile, indexFile));
                 }
 
-                Input input;
                 try {
-                    input = new Input(new FileInputStream(indexFile));
-                } catch (FileNotFoundException e) {
-                    throw new UncheckedIOException(e);
-                }
-
-                IndexBuilder rootBuilder = null;
-                try {
-                    int numClasses = input.readInt(true);
-                    rootBuilder = new IndexBuilder();
-
-                    for (int classCounter = 0; classCounter < numClasses; ++classCounter) {
-                        long classId = input.readLong(true);
-                        IndexBuilder classBuilder = new IndexBuilder();
-
-                        int numEntries = input.readInt(true);
-                        for (int entryCounter = 0; entryCounter < numEntries; ++entryCounter) {
-                            long testId = input.readLong(true);
-                            Region stdOut = new Region(input.readLong(), input.readLong());
-                            Region stdErr = new Region(input.readLong(), input.readLong());
-                            classBuilder.add(testId, new Index(stdOut, stdErr));
-                        }
-
-                        rootBuilder.add(classId, classBuilder.build());
-                    }
-                } finally {
-                    input.close();
-                }
-
-                index = rootBuilder.build();
-
-                try {
-                    dataFile = new RandomAccessFile(getOutputsFile(), "r");
-                } catch (FileNotFoundException e) {
+                    this.indexFile = new MappedFile(indexFile, Integer.MAX_VALUE);
+                    this.index = this.indexFile.chunk(0);
+                    this.classCount = index.getInt(0);
+                    this.dataFile = new MappedFile(outputsFile, chunkSize);
+                } catch (IOException e) {
                     throw new UncheckedIOException(e);
                 }
             } else { // no outputs file
@@ -271,14 +247,17 @@ public class TestOutputStore {
                     throw new IllegalStateException(String.format("Test outputs data file '%s' does not exist but the index file '%s' does", outputsFile, indexFile));
                 }
 
-                index = null;
-                dataFile = null;
+                this.indexFile = null;
+                this.index = null;
+                this.classCount = 0;
+                this.dataFile = null;
             }
         }
 
         public void close() throws IOException {
             if (dataFile != null) {
                 dataFile.close();
+                indexFile.close();
             }
         }
 
@@ -287,12 +266,11 @@ public class TestOutputStore {
                 return false;
             }
 
-            Index classIndex = index.children.get(classId);
-            if (classIndex == null) {
+            int classRecord = findClassRecord(classId);
+            if (classRecord < 0) {
                 return false;
             } else {
-                Region region = destination == TestOutputEvent.Destination.StdOut ? classIndex.stdOut : classIndex.stdErr;
-                return region.start >= 0;
+                return index.getLong(regionOffset(classRecord, destination)) >= 0;
             }
         }
 
@@ -308,24 +286,75 @@ public class TestOutputStore {
             doRead(classId, testId, false, destination, writer);
         }
 
+        /**
+         * Returns the offset of the record of the given class in the index, or -1 when there is no output for the class.
+         */
+        private int findClassRecord(long classId) {
+            int low = 0;
+            int high = classCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int record = HEADER_SIZE + mid * CLASS_RECORD_SIZE;
+                long midId = index.getLong(record);
+                if (midId < classId) {
+                    low = mid + 1;
+                } else if (midId > classId) {
+                    high = mid - 1;
+                } else {
+                    return record;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns the offset of the record of the given test case of the given class record in the index, or -1 when there is no output for the test case.
+         */
+        private int findTestRecord(int classRecord, long testId) {
+            int testRecords = HEADER_SIZE + classCount * CLASS_RECORD_SIZE;
+            // the index of the first test case record and the number of test case records follow the id and the two regions
+            int low = index.getInt(classRecord + 40);
+            int high = low + index.getInt(classRecord + 44) - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int record = testRecords + mid * TEST_RECORD_SIZE;
+                long midId = index.getLong(record);
+                if (midId < testId) {
+                    low = mid + 1;
+                } else if (midId > testId) {
+                    high = mid - 1;
+                } else {
+                    return record;
+                }
+            }
+            return -1;
+        }
+
+        // both kinds of record start with the id, followed by the stdout region and the stderr region
+        private int regionOffset(int record, TestOutputEvent.Destination destination) {
+            return record + (destination == TestOutputEvent.Destination.StdOut ? 8 : 24);
+        }
+
         private void doRead(long classId, long testId, boolean allClassOutput, TestOutputEvent.Destination destination, java.io.Writer writer) {
             if (dataFile == null) {
                 return;
             }
 
-            Index targetIndex = index.children.get(classId);
-            if (targetIndex != null && testId != 0) {
-                targetIndex = targetIndex.children.get(testId);
+            int record = findClassRecord(classId);
+            if (record >= 0 && testId != 0) {
+                record = findTestRecord(record, testId);
             }
 
-            if (targetIndex == null) {
+            if (record < 0) {
                 return;
             }
 
             boolean stdout = destination == TestOutputEvent.Destination.StdOut;
-            Region region = stdout ? targetIndex.stdOut : targetIndex.stdErr;
+            int regionOffset = regionOffset(record, destination);
+            long start = index.getLong(regionOffset);
+            long stop = index.getLong(regionOffset + 8);
 
-            if (region.start < 0) {
+            if (start < 0) {
                 return;
             }
 
@@ -333,46 +362,34 @@ public class TestOutputStore {
             boolean ignoreTestLevel = !allClassOutput && testId == 0;
 
             try {
-                dataFile.seek(region.start);
-                long maxPos = region.stop - region.start;
-                KryoBackedDecoder decoder = new KryoBackedDecoder(new RandomAccessFileInputStream(dataFile));
-                while (decoder.getReadPosition() <= maxPos) {
-                    boolean readStdout = decoder.readBoolean();
-                    long readClassId = decoder.readSmallLong();
-                    long readTestId = decoder.readSmallLong();
-                    int readLength = decoder.readSmallInt();
+                DataFileCursor cursor = new DataFileCursor(dataFile, start);
+                while (cursor.getPosition() <= stop) {
+                    boolean readStdout = cursor.readBoolean();
+                    long readClassId = cursor.readSmallLong();
+                    long readTestId = cursor.readSmallLong();
+                    int readLength = cursor.readSmallInt();
 
                     boolean isClassLevel = readTestId == 0;
 
                     if (stdout != readStdout || classId != readClassId) {
-                        decoder.skipBytes(readLength);
+                        cursor.skip(readLength);
                         continue;
                     }
 
                     if (ignoreClassLevel && isClassLevel) {
-                        decoder.skipBytes(readLength);
+                        cursor.skip(readLength);
                         continue;
                     }
 
                     if (ignoreTestLevel && !isClassLevel) {
-                        decoder.skipBytes(readLength);
+                        cursor.skip(readLength);
                         continue;
                     }
 
                     if (testId == 0 || testId == readTestId) {
-                        byte[] stringBytes = new byte[readLength];
-                        decoder.readBytes(stringBytes);
-                        String message;
-                        try {
-                            message = new String(stringBytes, messageStorageCharset.name());
-                        } catch (UnsupportedEncodingException e) {
-                            // shouldn't happen
-                            throw UncheckedException.throwAsUncheckedException(e);
-                        }
-
-                        writer.write(message);
+                        cursor.decode(readLength, writer);
                     } else {
-                        decoder.skipBytes(readLength);
+                        cursor.skip(readLength);
                     }
                 }
             } catch (IOException e1) {
@@ -381,6 +398,131 @@ public class TestOutputStore {
         }
     }
 
+    /**
+     * Reads events from a mapped data file, starting at a given position. The values are encoded the same way as {@link KryoBackedEncoder} encodes them.
+     * Not thread-safe, each read uses its own cursor.
+     */
+    private class DataFileCursor {
+        private final MappedFile file;
+        private long position;
+        private ByteBuffer chunk;
+        private long chunkStart;
+        private CharsetDecoder decoder;
+        private CharBuffer chars;
+
+        DataFileCursor(MappedFile file, long position) {
+            this.file = file;
+            this.position = position;
+        }
+
+        long getPosition() {
+            return position;
+        }
+
+        private ByteBuffer currentChunk() {
+            if (chunk == null || position < chunkStart || position >= chunkStart + chunk.limit()) {
+                if (position >= file.getLength()) {
+                    throw new IllegalStateException(String.format("Unexpected end of test outputs data file at position %s.", position));
+                }
+                int chunkIndex = (int) (position / file.getChunkSize());
+                chunk = file.chunk(chunkIndex);
+                chunkStart = (long) chunkIndex * file.getChunkSize();
+            }
+            return chunk;
+        }
+
+        byte readByte() {
+            byte value = currentChunk().get((int) (position - chunkStart));
+            position++;
+            return value;
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        int readSmallInt() {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        long readSmallLong() {
+            long result = 0;
+            for (int shift = 0; shift < 56; shift += 7) {
+                int b = readByte();
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            return result | (long) (readByte() & 0xFF) << 56;
+        }
+
+        void skip(int count) {
+            position += count;
+        }
+
+        void decode(int length, java.io.Writer writer) throws IOException {
+            if (length == 0) {
+                return;
+            }
+
+            ByteBuffer bytes;
+            ByteBuffer current = currentChunk();
+            int offset = (int) (position - chunkStart);
+            if (offset + length <= current.limit()) {
+                bytes = current.duplicate();
+                bytes.limit(offset + length);
+                bytes.position(offset);
+                position += length;
+            } else {
+                // the message spans chunks, so it needs to be copied
+                byte[] copy = new byte[length];
+                int copied = 0;
+                while (copied < length) {
+                    ByteBuffer source = currentChunk().duplicate();
+                    source.position((int) (position - chunkStart));
+                    int count = Math.min(length - copied, source.remaining());
+                    source.get(copy, copied, count);
+                    copied += count;
+                    position += count;
+                }
+                bytes = ByteBuffer.wrap(copy);
+            }
+
+            if (decoder == null) {
+                decoder = messageStorageCharset.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+                chars = CharBuffer.allocate(4096);
+            } else {
+                decoder.reset();
+            }
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, chars, true);
+                drain(writer);
+            } while (result.isOverflow());
+            do {
+                result = decoder.flush(chars);
+                drain(writer);
+            } while (result.isOverflow());
+        }
+
+        private void drain(java.io.Writer writer) throws IOException {
+            chars.flip();
+            writer.write(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+            chars.clear();
+        }
+    }
+
     // IMPORTANT: return must be closed when done with.
     public Reader reader() {
         return new Reader();
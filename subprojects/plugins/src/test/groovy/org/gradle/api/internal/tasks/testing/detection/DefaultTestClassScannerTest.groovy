@@ -17,8 +17,10 @@
 
 package org.gradle.api.internal.tasks.testing.detection
 
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.util.JUnit4GroovyMockery
 import org.jmock.integration.junit4.JMock
+import org.junit.After
 import org.junit.runner.RunWith
 import org.junit.Test
 
@@ -26,6 +28,8 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor
 import org.jmock.Sequence
 import org.gradle.api.file.FileTree
 import static org.hamcrest.Matchers.*
+import static org.junit.Assert.assertThat
+import static org.junit.Assert.fail
 import org.gradle.api.file.FileVisitDetails
 
 @RunWith(JMock.class)
@@ -34,10 +38,16 @@ public class DefaultTestClassScannerTest {
     private final TestFrameworkDetector detector = context.mock(TestFrameworkDetector.class)
     private final TestClassProcessor processor = context.mock(TestClassProcessor.class)
     private final FileTree files = context.mock(FileTree.class)
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory()
+
+    @After
+    public void tearDown() {
+        executorFactory.stop()
+    }
 
     @Test
     public void passesEachClassFileToTestClassDetector() {
-        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor)
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, detector, processor, executorFactory)
 
         context.checking {
             Sequence sequence = context.sequence('seq')
@@ -55,4 +65,45 @@ public class DefaultTestClassScannerTest {
         
         scanner.run()
     }
+
+    @Test
+    public void passesManyClassFilesToTestClassDetector() {
+        Set<File> detected = Collections.synchronizedSet(new HashSet<File>())
+        TestFrameworkDetector recordingDetector = [startDetection: { testClassProcessor -> }, processTestClass: { File file -> detected << file; true }] as TestFrameworkDetector
+        List<File> classFiles = (1..1000).collect { new File("Class${it}.class") }
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, recordingDetector, processor, executorFactory)
+
+        context.checking {
+            one(files).visit(withParam(notNullValue()))
+            will { visitor ->
+                classFiles.each { file -> visitor.visitFile({ file } as FileVisitDetails) }
+            }
+        }
+
+        scanner.run()
+
+        assertThat(detected, equalTo(classFiles as Set))
+    }
+
+    @Test
+    public void propagatesTestClassDetectionFailure() {
+        RuntimeException failure = new RuntimeException("broken")
+        TestFrameworkDetector failingDetector = [startDetection: { testClassProcessor -> }, processTestClass: { File file -> throw failure }] as TestFrameworkDetector
+        DefaultTestClassScanner scanner = new DefaultTestClassScanner(files, failingDetector, processor, executorFactory)
+
+        context.checking {
+            one(files).visit(withParam(notNullValue()))
+            will { visitor ->
+                visitor.visitFile({new File('class1.class')} as FileVisitDetails)
+                visitor.visitFile({new File('class2.class')} as FileVisitDetails)
+            }
+        }
+
+        try {
+            scanner.run()
+            fail()
+        } catch (RuntimeException e) {
+            assertThat(e, sameInstance(failure))
+        }
+    }
 }
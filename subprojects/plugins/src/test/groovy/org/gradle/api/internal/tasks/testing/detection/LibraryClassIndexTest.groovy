@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.api.GradleException
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class LibraryClassIndexTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    final index = new LibraryClassIndex()
+
+    def "reads class bytes from library jar"() {
+        tmpDir.file("lib1/org/gradle/Foo.class").text = "foo"
+        tmpDir.file("lib1/org/gradle/Bar.class").text = "bar"
+        def jar = tmpDir.file("lib1.jar")
+        tmpDir.file("lib1").zipTo(jar)
+
+        when:
+        index.addLibraryJar(jar)
+
+        then:
+        new String(index.getLibraryClassBytes("org/gradle/Foo")) == "foo"
+        new String(index.getLibraryClassBytes("org/gradle/Bar")) == "bar"
+        index.getLibraryClassBytes("org/gradle/Unknown") == null
+    }
+
+    def "uses class from first jar that contains it"() {
+        tmpDir.file("lib1/org/gradle/Foo.class").text = "first"
+        tmpDir.file("lib2/org/gradle/Foo.class").text = "second"
+        def jar1 = tmpDir.file("lib1.jar")
+        def jar2 = tmpDir.file("lib2.jar")
+        tmpDir.file("lib1").zipTo(jar1)
+        tmpDir.file("lib2").zipTo(jar2)
+
+        when:
+        index.addLibraryJar(jar1)
+        index.addLibraryJar(jar2)
+
+        then:
+        new String(index.getLibraryClassBytes("org/gradle/Foo")) == "first"
+    }
+
+    def "does not scan jars that are not needed to find a class"() {
+        tmpDir.file("lib1/org/gradle/Foo.class").text = "foo"
+        def jar1 = tmpDir.file("lib1.jar")
+        tmpDir.file("lib1").zipTo(jar1)
+        def jar2 = tmpDir.file("lib2.jar")
+        jar2.text = "not a jar"
+
+        when:
+        index.addLibraryJar(jar1)
+        index.addLibraryJar(jar2)
+
+        then:
+        new String(index.getLibraryClassBytes("org/gradle/Foo")) == "foo"
+
+        when:
+        index.getLibraryClassBytes("org/gradle/Unknown")
+
+        then:
+        GradleException e = thrown()
+        e.message.startsWith("failed to scan jar file for classes")
+    }
+
+    def "reads class from a jar that contains other classes of the same package"() {
+        tmpDir.file("lib1/org/gradle/Foo.class").text = "foo"
+        tmpDir.file("lib2/org/gradle/Bar.class").text = "bar"
+        def jar1 = tmpDir.file("lib1.jar")
+        def jar2 = tmpDir.file("lib2.jar")
+        tmpDir.file("lib1").zipTo(jar1)
+        tmpDir.file("lib2").zipTo(jar2)
+
+        when:
+        index.addLibraryJar(jar1)
+        index.addLibraryJar(jar2)
+
+        then:
+        new String(index.getLibraryClassBytes("org/gradle/Bar")) == "bar"
+        index.getLibraryClassBytes("org/other/Bar") == null
+    }
+}
@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.testing.junit.report
 import org.gradle.api.internal.tasks.testing.BuildableTestResultsProvider
 import org.gradle.api.internal.tasks.testing.junit.result.AggregateTestResultsProvider
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.ConfigureUtil
@@ -27,7 +28,7 @@ import spock.lang.Specification
 class DefaultTestReportTest extends Specification {
     @Rule
     public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
-    final DefaultTestReport report = new DefaultTestReport()
+    final DefaultTestReport report = new DefaultTestReport(new DefaultExecutorFactory())
     final TestFile reportDir = tmpDir.file('report')
     final TestFile indexFile = reportDir.file('index.html')
     final TestResultsProvider testResultProvider = Mock()
@@ -477,6 +478,83 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    def doesNotRenderClassPagesWhoseResultsHaveNotChanged() {
+        given:
+        report.generateReport(passingBuildResults(), reportDir)
+        def passedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        def alsoPassedClassFile = reportDir.file('classes/org.gradle.passing.subpackage.AlsoPassed.html')
+        passedClassFile.text = "previous"
+        alsoPassedClassFile.text = "previous"
+
+        when:
+        report.generateReport(buildResults {
+            testClassResult("org.gradle.passing.Passed") {
+                testcase("passed") {
+                    duration = 1000;
+                }
+            }
+            testClassResult("org.gradle.passing.subpackage.AlsoPassed") {
+                testcase("passedToo") {
+                    duration = 1000;
+                    stdout "this is\nchanged standard output"
+                    stderr "this is\nstandard error"
+                }
+            }
+        }, reportDir)
+
+        then:
+        passedClassFile.text == "previous"
+        results(alsoPassedClassFile).assertHasStandardOutput("this is\nchanged standard output")
+    }
+
+    def rendersClassPagesWhoseDisplayedDurationHasChanged() {
+        given:
+        report.generateReport(singleTestResults(1000), reportDir)
+        def passedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+
+        when:
+        report.generateReport(singleTestResults(1100), reportDir)
+
+        then:
+        results(passedClassFile).testDetails('passed').assertDuration("1.100s")
+    }
+
+    def doesNotRenderClassPagesWhoseDurationHasOnlyChangedBelowTheDisplayedPrecision() {
+        given:
+        report.generateReport(singleTestResults(61000), reportDir)
+        def passedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        passedClassFile.text = "previous"
+
+        when:
+        report.generateReport(singleTestResults(61004), reportDir)
+
+        then:
+        passedClassFile.text == "previous"
+    }
+
+    private TestResultsProvider singleTestResults(long testDuration) {
+        buildResults {
+            testClassResult("org.gradle.passing.Passed") {
+                testcase("passed") {
+                    duration = testDuration
+                }
+            }
+        }
+    }
+
+    def rendersClassPagesThatNoLongerExist() {
+        given:
+        report.generateReport(passingBuildResults(), reportDir)
+        def passedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        passedClassFile.delete()
+
+        when:
+        report.generateReport(passingBuildResults(), reportDir)
+
+        then:
+        results(passedClassFile).assertHasTest('passed')
+    }
+
     TestResultsProvider buildResults(Closure closure) {
         ConfigureUtil.configure(closure, new BuildableTestResultsProvider())
     }
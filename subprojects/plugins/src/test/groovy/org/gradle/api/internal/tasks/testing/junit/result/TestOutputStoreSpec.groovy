@@ -89,6 +89,30 @@ class TestOutputStoreSpec extends WorkspaceTest {
         collectOutput(reader, 2, StdOut) == "[out-6]"
     }
 
+    def "reads output that spans the chunks of the mapped data file"() {
+        given:
+        def store = new TestOutputStore(testDirectory, 5)
+
+        when:
+        def writer = store.writer()
+        writer.onOutput(1, output(StdOut, "[out-1]"))
+        writer.onOutput(300, 1, output(StdOut, "[\u0256\u0256\u0256]"))
+        writer.onOutput(1, 1000, output(StdOut, ""))
+        writer.onOutput(1, 1000, output(StdOut, "[out-2]"))
+        writer.onOutput(300, 1, output(StdErr, "[out-3]"))
+        writer.close()
+        def reader = store.reader()
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == "[out-1][out-2]"
+        collectOutput(reader, 1, 1000, StdOut) == "[out-2]"
+        collectOutput(reader, 300, 1, StdOut) == "[\u0256\u0256\u0256]"
+        collectAllOutput(reader, 300, StdErr) == "[out-3]"
+
+        cleanup:
+        reader?.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }